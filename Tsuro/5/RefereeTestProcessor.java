@@ -1,5 +1,6 @@
 import com.google.gson.*;
 
+import java.awt.GraphicsEnvironment;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -46,7 +47,9 @@ public class RefereeTestProcessor {
     output.add("winners", eliminatedJson);
     output.add("losers", kickedJson);
     System.out.println(output.toString());
-    Observer observer = new Observer(referee.board);
+    if (!GraphicsEnvironment.isHeadless()) {
+      Observer observer = new Observer(referee.board);
+    }
   }
   
   private static JsonArray getEliminatedJson(ArrayList<ArrayList<IPlayer>> eliminated) {
@@ -120,6 +120,10 @@ public class ClientTest {
       case "Dumb":
       case "second":
       case "Second":
+      case "expectimax":
+      case "Expectimax":
+      case "mcts":
+      case "MCTS":
         return;
       default:
         throw new IllegalArgumentException("Given strategy name (" + strategy +
@@ -36,8 +36,7 @@ public class MockReferee extends Referee {
     public void setCurOptions(ArrayList<Tiles> newOptions) {
         ArrayList<Tiles> copyOfnewOptions = new ArrayList<>();
         for (Tiles t: newOptions) {
-            Tiles copy = Tiles.all35Tiles().get(t.getIdxInAll35()).clone();
-            copyOfnewOptions.add(copy);
+            copyOfnewOptions.add(Tiles.variant(t.getIdxInAll35(), 0));
         }
         this.curOptions = copyOfnewOptions;
     }
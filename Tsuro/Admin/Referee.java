@@ -1,22 +1,55 @@
 import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 
 import java.awt.*;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
-
+/**
+ * Runs a game of Tsuro between Players, telling Observers of each turn.
+ *
+ * Players and Observers are only sent what happens on a queue of their own,
+ * so that a slow one does not hold up the game, when a move deadline is set.
+ * With no deadline, the default that Tournament and SelfPlayBenchmark use,
+ * every call on them is made on the thread running the game, one at a time.
+ */
 public class Referee implements IReferee {
+    // Makes the calls on Players and Observers when there is a deadline, shared by every game.
+    private static final ExecutorService PLAYER_CALLS = Executors.newCachedThreadPool(call -> {
+        Thread thread = new Thread(call, "player-call");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private PlayerManager playerManager;
     boolean gameOver;
     boolean initialPlacementDone;
     Board board;
     ArrayList<String> observers;
-    int lastOption;
-    private ArrayList<Tiles> drawingTileStack;
+    private TileSource tileSource;
+    private ArrayList<Integer> dealtTiles;
     private ArrayList<Tiles> all35tiles;
     private IPlayer curTurn;
     private int curSelected;
     private ArrayList<Tiles> curOptions;
+    private int turnCount;
+    private long moveDeadlineMillis;
+    private ArrayList<IObserver> boardObservers;
+    private IdentityHashMap<Object, Outbox> outboxes;
+    private int boardVersion;
+    private IdentityHashMap<IPlayer, Integer> boardSent;
     
     public Referee() {
         this.playerManager = new PlayerManager();
@@ -24,22 +57,58 @@ public class Referee implements IReferee {
         this.initialPlacementDone = false;
         this.board = new Board();
         this.observers = new ArrayList<>();
-        this.lastOption = 0;
-        this.initDrawingTileStack();
+        this.tileSource = new RoundRobinTileSource();
+        this.dealtTiles = new ArrayList<>();
         this.all35tiles = Tiles.all35Tiles();
+        this.boardObservers = new ArrayList<>();
+        this.outboxes = new IdentityHashMap<>();
+        this.boardSent = new IdentityHashMap<>();
     }
     
     public Referee(int height, int width) {
+        this(height, width, new RoundRobinTileSource());
+    }
+
+    /**
+     * Constructs a Referee for a Board of the given size that deals tiles from
+     * the given source.
+     *
+     * @param height     The height of the Board.
+     * @param width      The width of the Board.
+     * @param tileSource Where the tiles dealt as options come from.
+     */
+    public Referee(int height, int width, TileSource tileSource) {
         this.playerManager = new PlayerManager();
         this.gameOver = false;
         this.initialPlacementDone = false;
         this.board = new Board(height, width);
         this.observers = new ArrayList<>();
-        this.lastOption = 0;
-        this.initDrawingTileStack();
+        this.tileSource = tileSource;
+        this.dealtTiles = new ArrayList<>();
         this.all35tiles = Tiles.all35Tiles();
+        this.boardObservers = new ArrayList<>();
+        this.outboxes = new IdentityHashMap<>();
+        this.boardSent = new IdentityHashMap<>();
     }
     
+    /**
+     * Sets how long a Player may take to provide a placement before it is
+     * kicked. With a deadline, every call on a Player or Observer is made on
+     * another thread, one after another for each of them, so the game never
+     * waits on one that is slow to take what it is sent. Without one, they
+     * are called on the thread running the game, and Players may take as long
+     * as they like.
+     *
+     * @param millis The deadline in milliseconds, or 0 for none.
+     * @throws IllegalArgumentException If the deadline is negative.
+     */
+    public void setMoveDeadline(long millis) throws IllegalArgumentException {
+        if (millis < 0) {
+            throw new IllegalArgumentException("A move deadline cannot be negative.");
+        }
+        this.moveDeadlineMillis = millis;
+    }
+
     /**
     * Returns the current state of the Board.
     */
@@ -70,12 +139,14 @@ public class Referee implements IReferee {
         connectToBoard();
         this.playerManager.initGame();
         assignColors();
+        this.broadcast(null);
         promptAllInitialPlacements();
         while (!this.gameOver) {
             promptInterPlacement();
             checkGameOver();
         }
         this.playerManager.finalizeGame();
+        this.awaitOutboxes();
     }
 
     /**
@@ -115,26 +186,203 @@ public class Referee implements IReferee {
         ArrayList<Tiles> options = getOptions(3);
         this.curOptions = options;
         this.curTurn = player;
-        player.setTileHand(options);
-        player.updateBoard(this.board);
-        JsonArray placementRequest = player.provideInitPlacement();
+        this.post(player, () -> player.setTileHand(options));
+        this.sendBoard(player);
+        JsonArray placementRequest = this.awaitPlacement(player, player::provideInitPlacement);
+        if (placementRequest == null) {
+            this.playerManager.kickPlayer(player);
+            return;
+        }
         Tiles tile = this.all35tiles.get(placementRequest.get(0).getAsInt());
         this.curSelected = placementRequest.get(0).getAsInt();
-        tile.rotate(placementRequest.get(1).getAsInt());
+        tile = tile.rotate(placementRequest.get(1).getAsInt());
         Port.PortName port = Port.PortName.valueOf(placementRequest.get(3).getAsString());
         Point pos = new Point(placementRequest.get(4).getAsInt(), placementRequest.get(5).getAsInt());
         if (Rules.isInitialPlacementLegal(this.board, pos,
                 port, tile)) {
             this.board.initialPlacement(pos.x, pos.y, tile, port, player.getAvatar());
+            ++this.turnCount;
             player.getAvatar().updatePosition(pos.x, pos.y, port);
             this.moveAvatar(player.getAvatar(), true);
-            player.setAvatar(player.getAvatar());
+            this.sendAvatar(player);
+            this.broadcast(placementRequest);
         } else {
-            this.drawingTileStack.add(tile);
-            this.playerManager.kickPlayer(player, this.drawingTileStack);
+            this.playerManager.kickPlayer(player);
+        }
+    }
+
+    /**
+     * Asks the given Player for a placement and waits for it, for no longer
+     * than the move deadline if there is one. A Player that gives none in
+     * time is disconnected, as it may still be waiting on its Client or
+     * searching.
+     *
+     * @param player  The Player on move.
+     * @param request The call that asks the Player for the placement.
+     * @return The placement, or null if the Player gave none in time, or
+     * could not give one.
+     */
+    private JsonArray awaitPlacement(IPlayer player, Supplier<JsonArray> request) {
+        if (this.moveDeadlineMillis == 0) {
+            return request.get();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.moveDeadlineMillis);
+        Future<JsonArray> placement = this.outbox(player).submit(request::get);
+        try {
+            return placement.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Interrupting the call does not stop a Player blocked on a socket or searching.
+            player.disconnect();
+            placement.cancel(true);
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            placement.cancel(true);
+            Thread.currentThread().interrupt();
+            return null;
         }
     }
 
+    /**
+     * Sends the Board to every active Player and tells every Observer what
+     * was placed, once the Board has changed. Each Player is sent the Board
+     * only once for each change, so a Player whose turn comes next already
+     * has it. With a move deadline, the updates are queued for each Player
+     * and Observer and made in parallel, while the game goes on: a Player
+     * slow to take them falls behind, and is only kicked if it is slow to
+     * provide a placement on its own turn.
+     *
+     * @param placement The placement that changed the Board, or null at the
+     *                  start of the game.
+     */
+    private void broadcast(JsonArray placement) {
+        ++this.boardVersion;
+        for (IPlayer player : this.getActive()) {
+            if (!player.hasExited()) {
+                this.sendBoard(player);
+            }
+        }
+        if (!this.boardObservers.isEmpty()) {
+            this.updateObserver(this.describeTurn(placement).toString());
+        }
+    }
+
+    /**
+     * Sends the Board to the given Player, unless it already has the Board as
+     * it is.
+     *
+     * @param player The Player.
+     */
+    private void sendBoard(IPlayer player) {
+        Integer sent = this.boardSent.put(player, this.boardVersion);
+        if (sent == null || sent != this.boardVersion) {
+            Board view = this.viewOfBoard();
+            this.post(player, () -> player.updateBoard(view));
+        }
+    }
+
+    /**
+     * Gives the Board as it now is for sending to one Player. With a move
+     * deadline, this is a copy of the Player's own, made on this thread, as
+     * the Player reads and searches it on another while the game goes on,
+     * and may still be searching after it is given up on. Without one, the
+     * Player is called on this thread while the Board stands still, so it is
+     * the Board itself.
+     *
+     * @return The Board to send.
+     */
+    private Board viewOfBoard() {
+        return this.moveDeadlineMillis == 0 ? this.board : this.board.copy();
+    }
+
+    /**
+     * Tells the given Player where its Avatar stands. With a move deadline,
+     * the Player is told on another thread while the Avatar goes on moving,
+     * so it is sent a copy made on this thread.
+     *
+     * @param player The Player.
+     */
+    private void sendAvatar(IPlayer player) {
+        Avatar avatar = this.moveDeadlineMillis == 0 ? player.getAvatar() : player.getAvatar().copy();
+        this.post(player, () -> player.updateAvatar(avatar));
+    }
+
+    /**
+     * Gives what the Observers are told about a turn: its number, the
+     * placement, and where every Avatar stands after it.
+     *
+     * @param placement The placement, or null at the start of the game.
+     * @return The description of the turn.
+     */
+    private JsonObject describeTurn(JsonArray placement) {
+        JsonObject turn = new JsonObject();
+        turn.addProperty("turn", this.turnCount);
+        turn.add("placement", placement == null ? new JsonArray() : placement);
+        JsonArray avatars = new JsonArray();
+        for (IPlayer player : this.getRegistered()) {
+            Avatar avatar = player.getAvatar();
+            if (avatar != null && avatar.getCurrentPort() != null) {
+                JsonArray position = new JsonArray();
+                position.add(player.getAvatarName());
+                position.add(avatar.getPos().x);
+                position.add(avatar.getPos().y);
+                position.add(avatar.getCurrentPort().name());
+                position.add(avatar.hasExited());
+                avatars.add(position);
+            }
+        }
+        turn.add("avatars", avatars);
+        return turn;
+    }
+
+    /**
+     * Waits, for no longer than the move deadline, until every call on the
+     * Players and Observers has been made, so nothing is still being sent to
+     * them once the game is over.
+     */
+    private void awaitOutboxes() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.moveDeadlineMillis);
+        for (Outbox outbox : this.outboxes.values()) {
+            try {
+                outbox.submit(() -> null).get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                // Whatever is still being sent is given up on.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Makes the given call on the given Player or Observer: at once without a
+     * move deadline, or queued after the calls already made on it with one.
+     *
+     * @param recipient The Player or Observer.
+     * @param call      The call.
+     */
+    private void post(Object recipient, Runnable call) {
+        if (this.moveDeadlineMillis == 0) {
+            call.run();
+            return;
+        }
+        this.outbox(recipient).submit(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Gets the queue of calls on the given Player or Observer.
+     *
+     * @param recipient The Player or Observer.
+     * @return Its Outbox.
+     */
+    private Outbox outbox(Object recipient) {
+        return this.outboxes.computeIfAbsent(recipient, unused -> new Outbox(PLAYER_CALLS));
+    }
+
     /**
      * Provide the options of Tiles for teh Player to choose from
      * @param numOfOptions The number of options for the player to choose from
@@ -143,14 +391,45 @@ public class Referee implements IReferee {
     private ArrayList<Tiles> getOptions(int numOfOptions) {
         ArrayList<Tiles> options = new ArrayList<>();
         for (int i = 0; i < numOfOptions; i++) {
-
-            options.add(this.all35tiles.get(this.lastOption));
-            this.lastOption += 1;
-            this.lastOption %= 34;
+            Tiles tile = this.tileSource.draw();
+            this.dealtTiles.add(tile.getIdxInAll35());
+            options.add(tile);
         }
         return options;
     }
 
+    /**
+     * Gives how many copies of each tile are left to be dealt, so strategies
+     * can weigh what other Players may draw. This tells nothing about the
+     * order they will be dealt in.
+     *
+     * @return A new array of the number of copies left, indexed by the tile's
+     * position in all35Tiles().
+     */
+    public int[] getRemainingTiles() {
+        return this.tileSource.getRemaining();
+    }
+
+    /**
+     * Gives the tiles dealt so far in this game, in order, for replaying the
+     * game with a ReplayTileSource.
+     *
+     * @return The positions in all35Tiles() of the dealt tiles.
+     */
+    public List<Integer> getDealtTiles() {
+        return Collections.unmodifiableList(this.dealtTiles);
+    }
+
+    /**
+     * Gives the number of tiles placed on the Board so far in this game,
+     * initial placements included. Turns that got a Player kicked are not
+     * counted.
+     *
+     * @return The number of turns played.
+     */
+    public int getTurnCount() {
+        return this.turnCount;
+    }
 
     /**
      * Provide the player the options of Tiles, updates board, receives Tile options
@@ -159,29 +438,33 @@ public class Referee implements IReferee {
         for (IPlayer player : new ArrayList<>(this.playerManager.getActive())) {
             if (!player.hasExited()) {
                 ArrayList<Tiles> options = this.getOptions(2);
-                player.setTileHand(options);
+                this.post(player, () -> player.setTileHand(options));
                 this.curTurn = player;
                 this.curOptions = options;
-                player.updateBoard(this.board);
-                JsonArray placementRequest = player.provideInterPlacement();
+                this.sendBoard(player);
+                JsonArray placementRequest = this.awaitPlacement(player, player::provideInterPlacement);
+                if (placementRequest == null) {
+                    this.playerManager.kickPlayer(player);
+                    continue;
+                }
                 Tiles tile = this.all35tiles.get(placementRequest.get(1).getAsInt());
                 this.curSelected = placementRequest.get(1).getAsInt();
-                tile.rotate(placementRequest.get(2).getAsInt());
+                tile = tile.rotate(placementRequest.get(2).getAsInt());
                 Point pos = new Point(placementRequest.get(3).getAsInt(), placementRequest.get(4).getAsInt());
                 boolean isPlaceTileLegal = Rules.isPlaceTileLegal(this.board, pos.x, pos.y, tile, player.getAvatar());
-                boolean willEndInDeath = Rules.willEndInDeath(this.board, pos.x,
-                        pos.y, player.getAvatar().getCurrentPort().advance(), tile,
-                        true);
-                boolean hasNoMoves = player.hasNoMoves(this.board, tile, false);
+                ArrayList<Tiles> hand = new ArrayList<>(options);
+                hand.add(tile);
+                MoveList legalMoves = Rules.legalMoves(this.board, player.getAvatar(), hand);
                 
                 
-                if ((isPlaceTileLegal && !willEndInDeath) || hasNoMoves) {
+                if ((isPlaceTileLegal && legalMoves.contains(tile)) || !legalMoves.hasSafeMove()) {
                     board.placeTile(pos.x,pos.y,tile,player.getAvatar(),false);
+                    ++this.turnCount;
                     this.advancePlayers();
-                    player.setAvatar(player.getAvatar());
+                    this.sendAvatar(player);
+                    this.broadcast(placementRequest);
                 } else {
-                    this.drawingTileStack.add(tile);
-                    this.playerManager.kickPlayer(player, this.drawingTileStack);
+                    this.playerManager.kickPlayer(player);
                 }
             }
         }
@@ -201,7 +484,7 @@ public class Referee implements IReferee {
                 exitingPlayers.add(player);
             }
         }
-        this.playerManager.eliminatePlayers(exitingPlayers, this.drawingTileStack);
+        this.playerManager.eliminatePlayers(exitingPlayers);
     }
 
     /**
@@ -328,6 +611,17 @@ public class Referee implements IReferee {
 
     }
 
+    /**
+     * Adds an Observer that is told of every turn as it is played, as a JSON
+     * object of the turn's number, its placement, and where every Avatar
+     * stands after it.
+     *
+     * @param observer The Observer.
+     */
+    public void addObserver(IObserver observer) {
+        this.boardObservers.add(observer);
+    }
+
     /**
      * Updates all Observers with either:
      * 1. New updates to the Board
@@ -337,7 +631,9 @@ public class Referee implements IReferee {
      */
     @Override
     public void updateObserver(String jsonString) {
-        return;
+        for (IObserver observer : this.boardObservers) {
+            this.post(observer, () -> observer.append(jsonString));
+        }
     }
     
     /**
@@ -370,24 +666,6 @@ public class Referee implements IReferee {
         return this.playerManager.getActive();
     }
     
-    /**
-     * Initializes the drawing of the 35-tile stack
-     */
-    private void initDrawingTileStack() {
-        int numTiles = this.board.getHeight() * this.board.getWidth();
-        this.drawingTileStack = new ArrayList(numTiles);
-        while (numTiles >= 35) {
-            this.drawingTileStack.addAll(Tiles.all35Tiles());
-            numTiles -= 35;
-        }
-        ArrayList<Tiles> finalStack = Tiles.all35Tiles();
-        Collections.shuffle(finalStack);
-        while (numTiles > 0) {
-            this.drawingTileStack.add(finalStack.remove(0));
-            numTiles -= 1;
-        }
-    }
-    
     /**
      * Manages all Players in the game. Keeps track of all active and 
      * eliminated players as well as the creation of new players in the game.
@@ -470,18 +748,18 @@ public class Referee implements IReferee {
             this.active = new ArrayList<>(this.registered);
         }
         
-        private void kickPlayer(IPlayer p, ArrayList<Tiles> drawingTileStack) {
+        private void kickPlayer(IPlayer p) {
             if (this.active.contains(p)) {
                 this.active.remove(p);
                 this.kicked.add(p);
-                p.setKicked();
+                Referee.this.post(p, p::setKicked);
             }
         }
         
-        private void eliminatePlayers(ArrayList<IPlayer> players, ArrayList<Tiles> drawingTileStack) {
+        private void eliminatePlayers(ArrayList<IPlayer> players) {
             for (IPlayer player : players) {
                 this.active.remove(player);
-                player.setEliminated();
+                Referee.this.post(player, player::setEliminated);
             }
             if (players.size() > 0) {
                 this.eliminated.add(players);
@@ -498,5 +776,56 @@ public class Referee implements IReferee {
             }
         }
     }
-}
 
+    /**
+     * The calls on one Player or Observer, made one after another in the order
+     * they were queued, on a pool shared with every other Player and
+     * Observer. Cancelling a call that is being made interrupts it, and the
+     * calls after it are still made.
+     */
+    private static class Outbox {
+        private ExecutorService pool;
+        private ArrayDeque<FutureTask<?>> queue;
+        private boolean draining;
+
+        private Outbox(ExecutorService pool) {
+            this.pool = pool;
+            this.queue = new ArrayDeque<>();
+        }
+
+        /**
+         * Queues the given call.
+         *
+         * @param call The call.
+         * @return The queued call, which can be waited on or cancelled.
+         */
+        private synchronized <T> Future<T> submit(Callable<T> call) {
+            FutureTask<T> task = new FutureTask<>(call);
+            this.queue.add(task);
+            if (!this.draining) {
+                this.draining = true;
+                this.pool.execute(this::drain);
+            }
+            return task;
+        }
+
+        /**
+         * Makes the queued calls until there are none left.
+         */
+        private void drain() {
+            while (true) {
+                FutureTask<?> next;
+                synchronized (this) {
+                    next = this.queue.poll();
+                    if (next == null) {
+                        this.draining = false;
+                        return;
+                    }
+                }
+                next.run();
+                // A call cancelled while it was being made leaves its interrupt behind.
+                Thread.interrupted();
+            }
+        }
+    }
+}
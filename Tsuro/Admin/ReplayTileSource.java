@@ -0,0 +1,50 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A TileSource that deals a recorded list of tiles, such as the one given by
+ * Referee.getDealtTiles() after an earlier game, so that game can be played
+ * again with exactly the same options.
+ */
+public class ReplayTileSource implements TileSource {
+    private ArrayList<Tiles> all35tiles;
+    private int[] tileIds;
+    private int next;
+
+    /**
+     * Constructs a ReplayTileSource.
+     *
+     * @param tileIds The positions in all35Tiles() of the tiles to deal, in
+     *                order.
+     * @throws IllegalArgumentException If a position is not that of a tile.
+     */
+    public ReplayTileSource(List<Integer> tileIds) throws IllegalArgumentException {
+        this.all35tiles = Tiles.all35Tiles();
+        this.tileIds = new int[tileIds.size()];
+        for (int ii = 0; ii < this.tileIds.length; ++ii) {
+            int tileId = tileIds.get(ii);
+            if (tileId < 0 || tileId >= Tiles.NUM_TILES) {
+                throw new IllegalArgumentException("There is no tile " + tileId + " to replay.");
+            }
+            this.tileIds[ii] = tileId;
+        }
+        this.next = 0;
+    }
+
+    @Override
+    public Tiles draw() throws IllegalStateException {
+        if (this.next == this.tileIds.length) {
+            throw new IllegalStateException("No tiles are left to replay.");
+        }
+        return this.all35tiles.get(this.tileIds[this.next++]);
+    }
+
+    @Override
+    public int[] getRemaining() {
+        int[] remaining = new int[Tiles.NUM_TILES];
+        for (int ii = this.next; ii < this.tileIds.length; ++ii) {
+            ++remaining[this.tileIds[ii]];
+        }
+        return remaining;
+    }
+}
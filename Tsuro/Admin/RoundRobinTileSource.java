@@ -0,0 +1,45 @@
+import java.util.ArrayList;
+
+/**
+ * A TileSource that deals tiles in the order of all35Tiles(), starting over
+ * after the 34th. This is the order Referees have always dealt in, so games
+ * and the referee tests come out the same as before sources existed.
+ */
+public class RoundRobinTileSource implements TileSource {
+    private static final int CYCLE = 34;
+
+    private ArrayList<Tiles> all35tiles;
+    private int next;
+
+    /**
+     * Constructs a RoundRobinTileSource that deals the first tile first.
+     */
+    public RoundRobinTileSource() {
+        this.all35tiles = Tiles.all35Tiles();
+        this.next = 0;
+    }
+
+    @Override
+    public Tiles draw() {
+        Tiles tile = this.all35tiles.get(this.next);
+        this.next = (this.next + 1) % CYCLE;
+        return tile;
+    }
+
+    /**
+     * Gives one copy of each tile from the next to be dealt to the end of
+     * the cycle, since the source deals each of them once before starting
+     * over.
+     *
+     * @return A new array of the number of copies left, indexed by the tile's
+     * position in all35Tiles().
+     */
+    @Override
+    public int[] getRemaining() {
+        int[] remaining = new int[Tiles.NUM_TILES];
+        for (int ii = this.next; ii < CYCLE; ++ii) {
+            remaining[ii] = 1;
+        }
+        return remaining;
+    }
+}
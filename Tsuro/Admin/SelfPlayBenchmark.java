@@ -0,0 +1,290 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays games between in-process Players, one after another on the calling
+ * thread, and measures how fast the engine runs them. Nothing is drawn, so it
+ * runs on machines without a display, and every game's Referee and Players
+ * are thrown away once it is over.
+ * <p>
+ * Each game deals from a ShuffledTileSource seeded from the benchmark's seed
+ * and the game's number, and the seats are moved round by one each game, so
+ * a run with the same seed and strategies plays the same games. A number of
+ * warm-up games, seeded apart from the measured ones, can be played first to
+ * let the JIT compiler settle.
+ * <p>
+ * Allocation is read from the JVM's count of bytes allocated by the calling
+ * thread, where it keeps one. Work that strategies hand to other threads,
+ * such as the playouts of MctsStrategy, is timed but its allocation is not
+ * counted.
+ * <p>
+ * Traces are counted on the Referee's Board only. With no move deadline, as
+ * here, Players are handed that Board, so the traces strategies make on it
+ * are counted, but not those made on Boards or snapshots of their own.
+ */
+public class SelfPlayBenchmark {
+    /**
+     * The height and width of the Boards games are played on.
+     */
+    public static final int BOARD_SIZE = 10;
+
+    private static final int MIN_PLAYERS = 3;
+    private static final int MAX_PLAYERS = 5;
+    private static final long WARMUP_SALT = 0x5DEECE66DL;
+
+    private List<String> strategyNames;
+    private long seed;
+    private boolean failureReported;
+
+    /**
+     * Constructs a SelfPlayBenchmark.
+     *
+     * @param strategyNames The strategy of each seat, as known to Player.
+     * @param seed          The seed the tiles of each game are shuffled from.
+     * @throws IllegalArgumentException If there are too few or too many seats.
+     */
+    public SelfPlayBenchmark(List<String> strategyNames, long seed) throws IllegalArgumentException {
+        if (strategyNames.size() < MIN_PLAYERS || strategyNames.size() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("A game needs " + MIN_PLAYERS + " to " + MAX_PLAYERS
+                    + " players, not " + strategyNames.size() + ".");
+        }
+        this.strategyNames = new ArrayList<>(strategyNames);
+        this.seed = seed;
+    }
+
+    /**
+     * Plays the given number of warm-up games, then the given number of
+     * measured games.
+     *
+     * @param warmupGames The number of games to play before measuring.
+     * @param games       The number of games to measure.
+     * @return What was measured.
+     * @throws IllegalArgumentException If there are no games to measure.
+     */
+    public Report run(int warmupGames, int games) throws IllegalArgumentException {
+        if (games < 1 || warmupGames < 0) {
+            throw new IllegalArgumentException("At least one game must be measured.");
+        }
+        for (int game = 0; game < warmupGames; ++game) {
+            this.playGame(this.seed ^ WARMUP_SALT, game, new Report());
+        }
+
+        Report report = new Report();
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int game = 0; game < games; ++game) {
+            this.playGame(this.seed, game, report);
+        }
+        report.nanos = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+        report.allocatedBytes = allocatedBefore < 0 || allocatedAfter < 0
+                ? -1 : allocatedAfter - allocatedBefore;
+        return report;
+    }
+
+    /**
+     * Plays one game and adds what it did to the given Report.
+     *
+     * @param seed   The seed of the run the game belongs to.
+     * @param number The number of the game in the run, which seeds its tiles
+     *               and picks its seating.
+     * @param report Where the game's counts are added.
+     */
+    private void playGame(long seed, int number, Report report) {
+        Referee referee = new Referee(BOARD_SIZE, BOARD_SIZE,
+                new ShuffledTileSource(seed * 0x9E3779B97F4A7C15L + number, BOARD_SIZE * BOARD_SIZE));
+        int numPlayers = this.strategyNames.size();
+        for (int seat = 0; seat < numPlayers; ++seat) {
+            String strategyName = this.strategyNames.get((seat + number) % numPlayers);
+            referee.addPlayer(new Player("player" + seat, seat, strategyName));
+        }
+        try {
+            referee.runGame();
+        } catch (RuntimeException e) {
+            // Only the first failure is printed, as one fault tends to fail many games.
+            if (!this.failureReported) {
+                this.failureReported = true;
+                System.err.println("Game " + number + " failed:");
+                e.printStackTrace();
+            }
+            ++report.failedGames;
+        }
+        ++report.games;
+        report.turns += referee.getTurnCount();
+        report.traces += referee.getBoard().getTraceCount();
+        report.traceSteps += referee.getBoard().getTraceSteps();
+    }
+
+    /**
+     * Gives the number of bytes the calling thread has allocated, if the JVM
+     * keeps count.
+     *
+     * @return The number of bytes, or -1 if it is not known.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean) threads;
+            if (counting.isThreadAllocatedMemorySupported() && counting.isThreadAllocatedMemoryEnabled()) {
+                return counting.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * What was measured over the games of a run.
+     */
+    public static class Report {
+        private int games;
+        private int failedGames;
+        private long turns;
+        private long traces;
+        private long traceSteps;
+        private long nanos;
+        private long allocatedBytes;
+
+        /**
+         * Gets the number of games played, failed ones included.
+         *
+         * @return The number of games.
+         */
+        public int getGames() {
+            return this.games;
+        }
+
+        /**
+         * Gets the number of games that ended in an exception.
+         *
+         * @return The number of failed games.
+         */
+        public int getFailedGames() {
+            return this.failedGames;
+        }
+
+        /**
+         * Gets the number of tiles placed over all games.
+         *
+         * @return The number of turns played.
+         */
+        public long getTurns() {
+            return this.turns;
+        }
+
+        /**
+         * Gets the number of path traces asked of the Referees' Boards, by
+         * the Referees or by Players tracing on them.
+         *
+         * @return The number of traces.
+         */
+        public long getTraces() {
+            return this.traces;
+        }
+
+        /**
+         * Gets the number of tiles walked onto by those traces.
+         *
+         * @return The number of trace steps.
+         */
+        public long getTraceSteps() {
+            return this.traceSteps;
+        }
+
+        /**
+         * Gets the time taken by the games, in nanoseconds.
+         *
+         * @return The elapsed time of the run.
+         */
+        public long getNanos() {
+            return this.nanos;
+        }
+
+        /**
+         * Gets the number of bytes allocated by the calling thread, or -1 if
+         * it is not known.
+         *
+         * @return The number of bytes allocated.
+         */
+        public long getAllocatedBytes() {
+            return this.allocatedBytes;
+        }
+
+        /**
+         * Gives the number of games played a second.
+         *
+         * @return The rate of games.
+         */
+        public double getGamesPerSecond() {
+            return this.games * 1e9 / Math.max(1, this.nanos);
+        }
+
+        /**
+         * Gives the number of tiles placed a second.
+         *
+         * @return The rate of turns.
+         */
+        public double getTurnsPerSecond() {
+            return this.turns * 1e9 / Math.max(1, this.nanos);
+        }
+
+        /**
+         * Gives the average number of tiles walked onto per trace asked for.
+         *
+         * @return The average length of a trace.
+         */
+        public double getStepsPerTrace() {
+            return this.traces == 0 ? 0 : (double) this.traceSteps / this.traces;
+        }
+
+        /**
+         * Gives the number of megabytes allocated a second, or -1 if the
+         * allocation is not known.
+         *
+         * @return The allocation rate in megabytes a second.
+         */
+        public double getAllocationRate() {
+            return this.allocatedBytes < 0 ? -1
+                    : this.allocatedBytes * 1e9 / Math.max(1, this.nanos) / (1 << 20);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("%d games (%d failed) in %.1f ms%n",
+                    this.games, this.failedGames, this.nanos / 1e6));
+            out.append(String.format("%.1f games/s, %.1f turns/s, %.2f turns/game%n",
+                    this.getGamesPerSecond(), this.getTurnsPerSecond(), (double) this.turns / this.games));
+            out.append(String.format("%d traces on the Referee's Board, %.2f steps/trace%n",
+                    this.traces, this.getStepsPerTrace()));
+            if (this.allocatedBytes < 0) {
+                out.append("allocation not measured");
+            } else {
+                out.append(String.format("%.1f MB/s allocated, %d bytes/turn",
+                        this.getAllocationRate(), this.allocatedBytes / Math.max(1, this.turns)));
+            }
+            return out.toString();
+        }
+    }
+
+    /**
+     * Runs a benchmark and prints its report.
+     *
+     * @param args The number of measured games, the number of warm-up games,
+     *             the seed, and the strategy of each seat.
+     */
+    public static void main(String[] args) {
+        if (args.length < 3 + MIN_PLAYERS) {
+            System.err.println("Usage: SelfPlayBenchmark <games> <warm-up games> <seed> "
+                    + "strategy strategy strategy ...");
+            return;
+        }
+        List<String> strategyNames = new ArrayList<>();
+        for (int ii = 3; ii < args.length; ++ii) {
+            strategyNames.add(args[ii]);
+        }
+        SelfPlayBenchmark benchmark = new SelfPlayBenchmark(strategyNames, Long.parseLong(args[2]));
+        System.out.println(benchmark.run(Integer.parseInt(args[1]), Integer.parseInt(args[0])));
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * A TileSource that deals from a shuffled stack. The stack holds as many
+ * tiles as the board has slots: whole sets of the 35 tiles, topped up with a
+ * random part of one more set. Once the stack is used up a new one is
+ * shuffled, so the source never runs out. Shuffles come from a seeded Random,
+ * so two sources with the same seed and size deal the same tiles.
+ */
+public class ShuffledTileSource implements TileSource {
+    private Random random;
+    private int stackSize;
+    private ArrayList<Tiles> stack;
+    private int[] remaining;
+
+    /**
+     * Constructs a ShuffledTileSource.
+     *
+     * @param seed      The seed of the shuffles.
+     * @param stackSize The number of tiles in each stack, usually the number
+     *                  of slots on the board.
+     * @throws IllegalArgumentException If the stack size is not positive.
+     */
+    public ShuffledTileSource(long seed, int stackSize) throws IllegalArgumentException {
+        if (stackSize < 1) {
+            throw new IllegalArgumentException("A tile stack must hold at least one tile.");
+        }
+        this.random = new Random(seed);
+        this.stackSize = stackSize;
+        this.shuffleStack();
+    }
+
+    @Override
+    public Tiles draw() {
+        Tiles tile = this.stack.remove(this.stack.size() - 1);
+        --this.remaining[tile.getIdxInAll35()];
+        if (this.stack.isEmpty()) {
+            this.shuffleStack();
+        }
+        return tile;
+    }
+
+    @Override
+    public int[] getRemaining() {
+        return this.remaining.clone();
+    }
+
+    /**
+     * Replaces the stack with a newly shuffled one.
+     */
+    private void shuffleStack() {
+        int numTiles = this.stackSize;
+        this.stack = new ArrayList<>(numTiles);
+        while (numTiles >= Tiles.NUM_TILES) {
+            this.stack.addAll(Tiles.all35Tiles());
+            numTiles -= Tiles.NUM_TILES;
+        }
+        ArrayList<Tiles> finalSet = Tiles.all35Tiles();
+        Collections.shuffle(finalSet, this.random);
+        this.stack.addAll(finalSet.subList(0, numTiles));
+        Collections.shuffle(this.stack, this.random);
+
+        this.remaining = new int[Tiles.NUM_TILES];
+        for (Tiles tile : this.stack) {
+            ++this.remaining[tile.getIdxInAll35()];
+        }
+    }
+}
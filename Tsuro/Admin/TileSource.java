@@ -0,0 +1,28 @@
+/**
+ * Where a Referee gets the Tiles it deals to Players as options. A source may
+ * deal in a fixed order, shuffle a stack from a seed, or replay the tiles
+ * dealt in an earlier game, so games can be made reproducible tile for tile.
+ * <p>
+ * Besides dealing, a source tells how many copies of each tile it has left to
+ * deal, so that strategies searching ahead can weigh what the other players
+ * may draw. That count says nothing about the order tiles come in.
+ */
+public interface TileSource {
+
+    /**
+     * Deals the next tile.
+     *
+     * @return The dealt Tiles, unrotated.
+     * @throws IllegalStateException If this source has no tiles left to deal.
+     */
+    Tiles draw() throws IllegalStateException;
+
+    /**
+     * Gives how many copies of each tile this source has left to deal before
+     * it starts over or runs out.
+     *
+     * @return A new array of the number of copies left, indexed by the tile's
+     * position in all35Tiles().
+     */
+    int[] getRemaining();
+}
@@ -0,0 +1,641 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many games of Tsuro between in-process Players, on a fixed number of
+ * worker threads, and ranks the entrants by how they placed.
+ * <p>
+ * Each game gets a fresh Referee and fresh Players, built from each entrant's
+ * strategy name, and deals from a ShuffledTileSource seeded from the
+ * tournament's seed and the game's number. So a tournament plays out the same
+ * way however many workers run it, as long as the strategies themselves do
+ * not depend on timing.
+ * <p>
+ * A game scores each Player one point for every other Player it outlasted and
+ * half a point for every other Player it went out with. Players kicked for
+ * cheating are outlasted by everyone else and score nothing for each other.
+ * The Players who went out last, or were left, win the game.
+ */
+public class Tournament {
+    /**
+     * How games are arranged.
+     */
+    public enum Format {
+        /**
+         * Every group of entrants of the table size plays, as often as there
+         * are rounds, with seats moved round each time.
+         */
+        ROUND_ROBIN,
+        /**
+         * Each round, entrants are ordered by points so far and seated in
+         * that order, so entrants meet others with similar scores.
+         */
+        SWISS,
+        /**
+         * Each round, the better half of each table goes through, until one
+         * table of at most five is left to play the final.
+         */
+        KNOCKOUT
+    }
+
+    /**
+     * The height and width of the Boards games are played on.
+     */
+    public static final int BOARD_SIZE = 10;
+
+    private static final int MIN_TABLE = 3;
+    private static final int MAX_TABLE = 5;
+
+    private Format format;
+    private int tableSize;
+    private int rounds;
+    private int workers;
+    private long seed;
+    private ArrayList<Standing> entrants;
+    private int gamesPlayed;
+    private int gamesFailed;
+    private AtomicBoolean failureReported = new AtomicBoolean();
+
+    /**
+     * Constructs a Tournament with no entrants.
+     *
+     * @param format    How games are arranged.
+     * @param tableSize The number of Players in each game, from three to
+     *                  five. Swiss and knockout rounds use smaller tables when
+     *                  the entrants do not divide evenly.
+     * @param rounds    For round robins, how often each group plays; for Swiss
+     *                  tournaments, the number of rounds; for knockouts, the
+     *                  number of games each table plays before the better half
+     *                  goes through.
+     * @param workers   The number of games played at once.
+     * @param seed      The seed for dealing tiles and breaking ties.
+     * @throws IllegalArgumentException If the table size is not from three to
+     *                                  five, or rounds or workers is not
+     *                                  positive.
+     */
+    public Tournament(Format format, int tableSize, int rounds, int workers, long seed)
+            throws IllegalArgumentException {
+        if (tableSize < MIN_TABLE || tableSize > MAX_TABLE) {
+            throw new IllegalArgumentException("Games need three to five players.");
+        }
+        if (rounds < 1 || workers < 1) {
+            throw new IllegalArgumentException("A tournament needs at least one round and one worker.");
+        }
+        this.format = format;
+        this.tableSize = tableSize;
+        this.rounds = rounds;
+        this.workers = workers;
+        this.seed = seed;
+        this.entrants = new ArrayList<>();
+    }
+
+    /**
+     * Enters a Player into this Tournament.
+     *
+     * @param name         The name of the Player, which must be unique.
+     * @param strategyName The name of the strategy it plays, as understood by
+     *                     Player.
+     * @throws IllegalArgumentException If the name is taken or the strategy is
+     *                                  not supported.
+     */
+    public void addEntrant(String name, String strategyName) throws IllegalArgumentException {
+        for (Standing entrant : this.entrants) {
+            if (entrant.name.equals(name)) {
+                throw new IllegalArgumentException("Name: " + name + " is already taken, choose another name.");
+            }
+        }
+        // Fails now, rather than in the middle of the tournament, if the
+        // strategy is unknown.
+        new Player(name, 0, strategyName);
+        this.entrants.add(new Standing(name, strategyName));
+    }
+
+    /**
+     * Plays the whole Tournament.
+     *
+     * @return The standings of every entrant, best first.
+     * @throws IllegalStateException If there are too few entrants for a game.
+     */
+    public List<Standing> run() throws IllegalStateException {
+        if (this.entrants.size() < MIN_TABLE) {
+            throw new IllegalStateException("Must have at least three entrants to play a tournament.");
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(this.workers);
+        try {
+            switch (this.format) {
+                case ROUND_ROBIN:
+                    this.runRoundRobin(pool);
+                    break;
+                case SWISS:
+                    this.runSwiss(pool);
+                    break;
+                default:
+                    this.runKnockout(pool);
+                    break;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        ArrayList<Standing> standings = new ArrayList<>(this.entrants);
+        standings.sort(Comparator.comparingInt(Standing::getStage).reversed()
+                .thenComparing(Comparator.comparingDouble(Standing::getFinalPoints).reversed())
+                .thenComparing(Comparator.comparingDouble(Standing::getPoints).reversed())
+                .thenComparing(Comparator.comparingInt(Standing::getWins).reversed())
+                .thenComparing(Standing::getName));
+        return standings;
+    }
+
+    /**
+     * Gives the number of games played so far, including failed ones.
+     *
+     * @return The number of games played.
+     */
+    public int getGamesPlayed() {
+        return this.gamesPlayed;
+    }
+
+    /**
+     * Gives the number of games that stopped with an exception, which score
+     * nothing for anyone.
+     *
+     * @return The number of failed games.
+     */
+    public int getGamesFailed() {
+        return this.gamesFailed;
+    }
+
+    /**
+     * Plays every group of entrants of the table size, once per round, with
+     * the seats moved on by one each round.
+     *
+     * @param pool The workers to play on.
+     */
+    private void runRoundRobin(ExecutorService pool) {
+        int size = Math.min(this.tableSize, this.entrants.size());
+        ArrayList<int[]> groups = new ArrayList<>();
+        this.addGroups(groups, new int[size], 0, 0);
+
+        ArrayList<int[]> tables = new ArrayList<>();
+        for (int round = 0; round < this.rounds; ++round) {
+            for (int[] group : groups) {
+                int[] seats = new int[size];
+                for (int ii = 0; ii < size; ++ii) {
+                    seats[ii] = group[(ii + round) % size];
+                }
+                tables.add(seats);
+            }
+        }
+        this.record(this.play(pool, tables));
+    }
+
+    /**
+     * Adds every increasing choice of entrants that completes the given
+     * partial group.
+     *
+     * @param groups The list to add complete groups to.
+     * @param group  The group being built.
+     * @param filled The number of seats of the group chosen so far.
+     * @param next   The first entrant that may take the next seat.
+     */
+    private void addGroups(ArrayList<int[]> groups, int[] group, int filled, int next) {
+        if (filled == group.length) {
+            groups.add(group.clone());
+            return;
+        }
+        for (int ii = next; ii <= this.entrants.size() - (group.length - filled); ++ii) {
+            group[filled] = ii;
+            this.addGroups(groups, group, filled + 1, ii + 1);
+        }
+    }
+
+    /**
+     * Plays the given number of rounds, seating entrants by points so far.
+     *
+     * @param pool The workers to play on.
+     */
+    private void runSwiss(ExecutorService pool) {
+        Random random = new Random(this.seed);
+        ArrayList<Integer> order = new ArrayList<>();
+        for (int ii = 0; ii < this.entrants.size(); ++ii) {
+            order.add(ii);
+        }
+        // The first round is drawn at random; later ones go by points.
+        Collections.shuffle(order, random);
+        for (int round = 0; round < this.rounds; ++round) {
+            if (round > 0) {
+                order.sort(Comparator.comparingDouble(
+                        (Integer entrant) -> this.entrants.get(entrant).points).reversed());
+            }
+            this.record(this.play(pool, this.seat(order)));
+        }
+    }
+
+    /**
+     * Plays knockout rounds until one table is left, then the final. The
+     * better half of each table, by points over its games, goes through.
+     *
+     * @param pool The workers to play on.
+     */
+    private void runKnockout(ExecutorService pool) {
+        Random random = new Random(this.seed);
+        ArrayList<Integer> alive = new ArrayList<>();
+        for (int ii = 0; ii < this.entrants.size(); ++ii) {
+            alive.add(ii);
+        }
+        Collections.shuffle(alive, random);
+
+        for (int stage = 1; ; ++stage) {
+            ArrayList<int[]> tables = alive.size() <= MAX_TABLE
+                    ? this.seat(alive, alive.size()) : this.seat(alive);
+            ArrayList<int[]> repeated = new ArrayList<>();
+            for (int[] seats : tables) {
+                for (int game = 0; game < this.rounds; ++game) {
+                    repeated.add(seats);
+                }
+            }
+            GameResult[] results = this.play(pool, repeated);
+            this.record(results);
+            for (int entrant : alive) {
+                this.entrants.get(entrant).stage = stage;
+            }
+            if (tables.size() == 1) {
+                // The final decides the order of its players.
+                double[] finalPoints = this.tablePoints(results, 0, this.rounds);
+                for (int seat = 0; seat < tables.get(0).length; ++seat) {
+                    this.entrants.get(tables.get(0)[seat]).finalPoints = finalPoints[seat];
+                }
+                return;
+            }
+
+            ArrayList<Integer> through = new ArrayList<>();
+            for (int table = 0; table < tables.size(); ++table) {
+                int[] seats = tables.get(table);
+                double[] points = this.tablePoints(results, table * this.rounds, this.rounds);
+                ArrayList<Integer> bySeat = new ArrayList<>();
+                for (int seat = 0; seat < seats.length; ++seat) {
+                    bySeat.add(seat);
+                }
+                bySeat.sort(Comparator.comparingDouble((Integer seat) -> points[seat]).reversed());
+                for (int ii = 0; ii < (seats.length + 1) / 2; ++ii) {
+                    through.add(seats[bySeat.get(ii)]);
+                }
+            }
+            alive = through;
+        }
+    }
+
+    /**
+     * Totals the points each seat of a table scored over its games, leaving
+     * out failed games.
+     *
+     * @param results The results of a round.
+     * @param first   The index of the table's first game.
+     * @param games   The number of games the table played.
+     * @return The points of each seat.
+     */
+    private double[] tablePoints(GameResult[] results, int first, int games) {
+        double[] points = new double[results[first].seats.length];
+        for (int game = first; game < first + games; ++game) {
+            if (results[game].points == null) {
+                continue;
+            }
+            for (int seat = 0; seat < points.length; ++seat) {
+                points[seat] += results[game].points[seat];
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Splits the given entrants, in order, into tables as close to the table
+     * size as allows every table three to five players.
+     *
+     * @param order The entrants to seat.
+     * @return The seats of each table.
+     * @throws IllegalStateException If the entrants cannot be split so.
+     */
+    private ArrayList<int[]> seat(List<Integer> order) throws IllegalStateException {
+        int count = order.size();
+        int tables = (count + this.tableSize - 1) / this.tableSize;
+        if (count / tables < MIN_TABLE) {
+            tables = Math.max(count / this.tableSize, 1);
+        }
+        return this.seat(order, (count + tables - 1) / tables);
+    }
+
+    /**
+     * Splits the given entrants, in order, into tables of at most the given
+     * size, with sizes differing by at most one.
+     *
+     * @param order   The entrants to seat.
+     * @param maxSize The size of the largest table.
+     * @return The seats of each table.
+     * @throws IllegalStateException If a table would have fewer than three or
+     *                               more than five players.
+     */
+    private ArrayList<int[]> seat(List<Integer> order, int maxSize) throws IllegalStateException {
+        int count = order.size();
+        int tables = (count + maxSize - 1) / maxSize;
+        ArrayList<int[]> seated = new ArrayList<>();
+        int next = 0;
+        for (int table = 0; table < tables; ++table) {
+            int size = count / tables + (table < count % tables ? 1 : 0);
+            if (size < MIN_TABLE || size > MAX_TABLE) {
+                throw new IllegalStateException("Cannot seat " + count + " entrants at tables of three to five.");
+            }
+            int[] seats = new int[size];
+            for (int seat = 0; seat < size; ++seat) {
+                seats[seat] = order.get(next++);
+            }
+            seated.add(seats);
+        }
+        return seated;
+    }
+
+    /**
+     * Plays a game at each of the given tables, with the workers each taking
+     * the next unplayed table until none are left.
+     *
+     * @param pool   The workers to play on.
+     * @param tables The entrants at each table, in seat order.
+     * @return The result of each table's game.
+     */
+    private GameResult[] play(ExecutorService pool, List<int[]> tables) {
+        GameResult[] results = new GameResult[tables.size()];
+        AtomicInteger next = new AtomicInteger();
+        int firstGame = this.gamesPlayed;
+        List<Callable<Void>> work = new ArrayList<>();
+        for (int ii = 0; ii < this.workers; ++ii) {
+            work.add(() -> {
+                for (int game = next.getAndIncrement(); game < results.length;
+                     game = next.getAndIncrement()) {
+                    results[game] = this.playGame(tables.get(game), firstGame + game);
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> done : pool.invokeAll(work)) {
+                done.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The tournament was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A tournament worker failed.", e.getCause());
+        }
+        this.gamesPlayed += results.length;
+        return results;
+    }
+
+    /**
+     * Plays one game between the given entrants.
+     *
+     * @param seats  The entrants playing, in seat order.
+     * @param number The number of the game in the tournament, which seeds its
+     *               tiles.
+     * @return The result of the game.
+     */
+    private GameResult playGame(int[] seats, int number) {
+        long tileSeed = this.seed * 0x9E3779B97F4A7C15L + number;
+        Referee referee = new Referee(BOARD_SIZE, BOARD_SIZE,
+                new ShuffledTileSource(tileSeed, BOARD_SIZE * BOARD_SIZE));
+        ArrayList<IPlayer> players = new ArrayList<>();
+        for (int seat = 0; seat < seats.length; ++seat) {
+            Standing entrant = this.entrants.get(seats[seat]);
+            IPlayer player = new Player(entrant.name, seat, entrant.strategyName);
+            players.add(player);
+            referee.addPlayer(player);
+        }
+        try {
+            referee.runGame();
+        } catch (RuntimeException e) {
+            // Only the first failure is printed, as one fault tends to fail many games.
+            if (!this.failureReported.getAndSet(true)) {
+                System.err.println("Game " + number + " failed:");
+                e.printStackTrace();
+            }
+            return new GameResult(seats, null, null);
+        }
+
+        // Later groups went out later; kicked players rank below them all.
+        int[] rank = new int[seats.length];
+        int[] tied = new int[seats.length];
+        ArrayList<ArrayList<IPlayer>> eliminated = referee.getEliminated();
+        int groups = eliminated.size();
+        for (int group = 0; group < groups; ++group) {
+            for (IPlayer player : eliminated.get(group)) {
+                int seat = players.indexOf(player);
+                rank[seat] = groups - group;
+                tied[seat] = eliminated.get(group).size() - 1;
+            }
+        }
+        for (IPlayer player : referee.getKicked()) {
+            int seat = players.indexOf(player);
+            rank[seat] = groups + 1;
+            tied[seat] = referee.getKicked().size() - 1;
+        }
+
+        double[] points = new double[seats.length];
+        boolean[] won = new boolean[seats.length];
+        for (int seat = 0; seat < seats.length; ++seat) {
+            int outlasted = 0;
+            for (int other = 0; other < seats.length; ++other) {
+                if (rank[other] > rank[seat]) {
+                    ++outlasted;
+                }
+            }
+            boolean kicked = rank[seat] == groups + 1;
+            points[seat] = kicked ? 0 : outlasted + 0.5 * tied[seat];
+            won[seat] = !kicked && rank[seat] == 1;
+        }
+        return new GameResult(seats, points, won);
+    }
+
+    /**
+     * Adds the results of a round to the standings.
+     *
+     * @param results The result of each game of the round.
+     */
+    private void record(GameResult[] results) {
+        for (GameResult result : results) {
+            if (result.points == null) {
+                ++this.gamesFailed;
+                continue;
+            }
+            for (int seat = 0; seat < result.seats.length; ++seat) {
+                Standing entrant = this.entrants.get(result.seats[seat]);
+                ++entrant.games;
+                entrant.points += result.points[seat];
+                if (result.won[seat]) {
+                    ++entrant.wins;
+                }
+            }
+        }
+    }
+
+    /**
+     * The outcome of one game, by seat.
+     */
+    private static class GameResult {
+        private int[] seats;
+        private double[] points;
+        private boolean[] won;
+
+        /**
+         * Constructs a GameResult.
+         *
+         * @param seats  The entrants playing, in seat order.
+         * @param points The points each seat scored, or null if the game
+         *               failed.
+         * @param won    Whether each seat won.
+         */
+        private GameResult(int[] seats, double[] points, boolean[] won) {
+            this.seats = seats;
+            this.points = points;
+            this.won = won;
+        }
+    }
+
+    /**
+     * How one entrant has done over a Tournament.
+     */
+    public static class Standing {
+        private String name;
+        private String strategyName;
+        private int games;
+        private int wins;
+        private double points;
+        private int stage;
+        private double finalPoints;
+
+        /**
+         * Constructs the Standing of a new entrant.
+         *
+         * @param name         The entrant's name.
+         * @param strategyName The name of the entrant's strategy.
+         */
+        private Standing(String name, String strategyName) {
+            this.name = name;
+            this.strategyName = strategyName;
+        }
+
+        /**
+         * Gets the name of this entrant.
+         *
+         * @return The entrant's name.
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Gets the name of the strategy this entrant plays.
+         *
+         * @return The name of the entrant's strategy.
+         */
+        public String getStrategyName() {
+            return this.strategyName;
+        }
+
+        /**
+         * Gets the number of games this entrant finished.
+         *
+         * @return The number of games played, leaving out failed ones.
+         */
+        public int getGames() {
+            return this.games;
+        }
+
+        /**
+         * Gets the number of games this entrant won, alone or shared.
+         *
+         * @return The number of games won.
+         */
+        public int getWins() {
+            return this.wins;
+        }
+
+        /**
+         * Gets the points this entrant scored over the whole tournament.
+         *
+         * @return The entrant's points.
+         */
+        public double getPoints() {
+            return this.points;
+        }
+
+        /**
+         * Gets the points this entrant scored in the final of a knockout,
+         * which decide the order of the finalists.
+         *
+         * @return The entrant's points in the final, or zero if it did not
+         * play in one.
+         */
+        public double getFinalPoints() {
+            return this.finalPoints;
+        }
+
+        /**
+         * Gives the last knockout round this entrant played in, counting from
+         * one, or zero in other formats.
+         *
+         * @return The entrant's last round.
+         */
+        public int getStage() {
+            return this.stage;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-16s %-12s games %6d  wins %6d  points %9.1f  per game %.3f",
+                    this.name, this.strategyName, this.games, this.wins, this.points,
+                    this.games == 0 ? 0.0 : this.points / this.games);
+        }
+    }
+
+    /**
+     * Plays a tournament and prints the standings.
+     *
+     * @param args The format (round-robin, swiss or knockout), table size,
+     *             rounds, workers and seed, followed by an entrant for each
+     *             remaining argument, given as name=strategy.
+     */
+    public static void main(String[] args) {
+        if (args.length < 8) {
+            System.err.println("Usage: Tournament round-robin|swiss|knockout <table size> <rounds> "
+                    + "<workers> <seed> name=strategy name=strategy name=strategy ...");
+            return;
+        }
+        Format format = Format.valueOf(args[0].toUpperCase().replace('-', '_'));
+        Tournament tournament = new Tournament(format, Integer.parseInt(args[1]),
+                Integer.parseInt(args[2]), Integer.parseInt(args[3]), Long.parseLong(args[4]));
+        for (int ii = 5; ii < args.length; ++ii) {
+            String[] entrant = args[ii].split("=", 2);
+            if (entrant.length != 2) {
+                throw new IllegalArgumentException("Entrants are given as name=strategy, not " + args[ii]);
+            }
+            tournament.addEntrant(entrant[0], entrant[1]);
+        }
+
+        long start = System.nanoTime();
+        List<Standing> standings = tournament.run();
+        long millis = (System.nanoTime() - start) / 1000000;
+        for (int ii = 0; ii < standings.size(); ++ii) {
+            System.out.println((ii + 1) + ". " + standings.get(ii));
+        }
+        System.out.println(tournament.getGamesPlayed() + " games (" + tournament.getGamesFailed()
+                + " failed) in " + millis + " ms");
+    }
+}
@@ -0,0 +1,181 @@
+import com.google.gson.Gson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Microbenchmarks of the game engine's core operations: rotating and tracing
+ * single tiles, tracing paths on a Board, the rule checks the Referee makes
+ * every turn, advancing Avatars, and sending a Board as JSON. Everything that
+ * needs a Board is measured on the EARLY, MID and LATE GameFixtures, which
+ * are the same on every run, so numbers from before and after a change to the
+ * engine can be compared.
+ * <p>
+ * Path traces on a Board are answered from its TraceCache once they have
+ * been asked for, as they are in a real game, so the raw walk over the
+ * BitBoard is measured separately.
+ */
+public class CoreBenchmarks {
+    private static final int DEFAULT_WARMUP_ITERATIONS = 5;
+    private static final int DEFAULT_ITERATIONS = 5;
+    private static final long DEFAULT_ITERATION_MILLIS = 200;
+
+    private MicroBenchmark bench;
+    private Pattern filter;
+
+    /**
+     * Constructs a CoreBenchmarks.
+     *
+     * @param bench  What to time the operations with.
+     * @param filter Only operations whose names this finds are timed.
+     */
+    public CoreBenchmarks(MicroBenchmark bench, Pattern filter) {
+        this.bench = bench;
+        this.filter = filter;
+    }
+
+    /**
+     * Times every operation that passes the filter, printing each result as
+     * it is measured.
+     */
+    public void run() {
+        this.tileBenchmarks();
+        for (GameFixture.Stage stage : GameFixture.Stage.values()) {
+            this.boardBenchmarks(GameFixture.build(stage));
+        }
+    }
+
+    /**
+     * Times the operations on single tiles, which need no Board.
+     */
+    private void tileBenchmarks() {
+        List<Tiles> variants = new ArrayList<>();
+        for (int tileId = 0; tileId < Tiles.NUM_TILES; ++tileId) {
+            for (int rotation = 0; rotation < Tiles.NUM_ROTATIONS; ++rotation) {
+                variants.add(Tiles.variant(tileId, rotation));
+            }
+        }
+        Port.PortName[] ports = Port.PortName.values();
+        int[] next = new int[1];
+
+        this.measure("Tiles.rotate", () -> {
+            int ii = next[0]++ & 0x7FFFFFFF;
+            Tiles tile = variants.get(ii % variants.size());
+            return tile.rotate((ii & 3) * 90).getCode();
+        });
+        this.measure("Tiles.trace", () -> {
+            int ii = next[0]++ & 0x7FFFFFFF;
+            Tiles tile = variants.get(ii % variants.size());
+            return tile.trace(ports[ii & 7]).ordinal();
+        });
+        this.measure("Tiles.trace(int)", () -> {
+            int ii = next[0]++ & 0x7FFFFFFF;
+            return Tiles.trace((ii >>> 5) % Tiles.NUM_TILES, (ii >>> 3) & 3, ii & 7);
+        });
+    }
+
+    /**
+     * Times the operations on the Board of the given fixture, each one
+     * cycling through the legal moves of the fixture's mover.
+     *
+     * @param fixture The fixture to measure on.
+     */
+    private void boardBenchmarks(GameFixture fixture) {
+        String stage = ":" + fixture.getStage();
+        Board board = fixture.getBoard();
+        Referee referee = fixture.getReferee();
+        Avatar mover = fixture.getMover();
+        MoveList moves = fixture.getMoves();
+        int row = moves.getRow();
+        int col = moves.getCol();
+        Port.PortName entry = new Location(mover).advance().getPortName();
+        int[] next = new int[1];
+
+        this.measure("Board.tracePath" + stage, () -> {
+            Tiles tile = moves.getTile((next[0]++ & 0x7FFFFFFF) % moves.size());
+            return board.tracePath(row, col, tile, entry, true, false).getRow();
+        });
+        this.measure("BitBoard.trace" + stage, () -> {
+            int code = moves.getTileCode((next[0]++ & 0x7FFFFFFF) % moves.size());
+            return board.getBitBoard().trace(row, col, code, entry.ordinal(), true);
+        });
+        this.measure("Rules.willEndInDeath" + stage, () -> {
+            Tiles tile = moves.getTile((next[0]++ & 0x7FFFFFFF) % moves.size());
+            return Rules.willEndInDeath(board, row, col, entry, tile, true) ? 1 : 0;
+        });
+        this.measure("Rules.isPlaceTileLegal" + stage, () -> {
+            Tiles tile = moves.getTile((next[0]++ & 0x7FFFFFFF) % moves.size());
+            return Rules.isPlaceTileLegal(board, row, col, tile, mover) ? 1 : 0;
+        });
+        this.measure("Rules.legalMoves" + stage,
+                () -> Rules.legalMoves(board, mover, fixture.getHand()).size());
+
+        // Advancing Avatars that have already moved finds nowhere to go, so
+        // it can be repeated; playing a move changes the fixture, so it is
+        // built again before each call.
+        this.measure("Referee.advancePlayers" + stage, () -> {
+            referee.advancePlayers();
+            return referee.getActive().size();
+        });
+        GameFixture[] played = new GameFixture[1];
+        if (this.filter.matcher("Referee.playMove" + stage).find()) {
+            this.report(this.bench.measure("Referee.playMove" + stage,
+                    () -> played[0] = fixture.rebuild(), () -> {
+                        played[0].playNextMove();
+                        return played[0].getReferee().getActive().size();
+                    }));
+        }
+
+        Gson gson = new Gson();
+        String json = gson.toJson(board);
+        this.measure("Gson.toJson(Board)" + stage, () -> gson.toJson(board).length());
+        this.measure("Gson.fromJson(Board)" + stage,
+                () -> gson.fromJson(json, Board.class).getZobristKey());
+    }
+
+    /**
+     * Times the given operation if its name passes the filter.
+     *
+     * @param name      The name of the operation.
+     * @param operation The operation.
+     */
+    private void measure(String name, MicroBenchmark.Operation operation) {
+        if (this.filter.matcher(name).find()) {
+            this.report(this.bench.measure(name, operation));
+        }
+    }
+
+    /**
+     * Prints the given result.
+     *
+     * @param result The result.
+     */
+    private void report(MicroBenchmark.Result result) {
+        System.out.println(result);
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args Optionally, a regular expression that the names of the
+     *             operations to time must contain, then the number of
+     *             warm-up iterations, the number of measured iterations and
+     *             the length of an iteration in milliseconds.
+     */
+    public static void main(String[] args) {
+        Pattern filter = Pattern.compile(args.length > 0 ? args[0] : "");
+        int warmupIterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WARMUP_ITERATIONS;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ITERATIONS;
+        long iterationMillis = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_ITERATION_MILLIS;
+
+        MicroBenchmark bench = new MicroBenchmark(warmupIterations, iterations, iterationMillis);
+        System.out.println(String.format("%-40s %4s %4s %12s    %10s  %s",
+                "Benchmark", "Mode", "Cnt", "Score", "Error", "Units"));
+        new CoreBenchmarks(bench, filter).run();
+        // Reading the sink keeps every operation's result alive.
+        if (bench.getSink() == 42) {
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A game played up to a given point, for benchmarks to measure the engine
+ * against. Four Players make their initial placements as the Referee prompts
+ * them, then tiles are dealt from a seeded ShuffledTileSource and a seeded
+ * Random picks a legal move from each hand, preferring ones that survive,
+ * until the Board holds the number of tiles the Stage asks for.
+ * <p>
+ * Building the same Stage always gives the same game. If a game ends before
+ * reaching the Stage, it is thrown away and the next seed is tried, in order,
+ * so that too is the same every time.
+ */
+public class GameFixture {
+    /**
+     * How far into a game a fixture is.
+     */
+    public enum Stage {
+        /**
+         * Just after the initial placements, with a few tiles down.
+         */
+        EARLY(8, 0x45415259L),
+        /**
+         * About a third of the board filled.
+         */
+        MID(32, 0x4D4944L),
+        /**
+         * Over half of the board filled, with long paths.
+         */
+        LATE(56, 0x4C415445L);
+
+        private final int tiles;
+        private final long seed;
+
+        Stage(int tiles, long seed) {
+            this.tiles = tiles;
+            this.seed = seed;
+        }
+
+        /**
+         * Gets the number of tiles on the Board at this Stage.
+         *
+         * @return The number of placed tiles.
+         */
+        public int getTiles() {
+            return this.tiles;
+        }
+    }
+
+    /**
+     * The height and width of the Board.
+     */
+    public static final int BOARD_SIZE = 10;
+
+    private static final int NUM_PLAYERS = 4;
+    private static final int MAX_ATTEMPTS = 10000;
+
+    private Stage stage;
+    private long seed;
+    private Referee referee;
+    private ShuffledTileSource tileSource;
+    private Avatar mover;
+    private ArrayList<Tiles> hand;
+    private MoveList moves;
+
+    /**
+     * Constructs a GameFixture by playing a game from the given seed.
+     *
+     * @param stage The point to play the game up to.
+     * @param seed  The seed of the game's tiles and moves.
+     */
+    private GameFixture(Stage stage, long seed) {
+        this.stage = stage;
+        this.seed = seed;
+    }
+
+    /**
+     * Builds the fixture of the given Stage.
+     *
+     * @param stage The point to play the game up to.
+     * @return The fixture, which is the same every time.
+     * @throws IllegalStateException If no game from the Stage's seeds reaches
+     *                               it.
+     */
+    public static GameFixture build(Stage stage) throws IllegalStateException {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; ++attempt) {
+            GameFixture fixture = new GameFixture(stage, stage.seed + attempt);
+            if (fixture.play()) {
+                return fixture;
+            }
+        }
+        throw new IllegalStateException("No game reached the " + stage + " stage.");
+    }
+
+    /**
+     * Builds this fixture again from its seed, undoing anything done to it
+     * since.
+     *
+     * @return A new fixture in the same state this one was built in.
+     */
+    public GameFixture rebuild() {
+        GameFixture fixture = new GameFixture(this.stage, this.seed);
+        fixture.play();
+        return fixture;
+    }
+
+    /**
+     * Plays the game of this fixture's seed up to its Stage, leaving the next
+     * Player to move with a hand dealt.
+     *
+     * @return True if the game reached the Stage with at least two Players
+     * left, one of whom faces an empty slot.
+     */
+    private boolean play() {
+        Random random = new Random(this.seed);
+        this.tileSource = new ShuffledTileSource(this.seed, BOARD_SIZE * BOARD_SIZE);
+        this.referee = new Referee(BOARD_SIZE, BOARD_SIZE, this.tileSource);
+        ArrayList<String> colors = Avatar.AvatarColor.getAllColors();
+        for (int ii = 0; ii < NUM_PLAYERS; ++ii) {
+            this.referee.addPlayer(colors.get(ii));
+        }
+        this.referee.connectToBoard();
+        for (IPlayer player : new ArrayList<>(this.referee.getActive())) {
+            this.referee.promptInitPlacement(player);
+        }
+
+        int placed = this.referee.getTurnCount();
+        while (placed < this.stage.tiles) {
+            for (IPlayer player : new ArrayList<>(this.referee.getActive())) {
+                if (this.referee.getActive().size() < 2) {
+                    return false;
+                }
+                if (placed == this.stage.tiles || player.hasExited()) {
+                    continue;
+                }
+                MoveList choices = Rules.legalMoves(this.getBoard(), player.getAvatar(), this.deal());
+                if (choices.size() == 0) {
+                    return false;
+                }
+                int choice = random.nextInt(choices.size());
+                this.getBoard().placeTile(choices.getRow(), choices.getCol(),
+                        choices.getTile(choice), player.getAvatar(), false);
+                this.referee.advancePlayers();
+                ++placed;
+            }
+        }
+
+        for (IPlayer player : this.referee.getActive()) {
+            ArrayList<Tiles> dealt = this.deal();
+            MoveList choices = Rules.legalMoves(this.getBoard(), player.getAvatar(), dealt);
+            if (choices.size() > 0) {
+                this.mover = player.getAvatar();
+                this.hand = dealt;
+                this.moves = choices;
+                return this.referee.getActive().size() >= 2;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deals a hand of two tiles for an intermediate placement.
+     *
+     * @return The hand.
+     */
+    private ArrayList<Tiles> deal() {
+        ArrayList<Tiles> dealt = new ArrayList<>();
+        dealt.add(this.tileSource.draw());
+        dealt.add(this.tileSource.draw());
+        return dealt;
+    }
+
+    /**
+     * Places the first of the mover's legal moves and advances every Avatar,
+     * as the Referee does after a legal intermediate placement.
+     */
+    public void playNextMove() {
+        this.getBoard().placeTile(this.moves.getRow(), this.moves.getCol(),
+                this.moves.getTile(0), this.mover, false);
+        this.referee.advancePlayers();
+    }
+
+    /**
+     * Gets the Stage this fixture was played to.
+     *
+     * @return The Stage.
+     */
+    public Stage getStage() {
+        return this.stage;
+    }
+
+    /**
+     * Gets the Referee of this fixture's game.
+     *
+     * @return The Referee.
+     */
+    public Referee getReferee() {
+        return this.referee;
+    }
+
+    /**
+     * Gets the Board of this fixture's game.
+     *
+     * @return The Board.
+     */
+    public Board getBoard() {
+        return this.referee.getBoard();
+    }
+
+    /**
+     * Gets the Avatar of the Player to move next.
+     *
+     * @return The mover's Avatar.
+     */
+    public Avatar getMover() {
+        return this.mover;
+    }
+
+    /**
+     * Gets the hand dealt to the Player to move next.
+     *
+     * @return The hand of two tiles.
+     */
+    public List<Tiles> getHand() {
+        return this.hand;
+    }
+
+    /**
+     * Gets the legal moves of the Player to move next.
+     *
+     * @return The legal moves, all into the slot the mover faces.
+     */
+    public MoveList getMoves() {
+        return this.moves;
+    }
+}
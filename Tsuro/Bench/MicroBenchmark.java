@@ -0,0 +1,265 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times small operations the way JMH does, within one JVM: each operation is
+ * run for a number of warm-up iterations, whose times are thrown away, then
+ * for a number of measured iterations of a fixed length, and the mean time
+ * per call is reported with the error of its 99.9% confidence interval.
+ * <p>
+ * Every operation gives back a number, which is folded into a sink that is
+ * read at the end, so the JIT compiler cannot drop the work as unused.
+ * Operations that change what they work on can be given a setup to run
+ * before each call, which is not timed, though the time taken to read the
+ * clock around each call is.
+ */
+public class MicroBenchmark {
+    /**
+     * Something to be timed.
+     */
+    public interface Operation {
+        /**
+         * Does the work once.
+         *
+         * @return Any number derived from the result, to keep it alive.
+         */
+        long run();
+    }
+
+    // Student's t for a 99.9% two-sided interval, by degrees of freedom.
+    private static final double[] T_999 = {Double.NaN, 636.6, 31.60, 12.92, 8.610, 6.869,
+            5.959, 5.408, 5.041, 4.781, 4.587, 4.437, 4.318, 4.221, 4.140, 4.073,
+            4.015, 3.965, 3.922, 3.883, 3.850};
+    private static final long MIN_BATCH_NANOS = 10_000;
+
+    private int warmupIterations;
+    private int iterations;
+    private long iterationNanos;
+    private List<Result> results;
+    private long sink;
+
+    /**
+     * Constructs a MicroBenchmark.
+     *
+     * @param warmupIterations The number of iterations to throw away.
+     * @param iterations       The number of iterations to measure.
+     * @param iterationMillis  The length of each iteration.
+     * @throws IllegalArgumentException If nothing would be measured.
+     */
+    public MicroBenchmark(int warmupIterations, int iterations, long iterationMillis)
+            throws IllegalArgumentException {
+        if (warmupIterations < 0 || iterations < 1 || iterationMillis < 1) {
+            throw new IllegalArgumentException("At least one iteration of at least a millisecond must be measured.");
+        }
+        this.warmupIterations = warmupIterations;
+        this.iterations = iterations;
+        this.iterationNanos = iterationMillis * 1_000_000;
+        this.results = new ArrayList<>();
+    }
+
+    /**
+     * Times the given operation.
+     *
+     * @param name      The name to report the operation under.
+     * @param operation The operation.
+     * @return The time per call.
+     */
+    public Result measure(String name, Operation operation) {
+        int batch = 1;
+        while (this.timeBatch(operation, batch) < MIN_BATCH_NANOS && batch < (1 << 24)) {
+            batch <<= 1;
+        }
+        for (int ii = 0; ii < this.warmupIterations; ++ii) {
+            this.iterate(operation, batch);
+        }
+        double[] scores = new double[this.iterations];
+        for (int ii = 0; ii < this.iterations; ++ii) {
+            scores[ii] = this.iterate(operation, batch);
+        }
+        return this.record(name, scores);
+    }
+
+    /**
+     * Times the given operation, running the given setup before each call
+     * without timing it.
+     *
+     * @param name      The name to report the operation under.
+     * @param setup     What to do before each call.
+     * @param operation The operation.
+     * @return The time per call.
+     */
+    public Result measure(String name, Runnable setup, Operation operation) {
+        for (int ii = 0; ii < this.warmupIterations; ++ii) {
+            this.iterate(setup, operation);
+        }
+        double[] scores = new double[this.iterations];
+        for (int ii = 0; ii < this.iterations; ++ii) {
+            scores[ii] = this.iterate(setup, operation);
+        }
+        return this.record(name, scores);
+    }
+
+    /**
+     * Gets everything measured so far, in order.
+     *
+     * @return The results.
+     */
+    public List<Result> getResults() {
+        return this.results;
+    }
+
+    /**
+     * Gets the sink every operation's result was folded into, which must be
+     * read for the operations not to be optimised away.
+     *
+     * @return The sink.
+     */
+    public long getSink() {
+        return this.sink;
+    }
+
+    /**
+     * Runs the given operation for one iteration, in batches of the given
+     * size.
+     *
+     * @param operation The operation.
+     * @param batch     The number of calls between reads of the clock.
+     * @return The mean time per call, in nanoseconds.
+     */
+    private double iterate(Operation operation, int batch) {
+        long calls = 0;
+        long elapsed = 0;
+        while (elapsed < this.iterationNanos) {
+            elapsed += this.timeBatch(operation, batch);
+            calls += batch;
+        }
+        return (double) elapsed / calls;
+    }
+
+    /**
+     * Runs the given operation for one iteration, running the given setup
+     * before each call.
+     *
+     * @param setup     What to do before each call.
+     * @param operation The operation.
+     * @return The mean time per call, in nanoseconds.
+     */
+    private double iterate(Runnable setup, Operation operation) {
+        long calls = 0;
+        long elapsed = 0;
+        long end = System.nanoTime() + this.iterationNanos;
+        while (System.nanoTime() < end || calls == 0) {
+            setup.run();
+            long start = System.nanoTime();
+            this.sink += operation.run();
+            elapsed += System.nanoTime() - start;
+            ++calls;
+        }
+        return (double) elapsed / calls;
+    }
+
+    /**
+     * Runs the given operation the given number of times.
+     *
+     * @param operation The operation.
+     * @param batch     The number of calls.
+     * @return The time taken, in nanoseconds.
+     */
+    private long timeBatch(Operation operation, int batch) {
+        long sum = 0;
+        long start = System.nanoTime();
+        for (int ii = 0; ii < batch; ++ii) {
+            sum += operation.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        this.sink += sum;
+        return elapsed;
+    }
+
+    /**
+     * Summarises the given iteration scores and keeps the Result.
+     *
+     * @param name   The name of the operation.
+     * @param scores The mean time per call of each iteration.
+     * @return The Result.
+     */
+    private Result record(String name, double[] scores) {
+        double mean = 0;
+        for (double score : scores) {
+            mean += score;
+        }
+        mean /= scores.length;
+        double error = Double.NaN;
+        if (scores.length > 1) {
+            double variance = 0;
+            for (double score : scores) {
+                variance += (score - mean) * (score - mean);
+            }
+            variance /= scores.length - 1;
+            double tt = T_999[Math.min(scores.length - 1, T_999.length - 1)];
+            error = tt * Math.sqrt(variance / scores.length);
+        }
+        Result result = new Result(name, scores.length, mean, error);
+        this.results.add(result);
+        return result;
+    }
+
+    /**
+     * The measured time per call of an operation.
+     */
+    public static class Result {
+        private String name;
+        private int count;
+        private double score;
+        private double error;
+
+        /**
+         * Constructs a Result.
+         *
+         * @param name  The name of the operation.
+         * @param count The number of measured iterations.
+         * @param score The mean time per call, in nanoseconds.
+         * @param error The half-width of the 99.9% confidence interval of the
+         *              score, or NaN if there was only one iteration.
+         */
+        private Result(String name, int count, double score, double error) {
+            this.name = name;
+            this.count = count;
+            this.score = score;
+            this.error = error;
+        }
+
+        /**
+         * Gets the name of the operation.
+         *
+         * @return The name.
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Gets the mean time per call.
+         *
+         * @return The time in nanoseconds.
+         */
+        public double getScore() {
+            return this.score;
+        }
+
+        /**
+         * Gets the half-width of the 99.9% confidence interval of the score.
+         *
+         * @return The error in nanoseconds, or NaN if it is not known.
+         */
+        public double getError() {
+            return this.error;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s avgt %4d %12.3f +- %10.3f  ns/op",
+                    this.name, this.count, this.score, this.error);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that every frame of the binary protocol reads back as what was
+ * written: Boards of the benchmark games, hands, Avatars, placements,
+ * acknowledgements and signals. Frames are read both from a stream and from
+ * a buffer given a byte at a time, as GameServer reads them.
+ */
+public class BinaryFormatCheck {
+    private static final Gson GSON = new Gson();
+
+    // The opcode and payload of the frame being checked.
+    private static ByteBuffer received;
+
+    public static void main(String[] args) throws IOException {
+        ArrayList<ByteBuffer> frames = new ArrayList<>();
+        ArrayList<Runnable> checks = new ArrayList<>();
+        for (GameFixture.Stage stage : GameFixture.Stage.values()) {
+            addFixture(GameFixture.build(stage), frames, checks);
+        }
+        addPlacements(frames, checks);
+        addSignals(frames, checks);
+
+        ArrayList<ByteBuffer> fromStream = readFromStream(frames);
+        Check.equal(frames.size(), fromStream.size(), "frames read from a stream");
+        ArrayList<ByteBuffer> fromBuffer = readByteAtATime(frames);
+        Check.equal(frames.size(), fromBuffer.size(), "frames read a byte at a time");
+        for (int ii = 0; ii < frames.size() && ii < fromStream.size() && ii < fromBuffer.size(); ++ii) {
+            Check.equal(fromStream.get(ii), fromBuffer.get(ii), "frame " + ii + " read both ways");
+            received = fromStream.get(ii);
+            checks.get(ii).run();
+        }
+
+        boolean refused = false;
+        try {
+            BinaryFormat.decodeFrame(ByteBuffer.wrap(new byte[]{0, 0, 1}));
+        } catch (IOException e) {
+            refused = true;
+        }
+        Check.that(refused, "frame without an opcode refused");
+        Check.done();
+    }
+
+    /**
+     * Adds frames of the Board, mover and hand of the given game, and the
+     * checks of what is read back.
+     *
+     * @param fixture The game.
+     * @param frames  The frames to add to.
+     * @param checks  The checks to add to, one per frame.
+     */
+    private static void addFixture(GameFixture fixture, List<ByteBuffer> frames, List<Runnable> checks) {
+        String stage = fixture.getStage().toString();
+        Board board = fixture.getBoard();
+        int version = 1 + fixture.getStage().ordinal();
+        frames.add(BinaryFormat.encodeBoard(version, BinaryFormat.tileCodes(board), board));
+        checks.add(() -> {
+            Check.equal(BinaryFormat.BOARD, received.get(), stage + " opcode of a Board");
+            Check.equal(version, received.getInt(), stage + " version of a Board");
+            Board decoded = BinaryFormat.decodeBoard(received);
+            Check.that(decoded.samePosition(board), stage + " Board read back holds the same position");
+            for (IPlayer player : fixture.getReferee().getActive()) {
+                Avatar avatar = player.getAvatar();
+                Avatar standing = decoded.getAvatarAt(avatar.getPos().x, avatar.getPos().y, avatar.getCurrentPort());
+                Check.that(standing != null && standing.getColor() == avatar.getColor(),
+                        stage + " " + avatar.getColor() + " Avatar read back where it stands");
+            }
+            Check.equal(0, received.remaining(), stage + " nothing after a Board");
+        });
+
+        for (IPlayer player : fixture.getReferee().getActive()) {
+            Avatar avatar = player.getAvatar();
+            frames.add(BinaryFormat.encodeAvatar(avatar));
+            checks.add(() -> {
+                Check.equal(BinaryFormat.AVATAR, received.get(), stage + " opcode of an Avatar");
+                Check.equal(describe(avatar), describe(BinaryFormat.decodeAvatar(received)),
+                        stage + " Avatar read back");
+            });
+        }
+
+        List<Tiles> hand = fixture.getHand();
+        frames.add(BinaryFormat.encodeHand(hand));
+        checks.add(() -> {
+            Check.equal(BinaryFormat.HAND, received.get(), stage + " opcode of a hand");
+            Check.equal(hand, BinaryFormat.decodeHand(received), stage + " hand read back");
+        });
+    }
+
+    /**
+     * Adds frames of initial and intermediate placements in every rotation,
+     * and of Avatars in every state, and the checks of what is read back.
+     *
+     * @param frames The frames to add to.
+     * @param checks The checks to add to, one per frame.
+     */
+    private static void addPlacements(List<ByteBuffer> frames, List<Runnable> checks) {
+        for (int degrees = 0; degrees < 360; degrees += 90) {
+            JsonArray init = GSON.fromJson("[34, " + degrees + ", \"white\", \"W2\", 0, 9]", JsonArray.class);
+            frames.add(BinaryFormat.encodeInitPlacement(init));
+            checks.add(() -> {
+                Check.equal(BinaryFormat.INIT_PLACEMENT, received.get(), "opcode of an initial placement");
+                Check.equal(init, BinaryFormat.decodeInitPlacement(received), "initial placement read back");
+            });
+            JsonArray inter = GSON.fromJson("[\"green\", 0, " + degrees + ", 9, 0]", JsonArray.class);
+            frames.add(BinaryFormat.encodeInterPlacement(inter));
+            checks.add(() -> {
+                Check.equal(BinaryFormat.INTER_PLACEMENT, received.get(), "opcode of an intermediate placement");
+                Check.equal(inter, BinaryFormat.decodeInterPlacement(received), "intermediate placement read back");
+            });
+        }
+
+        for (String color : Avatar.AvatarColor.getAllColors()) {
+            Avatar unplaced = new Avatar(color);
+            Avatar exited = new Avatar(color);
+            exited.updatePosition(9, 0, Port.PortName.E2);
+            exited.setExited();
+            for (Avatar avatar : new Avatar[]{unplaced, exited}) {
+                frames.add(BinaryFormat.encodeAvatar(avatar));
+                checks.add(() -> {
+                    Check.equal(BinaryFormat.AVATAR, received.get(), "opcode of an Avatar");
+                    Check.equal(describe(avatar), describe(BinaryFormat.decodeAvatar(received)),
+                            "Avatar read back");
+                });
+            }
+        }
+    }
+
+    /**
+     * Adds frames without payloads, and of acknowledgements, and the checks
+     * of what is read back.
+     *
+     * @param frames The frames to add to.
+     * @param checks The checks to add to, one per frame.
+     */
+    private static void addSignals(List<ByteBuffer> frames, List<Runnable> checks) {
+        byte[] signals = {BinaryFormat.PROVIDE_INIT, BinaryFormat.PROVIDE_INTER, BinaryFormat.WON,
+                BinaryFormat.ELIMINATED, BinaryFormat.KICKED};
+        for (byte signal : signals) {
+            frames.add(BinaryFormat.encodeSignal(signal));
+            checks.add(() -> {
+                Check.equal(signal, received.get(), "opcode of a signal");
+                Check.equal(0, received.remaining(), "nothing after a signal");
+            });
+        }
+        for (int version : new int[]{0, 1, Integer.MAX_VALUE}) {
+            frames.add(BinaryFormat.encodeBoardAck(version));
+            checks.add(() -> {
+                Check.equal(BinaryFormat.BOARD_ACK, received.get(), "opcode of an acknowledgement");
+                Check.equal(version, received.getInt(), "version acknowledged");
+            });
+        }
+    }
+
+    /**
+     * Writes the given frames to a stream and reads them back as Client does.
+     *
+     * @param frames The frames.
+     * @return The opcode and payload of each frame read.
+     */
+    private static ArrayList<ByteBuffer> readFromStream(List<ByteBuffer> frames) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (ByteBuffer frame : frames) {
+            BinaryFormat.writeFrame(out, frame.duplicate());
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        ArrayList<ByteBuffer> read = new ArrayList<>();
+        while (in.available() > 0) {
+            read.add(BinaryFormat.readFrame(in));
+        }
+        return read;
+    }
+
+    /**
+     * Gives the bytes of the given frames to decodeFrame() one at a time, as
+     * a Connection would if each came in its own read.
+     *
+     * @param frames The frames.
+     * @return The opcode and payload of each frame decoded.
+     */
+    private static ArrayList<ByteBuffer> readByteAtATime(List<ByteBuffer> frames) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (ByteBuffer frame : frames) {
+            BinaryFormat.writeFrame(out, frame.duplicate());
+        }
+        byte[] all = out.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocate(all.length);
+        ArrayList<ByteBuffer> read = new ArrayList<>();
+        for (byte next : all) {
+            buffer.put(next).flip();
+            ByteBuffer frame = BinaryFormat.decodeFrame(buffer);
+            while (frame != null) {
+                read.add(frame);
+                frame = BinaryFormat.decodeFrame(buffer);
+            }
+            buffer.compact();
+        }
+        Check.equal(0, buffer.position(), "nothing left over once decoded a byte at a time");
+        return read;
+    }
+
+    /**
+     * Describes the given Avatar so that two can be compared.
+     *
+     * @param avatar The Avatar.
+     * @return Its color, position, port and whether it has exited.
+     */
+    private static String describe(Avatar avatar) {
+        return avatar.getColor() + " " + avatar.getPos().x + "," + avatar.getPos().y + " "
+                + avatar.getCurrentPort() + (avatar.hasExited() ? " exited" : "");
+    }
+}
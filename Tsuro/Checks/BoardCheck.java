@@ -0,0 +1,251 @@
+import com.google.gson.Gson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that a Board sent over the network as JSON, as the Referee sends it
+ * to remote Players, traces and moves Avatars the same as the Board it was
+ * made from, that moves made with applyMove() are taken back exactly by
+ * undoMove(), and that a copy of a Board shares nothing that changes with it.
+ */
+public class BoardCheck {
+    private static final Gson GSON = new Gson();
+    // Empty slots around the first tile, in the order tiles are put in them.
+    private static final int[][] MOVES = {{1, 1}, {0, 2}, {0, 0}, {1, 0}, {1, 2}, {2, 1}, {2, 2}};
+    private static final int SEQUENCES = 200;
+    private static final int MAX_DEPTH = 8;
+
+    public static void main(String[] args) {
+        checkRoundTrip(10, 10);
+        checkRoundTrip(12, 12);
+        checkRoundTrip(6, 8);
+        Random random = new Random(0x554E444FL);
+        for (CheckGame.Stage stage : CheckGame.Stage.values()) {
+            checkApplyAndUndo(CheckGame.build(stage), random);
+            checkCopy(CheckGame.build(stage), random);
+        }
+        Check.done();
+    }
+
+    /**
+     * Checks a Board of the given size with one Avatar on it against a copy
+     * of it read back from JSON.
+     *
+     * @param height The height of the Board.
+     * @param width  The width of the Board.
+     */
+    private static void checkRoundTrip(int height, int width) {
+        String size = height + "x" + width;
+        Board board = new Board(height, width);
+        Avatar avatar = new Avatar("red");
+        // West ports of the first row face the edge.
+        board.initialPlacement(0, 1, Tiles.variant(5, 0), Port.PortName.W1, avatar);
+
+        Board copy = GSON.fromJson(GSON.toJson(board), Board.class);
+        Check.that(copy.samePosition(board), size + " copy holds the same position");
+        Avatar copied = copy.getAvatarAt(0, 1, Port.PortName.W1);
+        Check.that(copied != null, size + " copy has the Avatar where it started");
+        if (copied == null) {
+            return;
+        }
+
+        Location expected = board.tracePath(avatar, true);
+        Location[] actual = new Location[1];
+        Check.runs(() -> actual[0] = copy.tracePath(copied, true), size + " tracing the copy");
+        if (actual[0] != null) {
+            Check.equal(describe(expected), describe(actual[0]), size + " first trace of the copy");
+        }
+
+        int applied = 0;
+        for (int[] move : MOVES) {
+            Tiles tile = Tiles.variant(applied % 35, applied % 4);
+            board.applyMove(move[0], move[1], tile);
+            Check.runs(() -> copy.applyMove(move[0], move[1], tile),
+                    size + " applying a move at " + move[0] + "," + move[1] + " to the copy");
+            ++applied;
+            Check.that(copy.samePosition(board),
+                    size + " copy matches after a move at " + move[0] + "," + move[1]);
+        }
+        for (int ii = 0; ii < applied; ++ii) {
+            board.undoMove();
+            copy.undoMove();
+        }
+        Check.that(copy.samePosition(board), size + " copy matches after undoing every move");
+    }
+
+    /**
+     * Describes the given Location so that two can be compared.
+     *
+     * @param location The Location.
+     * @return Its row, column and port.
+     */
+    private static String describe(Location location) {
+        return location.getRow() + "," + location.getCol() + " " + location.getPortName();
+    }
+
+    /**
+     * Checks that random sequences of moves, each mostly into a slot some
+     * Avatar faces so that Avatars move, leave the Board of the given game as
+     * it was once undone, with partial undos along the way.
+     *
+     * @param fixture The game.
+     * @param random  The source of the moves.
+     */
+    private static void checkApplyAndUndo(CheckGame fixture, Random random) {
+        Board board = fixture.getBoard();
+        List<Avatar> avatars = new ArrayList<>();
+        for (IPlayer player : fixture.getReferee().getActive()) {
+            avatars.add(player.getAvatar());
+        }
+        String before = describe(board, avatars);
+        long keyBefore = board.getZobristKey();
+        int mismatched = 0;
+        int moved = 0;
+        for (int sequence = 0; sequence < SEQUENCES; ++sequence) {
+            ArrayList<String> states = new ArrayList<>();
+            ArrayList<Long> keys = new ArrayList<>();
+            int depth = 1 + random.nextInt(MAX_DEPTH);
+            for (int ii = 0; ii < depth; ++ii) {
+                int[] slot = pickEmptySlot(board, avatars, random);
+                if (slot == null) {
+                    break;
+                }
+                states.add(describe(board, avatars));
+                keys.add(board.getZobristKey());
+                board.applyMove(slot[0], slot[1], Tiles.variant(random.nextInt(Tiles.NUM_TILES), random.nextInt(4)));
+                if (!describe(board, avatars).equals(states.get(states.size() - 1))) {
+                    ++moved;
+                }
+                // Sometimes take the move straight back and check it.
+                if (random.nextInt(4) == 0) {
+                    board.undoMove();
+                    int last = states.size() - 1;
+                    if (!describe(board, avatars).equals(states.remove(last))
+                            || board.getZobristKey() != keys.remove(last)) {
+                        ++mismatched;
+                    }
+                }
+            }
+            while (!states.isEmpty()) {
+                board.undoMove();
+                int last = states.size() - 1;
+                if (!describe(board, avatars).equals(states.remove(last))
+                        || board.getZobristKey() != keys.remove(last)) {
+                    ++mismatched;
+                }
+            }
+        }
+        String stage = fixture.getStage().toString();
+        Check.equal(0, mismatched, stage + " positions not restored by undoMove()");
+        Check.that(moved > 0, stage + " some applied moves moved an Avatar");
+        Check.that(!board.hasMovesToUndo(), stage + " nothing left to undo");
+        Check.equal(before, describe(board, avatars), stage + " Board after every sequence");
+        Check.equal(keyBefore, board.getZobristKey(), stage + " Zobrist key after every sequence");
+    }
+
+    /**
+     * Checks that a copy of the given game's Board holds the same position
+     * with Avatars of its own, and that moves made on the copy, as a Player
+     * searching it would, leave the Board alone.
+     *
+     * @param fixture The game.
+     * @param random  The source of the moves.
+     */
+    private static void checkCopy(CheckGame fixture, Random random) {
+        String stage = fixture.getStage().toString();
+        Board board = fixture.getBoard();
+        List<Avatar> avatars = new ArrayList<>();
+        List<Avatar> copiedAvatars = new ArrayList<>();
+        Board copy = board.copy();
+        for (IPlayer player : fixture.getReferee().getActive()) {
+            Avatar avatar = player.getAvatar();
+            avatars.add(avatar);
+            Avatar copied = copy.getAvatarAt(avatar.getPos().x, avatar.getPos().y, avatar.getCurrentPort());
+            Check.that(copied != null && copied != avatar && copied.getColor() == avatar.getColor(),
+                    stage + " " + avatar.getColor() + " Avatar copied where it stands");
+            copiedAvatars.add(copied);
+        }
+        String before = describe(board, avatars);
+        long keyBefore = board.getZobristKey();
+        Check.that(copy.samePosition(board), stage + " copy holds the same position");
+        Check.equal(before, describe(copy, copiedAvatars), stage + " copy described alike");
+        Check.equal(keyBefore, copy.getZobristKey(), stage + " copy has the same key");
+
+        int applied = 0;
+        for (int ii = 0; ii < MAX_DEPTH; ++ii) {
+            int[] slot = pickEmptySlot(copy, copiedAvatars, random);
+            if (slot == null) {
+                break;
+            }
+            copy.applyMove(slot[0], slot[1], Tiles.variant(random.nextInt(Tiles.NUM_TILES), random.nextInt(4)));
+            ++applied;
+        }
+        Check.that(applied > 0, stage + " moves made on the copy");
+        Check.equal(before, describe(board, avatars), stage + " Board after moves made on its copy");
+        Check.equal(keyBefore, board.getZobristKey(), stage + " key after moves made on its copy");
+    }
+
+    /**
+     * Picks an empty slot of the given Board, the one an Avatar faces if
+     * there is one and a coin says so, or else any.
+     *
+     * @param board   The Board.
+     * @param avatars The Avatars on it.
+     * @param random  The source of the choice.
+     * @return The row and column of the slot, or null if the Board is full.
+     */
+    private static int[] pickEmptySlot(Board board, List<Avatar> avatars, Random random) {
+        if (random.nextBoolean()) {
+            Avatar avatar = avatars.get(random.nextInt(avatars.size()));
+            Location next = new Location(avatar).advance();
+            int xx = next.getCol();
+            int yy = next.getRow();
+            if (!avatar.hasExited() && xx >= 0 && xx < board.getHeight()
+                    && yy >= 0 && yy < board.getWidth() && board.getTileAt(xx, yy) == null) {
+                return new int[]{xx, yy};
+            }
+        }
+        ArrayList<int[]> empty = new ArrayList<>();
+        for (int row = 0; row < board.getHeight(); ++row) {
+            for (int col = 0; col < board.getWidth(); ++col) {
+                if (board.getTileAt(row, col) == null) {
+                    empty.add(new int[]{row, col});
+                }
+            }
+        }
+        return empty.isEmpty() ? null : empty.get(random.nextInt(empty.size()));
+    }
+
+    /**
+     * Describes the tiles and Avatars of the given Board so that two states
+     * can be compared: the tile code in each slot, the color on each occupied
+     * port, and where each of the given Avatars thinks it is.
+     *
+     * @param board   The Board.
+     * @param avatars The Avatars on it.
+     * @return The description.
+     */
+    private static String describe(Board board, List<Avatar> avatars) {
+        StringBuilder out = new StringBuilder();
+        for (int row = 0; row < board.getHeight(); ++row) {
+            for (int col = 0; col < board.getWidth(); ++col) {
+                Tiles tile = board.getTileAt(row, col);
+                out.append(tile == null ? "." : tile.getIdxInAll35() + "/" + tile.getRotation()).append(' ');
+                Avatar[] occupants = board.getAvatarsAt(row, col);
+                for (int port = 0; port < occupants.length; ++port) {
+                    if (occupants[port] != null) {
+                        out.append(port).append(occupants[port].getColor()).append(' ');
+                    }
+                }
+            }
+            out.append('\n');
+        }
+        for (Avatar avatar : avatars) {
+            out.append(avatar.getColor()).append(' ').append(avatar.getPos().x).append(',')
+                    .append(avatar.getPos().y).append(' ').append(avatar.getCurrentPort()).append('\n');
+        }
+        return out.toString();
+    }
+}
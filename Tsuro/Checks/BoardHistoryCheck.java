@@ -0,0 +1,267 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that the frames a BoardHistory gives keep a Client's Board the same
+ * as the server's, whether the Client acknowledges every version, only some,
+ * none, or drops frames, and that deltas are only sent when they can be
+ * applied. The server's Board is filled with the tiles of the late benchmark
+ * game in a shuffled order, and Avatars are moved about on it at random.
+ */
+public class BoardHistoryCheck {
+    private static final int SIZE = GameFixture.BOARD_SIZE;
+    // As in BoardHistory.
+    private static final int MAX_UNACKNOWLEDGED = 64;
+
+    public static void main(String[] args) {
+        Board late = GameFixture.build(GameFixture.Stage.LATE).getBoard();
+        ArrayList<int[]> slots = new ArrayList<>();
+        for (int row = 0; row < SIZE; ++row) {
+            for (int col = 0; col < SIZE; ++col) {
+                if (late.getTileAt(row, col) != null) {
+                    slots.add(new int[]{row, col});
+                }
+            }
+        }
+        Collections.shuffle(slots, new Random(0x48495354L));
+
+        Client every = play(late, slots, step -> true, step -> false);
+        Check.equal(1, every.full, "whole Boards sent to a Client acknowledging every version");
+        // Until its first acknowledgement, versions 1 to 3, the Client is sent whole Boards.
+        Client some = play(late, slots, step -> step % 3 == 2, step -> false);
+        Check.equal(3, some.full, "whole Boards sent to a Client acknowledging every third version");
+        Client lossy = play(late, slots, step -> step % 2 == 0, step -> step % 5 == 1);
+        Check.equal(1, lossy.full, "whole Boards sent to a Client dropping some frames");
+        Client silent = play(late, slots, step -> false, step -> false);
+        Check.equal(slots.size(), silent.full, "whole Boards sent to a Client that never acknowledges");
+
+        checkUnacknowledged(late, slots);
+
+        checkReset(late, slots);
+        checkStaleDelta(late, slots);
+        checkRemovedTile(late, slots);
+        Check.done();
+    }
+
+    /**
+     * Tells something about a step of the game.
+     */
+    private interface StepTest {
+        /**
+         * Tells something about the given step.
+         *
+         * @param step The number of tiles placed before it.
+         * @return True or false.
+         */
+        boolean test(int step);
+    }
+
+    /**
+     * The Board a Client holds, and how it came by it.
+     */
+    private static class Client {
+        private Board board;
+        private int version;
+        private int full;
+        private int deltas;
+        private int diverged;
+
+        /**
+         * Reads the given frame as Client does, keeping the Board it holds
+         * if the frame cannot be applied.
+         *
+         * @param frame The frame.
+         * @return True if the frame was applied.
+         */
+        private boolean receive(ByteBuffer frame) {
+            ByteBuffer body;
+            try {
+                body = BinaryFormat.decodeFrame(frame.duplicate());
+            } catch (java.io.IOException e) {
+                throw new IllegalStateException(e);
+            }
+            byte opcode = body.get();
+            if (opcode == BinaryFormat.BOARD) {
+                ++this.full;
+                this.version = body.getInt();
+                this.board = BinaryFormat.decodeBoard(body);
+                return true;
+            }
+            ++this.deltas;
+            int version = BinaryFormat.applyBoardDelta(body, this.board, this.version);
+            if (version < 0) {
+                return false;
+            }
+            this.version = version;
+            return true;
+        }
+    }
+
+    /**
+     * Plays the tiles of the given game onto a new Board, sending each
+     * version to a Client through a BoardHistory, and checks that the Client
+     * keeps up.
+     *
+     * @param game        The game whose tiles are played.
+     * @param slots       The slots of the tiles, in the order to play them.
+     * @param acknowledge Which versions the Client acknowledges.
+     * @param drop        Which frames never reach the Client.
+     * @return The Client.
+     */
+    private static Client play(Board game, List<int[]> slots, StepTest acknowledge, StepTest drop) {
+        Random random = new Random(0x4D4F5645L);
+        Board server = new Board(SIZE, SIZE);
+        BoardHistory history = new BoardHistory();
+        Client client = new Client();
+        int unapplied = 0;
+        for (int step = 0; step < slots.size(); ++step) {
+            int[] slot = slots.get(step);
+            server.placeTile(slot[0], slot[1], game.getTileAt(slot[0], slot[1]), null, true);
+            moveAvatars(server, slots.subList(0, step + 1), random);
+            ByteBuffer frame = history.update(server);
+            Check.equal(step + 1, history.getVersion(), "version numbered " + (step + 1));
+            if (drop.test(step)) {
+                continue;
+            }
+            if (!client.receive(frame)) {
+                ++unapplied;
+                continue;
+            }
+            if (!client.board.samePosition(server)) {
+                ++client.diverged;
+            }
+            if (acknowledge.test(step)) {
+                history.acknowledge(client.version);
+            }
+        }
+        Check.equal(0, unapplied, "frames the Client could not apply");
+        Check.equal(0, client.diverged, "versions where the Client's Board differed from the server's");
+        return client;
+    }
+
+    /**
+     * Checks that a Client that stops acknowledging is sent deltas from the
+     * last version it acknowledged until MAX_UNACKNOWLEDGED later versions
+     * are kept, and then whole Boards.
+     *
+     * @param game  The game whose tiles are played.
+     * @param slots The slots of the tiles, in the order to play them.
+     */
+    private static void checkUnacknowledged(Board game, List<int[]> slots) {
+        Board server = new Board(SIZE, SIZE);
+        BoardHistory history = new BoardHistory();
+        Client client = new Client();
+        int[] first = slots.get(0);
+        server.placeTile(first[0], first[1], game.getTileAt(first[0], first[1]), null, true);
+        client.receive(history.update(server));
+        history.acknowledge(client.version);
+        for (int step = 1; step <= MAX_UNACKNOWLEDGED + 1; ++step) {
+            int[] slot = slots.get(step % slots.size());
+            if (server.getTileAt(slot[0], slot[1]) == null) {
+                server.placeTile(slot[0], slot[1], game.getTileAt(slot[0], slot[1]), null, true);
+            }
+            client.receive(history.update(server));
+        }
+        Check.equal(MAX_UNACKNOWLEDGED, client.deltas, "deltas sent from the last version acknowledged");
+        Check.equal(2, client.full, "whole Board sent once too many versions are unacknowledged");
+        Check.that(client.board.samePosition(server), "Client holds the Board after falling behind");
+    }
+
+    /**
+     * Checks that a Client acknowledging version 0, as one holding no Board
+     * does, is sent a whole Board next, and deltas after.
+     *
+     * @param game  The game whose tiles are played.
+     * @param slots The slots of the tiles, in the order to play them.
+     */
+    private static void checkReset(Board game, List<int[]> slots) {
+        Board server = new Board(SIZE, SIZE);
+        BoardHistory history = new BoardHistory();
+        Client client = new Client();
+        for (int step = 0; step < 10; ++step) {
+            int[] slot = slots.get(step);
+            server.placeTile(slot[0], slot[1], game.getTileAt(slot[0], slot[1]), null, true);
+            client.receive(history.update(server));
+            history.acknowledge(step == 5 ? 0 : client.version);
+        }
+        Check.equal(2, client.full, "whole Boards sent when a Client asks for one");
+        Check.equal(8, client.deltas, "deltas sent around the whole Board asked for");
+        Check.that(client.board.samePosition(server), "Client holds the Board after asking again");
+    }
+
+    /**
+     * Checks that a delta from a version later than the one the Client holds
+     * is refused and leaves the Client's Board as it was.
+     *
+     * @param game  The game whose tiles are played.
+     * @param slots The slots of the tiles, in the order to play them.
+     */
+    private static void checkStaleDelta(Board game, List<int[]> slots) {
+        Board server = new Board(SIZE, SIZE);
+        BoardHistory history = new BoardHistory();
+        Client client = new Client();
+        int[] first = slots.get(0);
+        server.placeTile(first[0], first[1], game.getTileAt(first[0], first[1]), null, true);
+        client.receive(history.update(server));
+        // The Client misses version 2, and its acknowledgement of it is made up.
+        int[] second = slots.get(1);
+        server.placeTile(second[0], second[1], game.getTileAt(second[0], second[1]), null, true);
+        history.update(server);
+        history.acknowledge(2);
+        int[] third = slots.get(2);
+        server.placeTile(third[0], third[1], game.getTileAt(third[0], third[1]), null, true);
+        long before = client.board.getZobristKey();
+        Check.that(!client.receive(history.update(server)), "delta from a version the Client lacks refused");
+        Check.equal(before, client.board.getZobristKey(), "refused delta leaves the Client's Board alone");
+        Check.equal(1, client.version, "refused delta leaves the Client's version alone");
+    }
+
+    /**
+     * Checks that taking a tile off the Board, which a delta cannot carry,
+     * sends a whole Board.
+     *
+     * @param game  The game whose tiles are played.
+     * @param slots The slots of the tiles, in the order to play them.
+     */
+    private static void checkRemovedTile(Board game, List<int[]> slots) {
+        Board server = new Board(SIZE, SIZE);
+        BoardHistory history = new BoardHistory();
+        Client client = new Client();
+        for (int step = 0; step < 3; ++step) {
+            int[] slot = slots.get(step);
+            server.placeTile(slot[0], slot[1], game.getTileAt(slot[0], slot[1]), null, true);
+            client.receive(history.update(server));
+            history.acknowledge(client.version);
+        }
+        int[] last = slots.get(2);
+        server.removeTileAt(last[0], last[1]);
+        client.receive(history.update(server));
+        Check.equal(2, client.full, "whole Board sent once a tile is taken off");
+        Check.that(client.board.samePosition(server), "Client holds the Board without the tile");
+    }
+
+    /**
+     * Moves some Avatars to random free ports of placed tiles, or puts them
+     * on the Board if they are not yet.
+     *
+     * @param board  The Board.
+     * @param placed The slots holding tiles.
+     * @param random The source of the moves.
+     */
+    private static void moveAvatars(Board board, List<int[]> placed, Random random) {
+        ArrayList<String> colors = Avatar.AvatarColor.getAllColors();
+        for (String color : colors) {
+            if (random.nextInt(3) != 0) {
+                continue;
+            }
+            int[] slot = placed.get(random.nextInt(placed.size()));
+            Port.PortName port = Port.PortName.fromIndex(random.nextInt(8));
+            if (board.getAvatarAt(slot[0], slot[1], port) == null) {
+                board.putAvatar(slot[0], slot[1], port, new Avatar(color));
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Counts the outcomes of the checks run by one of the main-style check
+ * programs in this directory. Each failure is printed as it happens, and
+ * done() prints the totals and exits with a non-zero status if any failed,
+ * so the checks can be run from a script.
+ */
+public final class Check {
+    private static int passed;
+    private static int failed;
+
+    private Check() {
+    }
+
+    /**
+     * Records a check of the given condition.
+     *
+     * @param condition   The condition, which should hold.
+     * @param description What was checked, printed if it does not hold.
+     */
+    public static void that(boolean condition, String description) {
+        if (condition) {
+            ++passed;
+        } else {
+            ++failed;
+            System.out.println("FAILED: " + description);
+        }
+    }
+
+    /**
+     * Records a check that the given values are equal.
+     *
+     * @param expected    The value expected.
+     * @param actual      The value found.
+     * @param description What was checked, printed if they differ.
+     */
+    public static void equal(Object expected, Object actual, String description) {
+        boolean same = expected == null ? actual == null : expected.equals(actual);
+        that(same, description + " (expected " + expected + ", got " + actual + ")");
+    }
+
+    /**
+     * Records a check that the given code throws nothing.
+     *
+     * @param code        The code to be run.
+     * @param description What was checked, printed with the exception if
+     *                    one was thrown.
+     */
+    public static void runs(Runnable code, String description) {
+        try {
+            code.run();
+            ++passed;
+        } catch (RuntimeException e) {
+            ++failed;
+            System.out.println("FAILED: " + description + " threw " + e);
+        }
+    }
+
+    /**
+     * Prints how many checks passed and failed, and exits with status 1 if
+     * any failed.
+     */
+    public static void done() {
+        System.out.println(passed + " passed, " + failed + " failed");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+}
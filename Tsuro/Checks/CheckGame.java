@@ -0,0 +1,148 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * A game played up to a given point for checks to look at. Four Players make
+ * their initial placements as the Referee prompts them, then each is dealt a
+ * random hand of two tiles and a seeded Random picks one of its legal moves,
+ * until the Board holds the number of tiles the Stage asks for.
+ * <p>
+ * Building the same Stage always gives the same game. If a game ends before
+ * reaching the Stage, the next seed is tried, in order, so that too is the
+ * same every time.
+ */
+public class CheckGame {
+    /**
+     * How far into a game a CheckGame is.
+     */
+    public enum Stage {
+        /**
+         * Just after the initial placements, with a few tiles down.
+         */
+        EARLY(8, 0x45415259L),
+        /**
+         * About a third of the board filled.
+         */
+        MID(32, 0x4D4944L),
+        /**
+         * Over half of the board filled, with long paths.
+         */
+        LATE(56, 0x4C415445L);
+
+        private final int tiles;
+        private final long seed;
+
+        Stage(int tiles, long seed) {
+            this.tiles = tiles;
+            this.seed = seed;
+        }
+    }
+
+    /**
+     * The height and width of the Board.
+     */
+    public static final int BOARD_SIZE = 10;
+
+    private static final int NUM_PLAYERS = 4;
+    private static final int MAX_ATTEMPTS = 10000;
+
+    private Stage stage;
+    private Referee referee;
+
+    /**
+     * Constructs a CheckGame of the given Stage.
+     *
+     * @param stage The point the game is played up to.
+     */
+    private CheckGame(Stage stage) {
+        this.stage = stage;
+    }
+
+    /**
+     * Builds the game of the given Stage.
+     *
+     * @param stage The point to play the game up to.
+     * @return The game, which is the same every time.
+     * @throws IllegalStateException If no game from the Stage's seeds reaches
+     *                               it.
+     */
+    public static CheckGame build(Stage stage) throws IllegalStateException {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; ++attempt) {
+            CheckGame game = new CheckGame(stage);
+            if (game.play(new Random(stage.seed + attempt))) {
+                return game;
+            }
+        }
+        throw new IllegalStateException("No game reached the " + stage + " stage.");
+    }
+
+    /**
+     * Plays a game up to this game's Stage.
+     *
+     * @param random The source of the hands and moves.
+     * @return True if the game reached the Stage with at least two Players
+     * left.
+     */
+    private boolean play(Random random) {
+        this.referee = new Referee(BOARD_SIZE, BOARD_SIZE);
+        ArrayList<String> colors = Avatar.AvatarColor.getAllColors();
+        for (int ii = 0; ii < NUM_PLAYERS; ++ii) {
+            this.referee.addPlayer(colors.get(ii));
+        }
+        this.referee.connectToBoard();
+        for (IPlayer player : new ArrayList<>(this.referee.getActive())) {
+            this.referee.promptInitPlacement(player);
+        }
+
+        int placed = NUM_PLAYERS;
+        while (placed < this.stage.tiles) {
+            for (IPlayer player : new ArrayList<>(this.referee.getActive())) {
+                if (this.referee.getActive().size() < 2) {
+                    return false;
+                }
+                if (placed == this.stage.tiles || player.hasExited()) {
+                    continue;
+                }
+                ArrayList<Tiles> hand = new ArrayList<>();
+                hand.add(Tiles.variant(random.nextInt(Tiles.NUM_TILES), 0));
+                hand.add(Tiles.variant(random.nextInt(Tiles.NUM_TILES), 0));
+                MoveList moves = Rules.legalMoves(this.getBoard(), player.getAvatar(), hand);
+                if (moves.size() == 0) {
+                    return false;
+                }
+                this.getBoard().placeTile(moves.getRow(), moves.getCol(),
+                        moves.getTile(random.nextInt(moves.size())), player.getAvatar(), false);
+                this.referee.advancePlayers();
+                ++placed;
+            }
+        }
+        return this.referee.getActive().size() >= 2;
+    }
+
+    /**
+     * Gets the Stage this game was played to.
+     *
+     * @return The Stage.
+     */
+    public Stage getStage() {
+        return this.stage;
+    }
+
+    /**
+     * Gets the Referee of this game.
+     *
+     * @return The Referee.
+     */
+    public Referee getReferee() {
+        return this.referee;
+    }
+
+    /**
+     * Gets the Board of this game.
+     *
+     * @return The Board.
+     */
+    public Board getBoard() {
+        return this.referee.getBoard();
+    }
+}
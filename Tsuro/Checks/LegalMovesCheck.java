@@ -0,0 +1,250 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that Rules.legalMoves() lists exactly the placements a brute-force
+ * walk of each path allows, for random hands dealt to every Player at each
+ * Stage of a CheckGame, and on every turn of a game played on a Board that
+ * is not square. The walk follows the paths of each Tiles one slot at a
+ * time, so it shares nothing with Rules or the Board's tracing.
+ */
+public class LegalMovesCheck {
+    private static final int HANDS_PER_PLAYER = 300;
+    private static final int HANDS_PER_TURN = 20;
+    private static final int NON_SQUARE_HEIGHT = 6;
+    private static final int NON_SQUARE_WIDTH = 9;
+    private static final int NUM_PLAYERS = 4;
+
+    public static void main(String[] args) {
+        Random random = new Random(0x4C45474CL);
+        for (CheckGame.Stage stage : CheckGame.Stage.values()) {
+            CheckGame fixture = CheckGame.build(stage);
+            for (IPlayer player : fixture.getReferee().getActive()) {
+                checkHands(fixture.getBoard(), player, HANDS_PER_PLAYER, random,
+                        stage + " " + player.getAvatarName());
+            }
+        }
+        checkNonSquare(random);
+        Check.done();
+    }
+
+    /**
+     * Plays a game on a Board of NON_SQUARE_HEIGHT by NON_SQUARE_WIDTH,
+     * checking random hands for the Player to move on every turn before it
+     * makes a random legal placement.
+     *
+     * @param random The source of the hands and placements.
+     */
+    private static void checkNonSquare(Random random) {
+        Referee referee = new Referee(NON_SQUARE_HEIGHT, NON_SQUARE_WIDTH);
+        ArrayList<String> colors = Avatar.AvatarColor.getAllColors();
+        for (int ii = 0; ii < NUM_PLAYERS; ++ii) {
+            referee.addPlayer(colors.get(ii));
+        }
+        referee.connectToBoard();
+        for (IPlayer player : new ArrayList<>(referee.getActive())) {
+            referee.promptInitPlacement(player);
+        }
+        Board board = referee.getBoard();
+
+        int turns = 0;
+        boolean placed = true;
+        while (placed && referee.getActive().size() > 1) {
+            placed = false;
+            for (IPlayer player : new ArrayList<>(referee.getActive())) {
+                int[] slot = facedSlot(board, player.getAvatar());
+                if (player.hasExited() || slot == null) {
+                    continue;
+                }
+                String label = NON_SQUARE_HEIGHT + "x" + NON_SQUARE_WIDTH + " turn " + turns
+                        + " " + player.getAvatarName();
+                checkHands(board, player, HANDS_PER_TURN, random, label);
+
+                ArrayList<Tiles> hand = deal(random);
+                ArrayList<Tiles> legal = new ArrayList<>();
+                for (Tiles held : hand) {
+                    for (int rotation = 0; rotation < Tiles.NUM_ROTATIONS; ++rotation) {
+                        Tiles tile = Tiles.variant(held.getIdxInAll35(), rotation);
+                        if (isLegal(board, player.getAvatar(), hand, tile)) {
+                            legal.add(tile);
+                        }
+                    }
+                }
+                board.placeTile(slot[0], slot[1], legal.get(random.nextInt(legal.size())),
+                        player.getAvatar(), false);
+                referee.advancePlayers();
+                ++turns;
+                placed = true;
+            }
+        }
+        Check.that(turns > NON_SQUARE_HEIGHT * NON_SQUARE_WIDTH / 4,
+                "game on a " + NON_SQUARE_HEIGHT + "x" + NON_SQUARE_WIDTH + " Board lasted "
+                        + turns + " turns");
+    }
+
+    /**
+     * Deals the given Player random hands and checks that legalMoves() lists
+     * each placement of them exactly when isLegal() allows it. Players not
+     * facing an empty slot are skipped.
+     *
+     * @param board  The Board.
+     * @param player The Player.
+     * @param hands  The number of hands to deal.
+     * @param random The source of the hands.
+     * @param label  What to call the Player in the result.
+     */
+    private static void checkHands(Board board, IPlayer player, int hands, Random random,
+                                   String label) {
+        Avatar avatar = player.getAvatar();
+        if (facedSlot(board, avatar) == null) {
+            return;
+        }
+        int checked = 0;
+        int mismatched = 0;
+        for (int ii = 0; ii < hands; ++ii) {
+            ArrayList<Tiles> hand = deal(random);
+            player.setTileHand(hand);
+            MoveList moves = Rules.legalMoves(board, avatar, hand);
+            for (Tiles held : hand) {
+                for (int rotation = 0; rotation < Tiles.NUM_ROTATIONS; ++rotation) {
+                    Tiles tile = Tiles.variant(held.getIdxInAll35(), rotation);
+                    ++checked;
+                    if (isLegal(board, avatar, hand, tile) != moves.contains(tile)) {
+                        ++mismatched;
+                    }
+                }
+            }
+        }
+        Check.equal(0, mismatched, label + ": placements of " + checked
+                + " where legalMoves() disagrees");
+    }
+
+    /**
+     * Deals a hand of one to three random tiles in random rotations.
+     *
+     * @param random The source of the tiles.
+     * @return The hand.
+     */
+    private static ArrayList<Tiles> deal(Random random) {
+        ArrayList<Tiles> hand = new ArrayList<>();
+        for (int size = 1 + random.nextInt(3); hand.size() < size; ) {
+            hand.add(Tiles.variant(random.nextInt(Tiles.NUM_TILES), random.nextInt(4)));
+        }
+        return hand;
+    }
+
+    /**
+     * Tells if placing the given tile in the slot the given Avatar faces is
+     * legal for a Player holding the given hand: it is if the Avatar survives
+     * it, or if no rotation of any tile in the hand lets it survive.
+     *
+     * @param board  The Board.
+     * @param avatar The Avatar of the Player to move.
+     * @param hand   The tiles the Player holds.
+     * @param tile   The tile to place.
+     * @return True if the placement is legal.
+     */
+    private static boolean isLegal(Board board, Avatar avatar, List<Tiles> hand, Tiles tile) {
+        if (survives(board, avatar, tile)) {
+            return true;
+        }
+        for (Tiles held : hand) {
+            for (int rotation = 0; rotation < Tiles.NUM_ROTATIONS; ++rotation) {
+                if (survives(board, avatar, Tiles.variant(held.getIdxInAll35(), rotation))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Walks the given Avatar's path, one slot at a time, as if the given tile
+     * were placed in the slot it faces, and tells if the path stops at an
+     * empty slot rather than leaving the Board.
+     *
+     * @param board  The Board.
+     * @param avatar The Avatar.
+     * @param tile   The tile placed in the slot the Avatar faces.
+     * @return True if the Avatar survives the placement.
+     */
+    private static boolean survives(Board board, Avatar avatar, Tiles tile) {
+        int[] placed = facedSlot(board, avatar);
+        Location location = new Location(avatar).advance();
+        for (int steps = 0; steps <= board.getHeight() * board.getWidth() * 8; ++steps) {
+            int[] slot = slotOf(location);
+            if (!onBoard(board, slot)) {
+                return false;
+            }
+            Tiles here = slot[0] == placed[0] && slot[1] == placed[1]
+                    ? tile : board.getTileAt(slot[0], slot[1]);
+            if (here == null) {
+                return true;
+            }
+            Port.PortName exit = otherEnd(here, location.getPortName());
+            location = new Location(location.getRow(), location.getCol(), exit).advance();
+        }
+        throw new IllegalStateException("Path of " + avatar + " never ends");
+    }
+
+    /**
+     * Finds the path of the given tile with an end at the given port.
+     *
+     * @param tile  The tile.
+     * @param entry The port the path is entered at.
+     * @return The port at the path's other end.
+     */
+    private static Port.PortName otherEnd(Tiles tile, Port.PortName entry) {
+        for (Pair<Port, Port> path : tile.getPaths()) {
+            if (path.fst.getName() == entry) {
+                return path.snd.getName();
+            }
+            if (path.snd.getName() == entry) {
+                return path.fst.getName();
+            }
+        }
+        throw new IllegalStateException(tile + " has no path at " + entry);
+    }
+
+    /**
+     * Gives the empty slot on the Board that the given Avatar faces.
+     *
+     * @param board  The Board.
+     * @param avatar The Avatar.
+     * @return The slot as indices into Board.getGrid(), or null if the Avatar
+     * faces the edge of the Board or a tile.
+     */
+    private static int[] facedSlot(Board board, Avatar avatar) {
+        int[] slot = slotOf(new Location(avatar).advance());
+        if (!onBoard(board, slot) || board.getTileAt(slot[0], slot[1]) != null) {
+            return null;
+        }
+        return slot;
+    }
+
+    /**
+     * Gives the slot of the given Location as indices into Board.getGrid(),
+     * whose first index is the Location's column, as Rules.legalMoves() and
+     * Board.placeTile() use it.
+     *
+     * @param location The Location.
+     * @return The first and second index of the slot.
+     */
+    private static int[] slotOf(Location location) {
+        return new int[]{location.getCol(), location.getRow()};
+    }
+
+    /**
+     * Tells if the given slot lies on the Board, whose grid is getHeight()
+     * arrays of getWidth() slots.
+     *
+     * @param board The Board.
+     * @param slot  The first and second index of the slot.
+     * @return True if both indices are in range.
+     */
+    private static boolean onBoard(Board board, int[] slot) {
+        return slot[0] >= 0 && slot[0] < board.getHeight()
+                && slot[1] >= 0 && slot[1] < board.getWidth();
+    }
+}
@@ -0,0 +1,137 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks that ObjectStreamCodec speaks the same bytes as the
+ * ObjectOutputStream and ObjectInputStream that Clients use: Strings it
+ * encodes are read back by ObjectInputStream, and Strings ObjectOutputStream
+ * writes, references and resets included, are decoded by it whole or a byte
+ * at a time. Strings longer than it accepts must be refused.
+ */
+public class ObjectStreamCodecCheck {
+    private static final List<String> MESSAGES = Arrays.asList(
+            "Sam,mcts,binary1", "", "[\"red\",3,90,4,5]", "\u00e9t\u00e9 \u4e2d\u6587",
+            "nul\u0000char", "emoji \uD83D\uDE00", "Sam,mcts,binary1");
+
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        checkEncode();
+        checkDecode(false);
+        checkDecode(true);
+        checkLimit();
+        Check.done();
+    }
+
+    /**
+     * Checks that ObjectInputStream reads back what the codec encodes, with
+     * the header first.
+     */
+    private static void checkEncode() throws IOException, ClassNotFoundException {
+        ObjectStreamCodec codec = new ObjectStreamCodec();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        write(bytes, codec.encodeHeader());
+        Check.equal(0, codec.encodeHeader().remaining(), "header given only once");
+        for (String message : MESSAGES) {
+            write(bytes, codec.encode(message));
+        }
+        char[] longChars = new char[0x12345];
+        Arrays.fill(longChars, 'x');
+        String longMessage = new String(longChars);
+        write(bytes, codec.encode(longMessage));
+
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (String message : MESSAGES) {
+            Check.equal(message, in.readObject(), "ObjectInputStream reads an encoded String");
+        }
+        Check.equal(longMessage, in.readObject(), "ObjectInputStream reads an encoded long String");
+    }
+
+    /**
+     * Checks that the codec decodes what ObjectOutputStream writes, including
+     * references to Strings sent before and resets.
+     *
+     * @param byteAtATime If true, the bytes are given to the codec one at a
+     *                    time, as a slow socket might.
+     */
+    private static void checkDecode(boolean byteAtATime) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        ArrayList<String> sent = new ArrayList<>();
+        for (int ii = 0; ii < 3; ++ii) {
+            for (String message : MESSAGES) {
+                out.writeObject(message);
+                sent.add(message);
+            }
+            out.reset();
+        }
+        out.flush();
+
+        ObjectStreamCodec codec = new ObjectStreamCodec();
+        byte[] all = bytes.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocate(all.length);
+        ArrayList<String> received = new ArrayList<>();
+        int given = 0;
+        while (given < all.length) {
+            int count = byteAtATime ? 1 : all.length;
+            buffer.put(all, given, count);
+            given += count;
+            buffer.flip();
+            String message = codec.decode(buffer);
+            while (message != null) {
+                received.add(message);
+                message = codec.decode(buffer);
+            }
+            buffer.compact();
+        }
+        String how = byteAtATime ? " a byte at a time" : " all at once";
+        Check.equal(sent, received, "Strings from ObjectOutputStream decoded" + how);
+        Check.equal(0, buffer.position(), "nothing left over once decoded" + how);
+    }
+
+    /**
+     * Checks that a String longer than MAX_MESSAGE is refused as soon as its
+     * length is read.
+     */
+    private static void checkLimit() throws IOException {
+        ByteBuffer longString = ByteBuffer.allocate(4 + 9);
+        longString.putShort((short) 0xACED).putShort((short) 5).put((byte) 0x7C).putLong(Integer.MAX_VALUE);
+        longString.flip();
+        boolean refused = false;
+        try {
+            new ObjectStreamCodec().decode(longString);
+        } catch (IOException e) {
+            refused = true;
+        }
+        Check.that(refused, "String declared longer than MAX_MESSAGE refused before it arrives");
+
+        char[] chars = new char[ObjectStreamCodec.MAX_MESSAGE + 1];
+        Arrays.fill(chars, 'y');
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(new String(chars));
+        out.flush();
+        refused = false;
+        try {
+            new ObjectStreamCodec().decode(ByteBuffer.wrap(bytes.toByteArray()));
+        } catch (IOException e) {
+            refused = true;
+        }
+        Check.that(refused, "String of MAX_MESSAGE + 1 bytes refused");
+    }
+
+    /**
+     * Writes the remaining bytes of the given buffer to the given stream.
+     *
+     * @param out    The stream.
+     * @param buffer The buffer.
+     */
+    private static void write(ByteArrayOutputStream out, ByteBuffer buffer) {
+        out.write(buffer.array(), buffer.position(), buffer.remaining());
+    }
+}
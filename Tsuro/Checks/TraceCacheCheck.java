@@ -0,0 +1,153 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Checks that a TraceCache always gives the same end as walking the path on
+ * its BitBoard, while tiles are placed and removed between lookups. Traces
+ * start where the Referee's and Players' do: at a port facing the edge, or
+ * at the entry to the empty slot that a path of placed tiles from the edge
+ * ends facing. Every trace made is asked again after later changes, so stale
+ * entries would be read.
+ */
+public class TraceCacheCheck {
+    private static final int BOARDS = 20;
+    private static final int CHANGES = 120;
+    private static final int NEW_TRACES = 20;
+    private static final int MAX_KEPT = 400;
+    // The last element of a trace tells where it starts.
+    private static final int FROM_EDGE = 0;
+    private static final int FOLLOWING = 1;
+
+    public static void main(String[] args) {
+        Random random = new Random(0x54524143L);
+        long mismatched = 0;
+        long lookups = 0;
+        long misses = 0;
+        for (int ii = 0; ii < BOARDS; ++ii) {
+            int size = 4 + random.nextInt(7);
+            BitBoard bitBoard = new BitBoard(size, size);
+            TraceCache cache = new TraceCache(bitBoard);
+            ArrayList<int[]> traces = new ArrayList<>();
+            for (int change = 0; change < CHANGES; ++change) {
+                for (int jj = 0; jj < NEW_TRACES; ++jj) {
+                    traces.add(edgeTrace(bitBoard, size, random));
+                }
+                ArrayList<int[]> followed = new ArrayList<>();
+                for (int[] trace : traces) {
+                    boolean placed = !bitBoard.isEmpty(trace[0], trace[1]);
+                    int code = placed ? bitBoard.getTileCode(trace[0], trace[1]) : trace[2];
+                    int end = cache.trace(trace[0], trace[1], code, trace[3], true);
+                    if (end != bitBoard.trace(trace[0], trace[1], code, trace[3], true)) {
+                        ++mismatched;
+                    }
+                    // Only a path of placed tiles from the edge leads to
+                    // where an Avatar could stand.
+                    if (trace[4] == FROM_EDGE && placed && followed.size() < NEW_TRACES) {
+                        int[] next = nextTrace(bitBoard, end, random);
+                        if (next != null) {
+                            followed.add(next);
+                        }
+                    }
+                }
+                traces.addAll(followed);
+                while (traces.size() > MAX_KEPT) {
+                    traces.remove(random.nextInt(traces.size()));
+                }
+                if (change(bitBoard, size, cache, random)) {
+                    // A path cut by a removal may be joined up differently
+                    // later, so only traces from the edge stay meaningful.
+                    traces.removeIf(trace -> trace[4] == FOLLOWING);
+                }
+            }
+            lookups += cache.getLookups();
+            misses += cache.getMisses();
+        }
+        Check.equal(0L, mismatched, "cached traces that differ from walking the path");
+        Check.that(misses < lookups, "some of " + lookups + " traces were answered from the cache");
+        Check.that(misses > 0, "some traces were walked again after a change");
+        Check.done();
+    }
+
+    /**
+     * Makes a trace into a random slot on the edge from a port facing the
+     * edge, with the slot's tile or a random one to be placed there.
+     *
+     * @param bitBoard The board.
+     * @param size     The height and width of the board.
+     * @param random   The source of the choice.
+     * @return The row, column, tile code if the slot is empty, entry port,
+     * and where the trace starts.
+     */
+    private static int[] edgeTrace(BitBoard bitBoard, int size, Random random) {
+        while (true) {
+            int row = random.nextInt(size);
+            int col = random.nextInt(size);
+            int port = random.nextInt(8);
+            if (bitBoard.isBorderSlot(bitBoard.neighbourSlot(bitBoard.slotIndex(row, col), port))) {
+                return new int[]{row, col, randomCode(random), port, FROM_EDGE};
+            }
+        }
+    }
+
+    /**
+     * Makes the trace into the empty slot that the given end of a trace
+     * faces, as a Player checking a placement there would.
+     *
+     * @param bitBoard The board.
+     * @param end      The end of the trace, packed as by BitBoard.trace().
+     * @param random   The source of the tile to be placed.
+     * @return The row, column, tile code if the slot is empty, entry port,
+     * and where the trace starts, or null if the end faces the edge or a
+     * tile.
+     */
+    private static int[] nextTrace(BitBoard bitBoard, int end, Random random) {
+        int facing = bitBoard.neighbourSlot(end >>> 3, BitBoard.packedPort(end));
+        if (bitBoard.isBorderSlot(facing) || bitBoard.isSlotOccupied(facing)) {
+            return null;
+        }
+        int entry = Port.PortName.advanceIndex(BitBoard.packedPort(end));
+        return new int[]{bitBoard.packedRow(facing << 3), bitBoard.packedCol(facing << 3),
+                randomCode(random), entry, FOLLOWING};
+    }
+
+    /**
+     * Places a random tile in a random empty slot, or now and then takes a
+     * random tile off, and tells the cache.
+     *
+     * @param bitBoard The board.
+     * @param size     The height and width of the board.
+     * @param cache    The cache of traces over it.
+     * @param random   The source of the change.
+     * @return True if a tile was removed.
+     */
+    private static boolean change(BitBoard bitBoard, int size, TraceCache cache, Random random) {
+        boolean removing = random.nextInt(10) == 0;
+        for (int attempt = 0; attempt < 1000; ++attempt) {
+            int row = random.nextInt(size);
+            int col = random.nextInt(size);
+            if (bitBoard.isEmpty(row, col) == removing) {
+                continue;
+            }
+            if (removing) {
+                bitBoard.clear(row, col);
+                cache.tileRemoved();
+            } else {
+                int code = randomCode(random);
+                bitBoard.set(row, col, code >>> 2, code & 3);
+                cache.tilePlaced(row, col);
+            }
+            return removing;
+        }
+        return false;
+    }
+
+    /**
+     * Gives the code of a random tile in a random rotation.
+     *
+     * @param random The source of the tile.
+     * @return The tile code.
+     */
+    private static int randomCode(Random random) {
+        return (random.nextInt(Tiles.NUM_TILES) << 2) | random.nextInt(4);
+    }
+}
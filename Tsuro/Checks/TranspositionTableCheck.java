@@ -0,0 +1,169 @@
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks that a TranspositionTable gives back what was stored in it, keeps
+ * the deeper of two results for a key, replaces entries within a bucket as
+ * its class comment says, and never gives a torn entry to a thread reading
+ * while others write.
+ */
+public class TranspositionTableCheck {
+    private static final int THREADS = 4;
+    private static final int OPERATIONS = 500_000;
+    private static final int KEYS = 1000;
+
+    public static void main(String[] args) throws InterruptedException {
+        checkStoreAndProbe();
+        checkSameKey();
+        checkBucket();
+        checkConcurrent();
+        Check.done();
+    }
+
+    /**
+     * Checks that every field of an entry reads back as stored.
+     */
+    private static void checkStoreAndProbe() {
+        TranspositionTable table = new TranspositionTable(100);
+        Check.equal(64, table.getCapacity(), "capacity rounded down to a power of two");
+        Check.equal(TranspositionTable.MISS, table.probe(42L), "probe of an empty table");
+
+        table.store(42L, 0.25, 7, TranspositionTable.LOWER_BOUND);
+        long data = table.probe(42L);
+        Check.that(data != TranspositionTable.MISS, "probe finds a stored key");
+        Check.equal(0.25, TranspositionTable.value(data), "stored value");
+        Check.equal(7, TranspositionTable.depth(data), "stored depth");
+        Check.equal(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(data), "stored bound");
+
+        table.store(43L, -1.5, 1000, TranspositionTable.UPPER_BOUND);
+        Check.equal(TranspositionTable.MAX_DEPTH, TranspositionTable.depth(table.probe(43L)),
+                "depth capped at MAX_DEPTH");
+        table.store(44L, 0, -3, TranspositionTable.EXACT);
+        data = table.probe(44L);
+        Check.that(data != TranspositionTable.MISS, "entry of depth zero and value zero is found");
+        Check.equal(0, TranspositionTable.depth(data), "negative depth stored as zero");
+        Check.equal(TranspositionTable.EXACT, TranspositionTable.bound(data), "exact bound");
+
+        table.clear();
+        Check.equal(TranspositionTable.MISS, table.probe(42L), "probe after clear()");
+    }
+
+    /**
+     * Checks that a key's result is only replaced by one at least as deep.
+     */
+    private static void checkSameKey() {
+        TranspositionTable table = new TranspositionTable(16);
+        table.store(7L, 1.0, 5, TranspositionTable.EXACT);
+        table.store(7L, 2.0, 3, TranspositionTable.EXACT);
+        Check.equal(1.0, TranspositionTable.value(table.probe(7L)), "shallower result kept out");
+        table.store(7L, 3.0, 5, TranspositionTable.EXACT);
+        Check.equal(3.0, TranspositionTable.value(table.probe(7L)), "result as deep replaces");
+        table.store(7L, 4.0, 6, TranspositionTable.EXACT);
+        Check.equal(4.0, TranspositionTable.value(table.probe(7L)), "deeper result replaces");
+    }
+
+    /**
+     * Checks replacement in a table of a single bucket: the first entry keeps
+     * the deepest result, and the second the latest turned away or
+     * displaced.
+     */
+    private static void checkBucket() {
+        TranspositionTable table = new TranspositionTable(2);
+        table.store(1L, 1.0, 5, TranspositionTable.EXACT);
+        table.store(2L, 2.0, 3, TranspositionTable.EXACT);
+        Check.that(table.probe(1L) != TranspositionTable.MISS, "deep entry kept beside a recent one");
+        Check.that(table.probe(2L) != TranspositionTable.MISS, "shallower entry kept as the recent one");
+
+        table.store(3L, 3.0, 1, TranspositionTable.EXACT);
+        Check.that(table.probe(1L) != TranspositionTable.MISS, "deep entry kept over a shallower one");
+        Check.equal(TranspositionTable.MISS, table.probe(2L), "recent entry replaced by a newer one");
+        Check.that(table.probe(3L) != TranspositionTable.MISS, "newer shallow entry stored as recent");
+
+        table.store(4L, 4.0, 9, TranspositionTable.EXACT);
+        Check.equal(9, TranspositionTable.depth(table.probe(4L)), "deeper entry takes the deep place");
+        Check.equal(5, TranspositionTable.depth(table.probe(1L)), "displaced deep entry kept as recent");
+        Check.equal(TranspositionTable.MISS, table.probe(3L), "recent entry pushed out by the displaced one");
+    }
+
+    /**
+     * Checks that threads storing and probing the same small table at once
+     * only ever find entries whose fields belong to the key probed.
+     */
+    private static void checkConcurrent() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(64);
+        AtomicLong torn = new AtomicLong();
+        AtomicLong hits = new AtomicLong();
+        ArrayList<Thread> threads = new ArrayList<>();
+        SplittableRandom seeds = new SplittableRandom(0x54544348L);
+        for (int ii = 0; ii < THREADS; ++ii) {
+            SplittableRandom random = seeds.split();
+            Thread thread = new Thread(() -> {
+                for (int jj = 0; jj < OPERATIONS; ++jj) {
+                    long key = keyOf(random.nextInt(KEYS));
+                    if (random.nextBoolean()) {
+                        table.store(key, valueOf(key), depthOf(key), boundOf(key));
+                        continue;
+                    }
+                    long data = table.probe(key);
+                    if (data == TranspositionTable.MISS) {
+                        continue;
+                    }
+                    hits.incrementAndGet();
+                    if (TranspositionTable.value(data) != valueOf(key)
+                            || TranspositionTable.depth(data) != depthOf(key)
+                            || TranspositionTable.bound(data) != boundOf(key)) {
+                        torn.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Check.that(hits.get() > 0, "concurrent probes found entries");
+        Check.equal(0L, torn.get(), "concurrent probes that found another key's fields");
+    }
+
+    /**
+     * Spreads the given index into a key, as Zobrist keys are spread.
+     *
+     * @param index The index of the key.
+     * @return The key.
+     */
+    private static long keyOf(int index) {
+        return (index + 1) * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Gives the value always stored for the given key.
+     *
+     * @param key The key.
+     * @return The value, exactly representable as a float.
+     */
+    private static double valueOf(long key) {
+        return (key & 0xFFFF) / 4.0;
+    }
+
+    /**
+     * Gives the depth always stored for the given key.
+     *
+     * @param key The key.
+     * @return The depth.
+     */
+    private static int depthOf(long key) {
+        return (int) (key >>> 56);
+    }
+
+    /**
+     * Gives the bound always stored for the given key.
+     *
+     * @param key The key.
+     * @return The bound.
+     */
+    private static int boundOf(long key) {
+        return (int) ((key >>> 40) & 1);
+    }
+}
@@ -0,0 +1,195 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Checks that the Zobrist key a Board keeps up to date as tiles are placed
+ * and removed, moves are applied and undone, and Avatars move is always the
+ * key recomputed from scratch from its tiles and Avatars, and that
+ * BoardSnapshot.withPlacement() predicts the key the Board has once the
+ * placement is really made.
+ */
+public class ZobristCheck {
+    private static final int MAX_TURNS = 40;
+    private static final int SEQUENCES = 100;
+    private static final int MAX_DEPTH = 6;
+
+    public static void main(String[] args) {
+        Random random = new Random(0x5A4F4252L);
+        for (CheckGame.Stage stage : CheckGame.Stage.values()) {
+            CheckGame fixture = CheckGame.build(stage);
+            Check.equal(recompute(fixture.getBoard()), fixture.getBoard().getZobristKey(),
+                    stage + " key of the game");
+            checkPlacedAndRemoved(fixture.getBoard(), stage.toString(), random);
+            checkAppliedMoves(fixture.getBoard(), stage.toString(), random);
+            checkGame(fixture, random);
+        }
+        checkEquivalentRotations();
+        Check.done();
+    }
+
+    /**
+     * Plays the given game on to its end with random legal moves, checking
+     * the key after every turn.
+     *
+     * @param fixture The game.
+     * @param random  The source of the moves.
+     */
+    private static void checkGame(CheckGame fixture, Random random) {
+        Referee referee = fixture.getReferee();
+        Board board = fixture.getBoard();
+        int wrong = 0;
+        int mispredicted = 0;
+        int turns = 0;
+        while (turns < MAX_TURNS && referee.getActive().size() >= 2) {
+            IPlayer mover = referee.getActive().get(random.nextInt(referee.getActive().size()));
+            ArrayList<Tiles> hand = new ArrayList<>();
+            hand.add(Tiles.variant(random.nextInt(Tiles.NUM_TILES), 0));
+            hand.add(Tiles.variant(random.nextInt(Tiles.NUM_TILES), 0));
+            MoveList moves = Rules.legalMoves(board, mover.getAvatar(), hand);
+            if (moves.size() == 0) {
+                break;
+            }
+            Tiles tile = moves.getTile(random.nextInt(moves.size()));
+            long predicted = BoardSnapshot.of(board).withPlacement(moves.getRow(), moves.getCol(), tile)
+                    .getZobristKey();
+            board.placeTile(moves.getRow(), moves.getCol(), tile, mover.getAvatar(), false);
+            referee.advancePlayers();
+            if (board.getZobristKey() != recompute(board)) {
+                ++wrong;
+            }
+            if (board.getZobristKey() != predicted) {
+                ++mispredicted;
+            }
+            ++turns;
+        }
+        String stage = fixture.getStage().toString();
+        Check.that(turns > 0, stage + " game went on");
+        Check.equal(0, wrong, stage + " turns of " + turns + " after which the key was not recomputed");
+        Check.equal(0, mispredicted, stage + " turns of " + turns + " whose key the snapshot mispredicted");
+    }
+
+    /**
+     * Puts random tiles in empty slots of the given Board and takes them off
+     * again, checking the key after each.
+     *
+     * @param board  The Board, which is left as it was.
+     * @param name   What to call the Board in failures.
+     * @param random The source of the tiles.
+     */
+    private static void checkPlacedAndRemoved(Board board, String name, Random random) {
+        long before = board.getZobristKey();
+        int wrong = 0;
+        for (int sequence = 0; sequence < SEQUENCES; ++sequence) {
+            ArrayList<int[]> placed = new ArrayList<>();
+            for (int ii = 0; ii < MAX_DEPTH; ++ii) {
+                int row = random.nextInt(board.getHeight());
+                int col = random.nextInt(board.getWidth());
+                if (board.getTileAt(row, col) != null) {
+                    continue;
+                }
+                board.setTileAt(row, col, Tiles.variant(random.nextInt(Tiles.NUM_TILES), random.nextInt(4)));
+                placed.add(new int[]{row, col});
+                if (board.getZobristKey() != recompute(board)) {
+                    ++wrong;
+                }
+            }
+            for (int ii = placed.size() - 1; ii >= 0; --ii) {
+                board.removeTileAt(placed.get(ii)[0], placed.get(ii)[1]);
+                if (board.getZobristKey() != recompute(board)) {
+                    ++wrong;
+                }
+            }
+        }
+        Check.equal(0, wrong, name + " placed or removed tiles after which the key was not recomputed");
+        Check.equal(before, board.getZobristKey(), name + " key once every tile is taken off again");
+    }
+
+    /**
+     * Applies and undoes random moves on the given Board, checking the key
+     * after each.
+     *
+     * @param board  The Board, which is left as it was.
+     * @param name   What to call the Board in failures.
+     * @param random The source of the moves.
+     */
+    private static void checkAppliedMoves(Board board, String name, Random random) {
+        int wrong = 0;
+        for (int sequence = 0; sequence < SEQUENCES; ++sequence) {
+            int depth = 0;
+            for (int ii = 0; ii < MAX_DEPTH; ++ii) {
+                int row = random.nextInt(board.getHeight());
+                int col = random.nextInt(board.getWidth());
+                if (board.getTileAt(row, col) != null) {
+                    continue;
+                }
+                board.applyMove(row, col, Tiles.variant(random.nextInt(Tiles.NUM_TILES), random.nextInt(4)));
+                ++depth;
+                if (board.getZobristKey() != recompute(board)) {
+                    ++wrong;
+                }
+            }
+            for (; depth > 0; --depth) {
+                board.undoMove();
+                if (board.getZobristKey() != recompute(board)) {
+                    ++wrong;
+                }
+            }
+        }
+        Check.equal(0, wrong, name + " applied or undone moves after which the key was not recomputed");
+    }
+
+    /**
+     * Checks that placing rotations of a tile that look the same gives the
+     * same key, and rotations that look different give different keys.
+     */
+    private static void checkEquivalentRotations() {
+        int wrong = 0;
+        for (int tileId = 0; tileId < Tiles.NUM_TILES; ++tileId) {
+            int period = Tiles.rotationPeriod(tileId);
+            for (int rotation = 0; rotation < 4; ++rotation) {
+                Board turned = new Board();
+                turned.setTileAt(4, 4, Tiles.variant(tileId, rotation));
+                Board base = new Board();
+                base.setTileAt(4, 4, Tiles.variant(tileId, rotation % period));
+                if (turned.getZobristKey() != base.getZobristKey()) {
+                    ++wrong;
+                }
+                if (rotation < period && rotation > 0) {
+                    Board first = new Board();
+                    first.setTileAt(4, 4, Tiles.variant(tileId, 0));
+                    if (first.getZobristKey() == turned.getZobristKey()) {
+                        ++wrong;
+                    }
+                }
+            }
+        }
+        Check.equal(0, wrong, "rotations whose keys do not match how they look");
+    }
+
+    /**
+     * Computes the key of the given Board's position from scratch.
+     *
+     * @param board The Board.
+     * @return The XOR of the keys of every placed tile and standing Avatar.
+     */
+    private static long recompute(Board board) {
+        BitBoard bitBoard = board.getBitBoard();
+        long key = 0;
+        for (int row = 0; row < board.getHeight(); ++row) {
+            for (int col = 0; col < board.getWidth(); ++col) {
+                int slot = bitBoard.slotIndex(row, col);
+                Tiles tile = board.getTileAt(row, col);
+                if (tile != null) {
+                    key ^= Zobrist.tileKey(slot, tile.getCanonicalCode());
+                }
+                Avatar[] avatars = board.getAvatarsAt(row, col);
+                for (int port = 0; port < avatars.length; ++port) {
+                    if (avatars[port] != null) {
+                        key ^= Zobrist.avatarKey((slot << 3) | port, avatars[port].getColor().ordinal());
+                    }
+                }
+            }
+        }
+        return key;
+    }
+}
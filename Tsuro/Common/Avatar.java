@@ -95,6 +95,19 @@ public class Avatar implements Serializable {
   public void setExited() {
     this.exited = true;
   }
+
+  /**
+   * Makes an Avatar of the same color standing where this one stands, which
+   * does not move when this one does.
+   *
+   * @return The copy.
+   */
+  public Avatar copy() {
+    Avatar copy = new Avatar(this.color.toString().toLowerCase());
+    copy.updatePosition(this.pos.x, this.pos.y, this.currentPort);
+    copy.exited = this.exited;
+    return copy;
+  }
   
   /**
    * Represents a valid color of an Avatar.
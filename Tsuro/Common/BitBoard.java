@@ -0,0 +1,316 @@
+import java.util.Arrays;
+
+/**
+ * A compact backing store for the slots of a Tsuro Board. Which slots hold a
+ * tile is kept as a bitset, and the tile in each slot is kept as a short code
+ * of its index in all35Tiles() and its rotation.
+ * <p>
+ * The bitset and tile codes are laid out with a one slot wide empty border
+ * around the board, so the neighbours of any slot on the board can be read
+ * without bounds checks. This also lets paths be traced over packed slot
+ * indices, as a path leaving the board simply runs into an empty slot.
+ */
+public class BitBoard {
+    private int height;
+    private int width;
+    private int stride;
+    private long[] occupied;
+    private short[] tileCodes;
+    private int[] neighbourOffsets;
+    private transient long traceSteps;
+
+    /**
+     * Constructs an empty BitBoard with the given dimensions.
+     *
+     * @param height The height of the board, i.e. the range of the first
+     *               coordinate.
+     * @param width  The width of the board, i.e. the range of the second
+     *               coordinate.
+     */
+    public BitBoard(int height, int width) {
+        this.height = height;
+        this.width = width;
+        this.stride = width + 2;
+        int numBits = (height + 2) * this.stride;
+        this.occupied = new long[(numBits + 63) >>> 6];
+        this.tileCodes = new short[numBits];
+
+        // North and South ports lead along the second coordinate, East and West
+        // ports along the first.
+        this.neighbourOffsets = new int[8];
+        for (int port = 0; port < 8; ++port) {
+            switch (Port.PortName.fromIndex(port).direction()) {
+                case "N":
+                    this.neighbourOffsets[port] = 1;
+                    break;
+                case "E":
+                    this.neighbourOffsets[port] = this.stride;
+                    break;
+                case "S":
+                    this.neighbourOffsets[port] = -1;
+                    break;
+                default:
+                    this.neighbourOffsets[port] = -this.stride;
+            }
+        }
+    }
+
+    /**
+     * Records a tile in the given slot.
+     *
+     * @param row      The first coordinate of the slot.
+     * @param col      The second coordinate of the slot.
+     * @param tileId   The index of the tile in all35Tiles().
+     * @param rotation The number of 90 degree clockwise turns of the tile.
+     */
+    public void set(int row, int col, int tileId, int rotation) {
+        int bit = this.bitIndex(row, col);
+        this.occupied[bit >>> 6] |= 1L << bit;
+        this.tileCodes[bit] = (short) ((tileId << 2) | rotation);
+    }
+
+    /**
+     * Empties the given slot.
+     *
+     * @param row The first coordinate of the slot.
+     * @param col The second coordinate of the slot.
+     */
+    public void clear(int row, int col) {
+        int bit = this.bitIndex(row, col);
+        this.occupied[bit >>> 6] &= ~(1L << bit);
+        this.tileCodes[bit] = 0;
+    }
+
+    /**
+     * Gives the code of the tile in the given slot, namely its index in
+     * all35Tiles() shifted left by two, or'd with its number of quarter turns.
+     * Only meaningful if the slot is not empty.
+     *
+     * @param row The first coordinate of the slot.
+     * @param col The second coordinate of the slot.
+     * @return The code of the tile in the slot.
+     */
+    public int getTileCode(int row, int col) {
+        return this.tileCodes[this.bitIndex(row, col)];
+    }
+
+    /**
+     * Checks if the given coordinates lie on this board.
+     *
+     * @param row The first coordinate being queried.
+     * @param col The second coordinate being queried.
+     * @return True if both coordinates are in range.
+     */
+    public boolean contains(int row, int col) {
+        // Each term is negative only if its coordinate is in [0, bound).
+        return ((row - this.height) & ~row & (col - this.width) & ~col) < 0;
+    }
+
+    /**
+     * Checks if the given slot is empty.
+     * Assumes that coordinates are contained within the board.
+     *
+     * @param row The first coordinate being queried.
+     * @param col The second coordinate being queried.
+     * @return True if no tile is in the slot.
+     */
+    public boolean isEmpty(int row, int col) {
+        return this.bit(this.bitIndex(row, col)) == 0;
+    }
+
+    /**
+     * Checks if every slot sharing an edge with the given one is empty. Slots
+     * off the board count as empty.
+     * Assumes that coordinates are contained within the board.
+     *
+     * @param row The first coordinate being queried.
+     * @param col The second coordinate being queried.
+     * @return True if all neighbours of the slot are empty.
+     */
+    public boolean areNeighboursEmpty(int row, int col) {
+        int bit = this.bitIndex(row, col);
+        return (this.bit(bit - 1) | this.bit(bit + 1)
+                | this.bit(bit - this.stride) | this.bit(bit + this.stride)) == 0;
+    }
+
+    /**
+     * Checks if the given slot is on the board, empty, and has only empty
+     * neighbours.
+     *
+     * @param row The first coordinate being queried.
+     * @param col The second coordinate being queried.
+     * @return True if a tile could be placed there without touching another.
+     */
+    public boolean isIsolatedEmpty(int row, int col) {
+        if (!this.contains(row, col)) {
+            return false;
+        }
+        int bit = this.bitIndex(row, col);
+        return (this.bit(bit) | this.bit(bit - 1) | this.bit(bit + 1)
+                | this.bit(bit - this.stride) | this.bit(bit + this.stride)) == 0;
+    }
+
+    /**
+     * Traces a path from the given position as far as placed tiles allow,
+     * treating the given slot as holding the given tile if it is empty. No
+     * objects are created along the way.
+     *
+     * @param row       The first coordinate of the starting slot.
+     * @param col       The second coordinate of the starting slot.
+     * @param tileCode  The code of the tile at, or to be placed at, the slot.
+     * @param port      The ordinal of the starting port.
+     * @param firstMove If true, the starting port is an entry to the slot's tile
+     *                  rather than an exit.
+     * @return The end of the path, packed as (slot << 3) | port, to be read
+     * with packedRow(), packedCol() and packedPort().
+     */
+    public int trace(int row, int col, int tileCode, int port, boolean firstMove) {
+        int start = this.bitIndex(row, col);
+        int slot = start;
+        if (firstMove) {
+            port = Tiles.traceCode(tileCode, port);
+        }
+
+        int next = slot + this.neighbourOffsets[port];
+        int steps = 0;
+        while (this.bit(next) != 0 || next == start) {
+            port = Port.PortName.advanceIndex(port);
+            slot = next;
+            int code = this.bit(slot) != 0 ? this.tileCodes[slot] : tileCode;
+            port = Tiles.traceCode(code, port);
+            next = slot + this.neighbourOffsets[port];
+            ++steps;
+        }
+        this.traceSteps += steps;
+        return (slot << 3) | port;
+    }
+
+    /**
+     * Gives the number of tiles walked onto by trace() since this BitBoard
+     * was made. It is not sent along with the BitBoard.
+     *
+     * @return The number of steps taken by all traces so far.
+     */
+    public long getTraceSteps() {
+        return this.traceSteps;
+    }
+
+    /**
+     * Checks if the given BitBoard has the same dimensions and holds the same
+     * tile codes in the same slots as this one.
+     *
+     * @param other The BitBoard to be compared with.
+     * @return True if both hold the same tiles.
+     */
+    public boolean sameTiles(BitBoard other) {
+        return this.height == other.height && this.width == other.width
+                && Arrays.equals(this.occupied, other.occupied)
+                && Arrays.equals(this.tileCodes, other.tileCodes);
+    }
+
+    /**
+     * Gives the number of slots in the padded bitset, border included.
+     *
+     * @return The number of slots.
+     */
+    public int numSlots() {
+        return (this.height + 2) * this.stride;
+    }
+
+    /**
+     * Gives the position of the given slot in the padded bitset, as used by
+     * packed positions.
+     *
+     * @param row The first coordinate of the slot.
+     * @param col The second coordinate of the slot.
+     * @return The index of the slot.
+     */
+    public int slotIndex(int row, int col) {
+        return this.bitIndex(row, col);
+    }
+
+    /**
+     * Gives the slot that the given port of the given slot leads to.
+     *
+     * @param slot The index of the slot.
+     * @param port The ordinal of the port.
+     * @return The index of the neighbouring slot, which is a border slot if the
+     * port faces the edge of the board.
+     */
+    public int neighbourSlot(int slot, int port) {
+        return slot + this.neighbourOffsets[port];
+    }
+
+    /**
+     * Checks if the slot with the given index holds a tile. Border slots never
+     * do.
+     *
+     * @param slot The index of the slot.
+     * @return True if a tile is in the slot.
+     */
+    public boolean isSlotOccupied(int slot) {
+        return this.bit(slot) != 0;
+    }
+
+    /**
+     * Checks if the slot with the given index is part of the border around the
+     * board rather than on the board itself.
+     *
+     * @param slot The index of the slot.
+     * @return True if the slot is off the board.
+     */
+    public boolean isBorderSlot(int slot) {
+        return !this.contains(slot / this.stride - 1, slot % this.stride - 1);
+    }
+
+    /**
+     * Gives the first coordinate of a position packed by trace().
+     *
+     * @param packed The packed position.
+     * @return Its first coordinate.
+     */
+    public int packedRow(int packed) {
+        return (packed >>> 3) / this.stride - 1;
+    }
+
+    /**
+     * Gives the second coordinate of a position packed by trace().
+     *
+     * @param packed The packed position.
+     * @return Its second coordinate.
+     */
+    public int packedCol(int packed) {
+        return (packed >>> 3) % this.stride - 1;
+    }
+
+    /**
+     * Gives the port ordinal of a position packed by trace().
+     *
+     * @param packed The packed position.
+     * @return Its port ordinal.
+     */
+    public static int packedPort(int packed) {
+        return packed & 7;
+    }
+
+    /**
+     * Gives the position of the given slot in the padded bitset.
+     *
+     * @param row The first coordinate of the slot.
+     * @param col The second coordinate of the slot.
+     * @return The bit index of the slot.
+     */
+    private int bitIndex(int row, int col) {
+        return (row + 1) * this.stride + col + 1;
+    }
+
+    /**
+     * Reads a single bit of the bitset.
+     *
+     * @param bit The index of the bit.
+     * @return 1 if the bit is set, or 0 if not.
+     */
+    private long bit(int bit) {
+        return (this.occupied[bit >>> 6] >>> bit) & 1L;
+    }
+}
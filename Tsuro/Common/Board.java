@@ -2,20 +2,36 @@ import com.google.gson.JsonArray;
 
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 
 /**
  * Represents a board for a game of Tsuro.
  */
 public class Board {
+    // A slot and its four neighbours, as offsets from the slot.
+    private static final int[] NEAR_ROWS = {0, -1, 1, 0, 0};
+    private static final int[] NEAR_COLUMNS = {0, 0, 0, -1, 1};
+
     private Tiles[][] grid;
+    private Avatar[] occupancy;
+    private BitBoard bitBoard;
+    private transient PathIndex pathIndex;
+    private transient TraceCache traceCache;
+    private int[] avatarOrigins;
+    private int[] avatarFronts;
+    private long zobristKey;
+    private transient Avatar[] avatarsByColor;
+    private transient UndoLog undoLog;
+    private transient long[] startAvailability;
     private transient Referee ref;
 
     /**
      * Constructs a Tsuro game board.
      */
     public Board() {
-        this.grid = new Tiles[10][10];
+        this(10, 10);
     }
     
     /**
@@ -26,8 +42,46 @@ public class Board {
      */
     public Board(int height, int width) {
         this.grid = new Tiles[height][width];
+        this.occupancy = new Avatar[height * width * 8];
+        this.bitBoard = new BitBoard(height, width);
+        this.avatarOrigins = new int[Avatar.AvatarColor.values().length];
+        this.avatarFronts = new int[Avatar.AvatarColor.values().length];
+        Arrays.fill(this.avatarOrigins, -1);
+        Arrays.fill(this.avatarFronts, -1);
     }
     
+    /**
+     * Makes a copy of this Board holding the same position, with Avatars and
+     * caches of its own, so that it can be read or searched on another thread
+     * while this Board goes on changing. The copy asks the same Referee how
+     * many tiles are left. Moves made with applyMove() that have not been
+     * undone are part of the copied position, but cannot be undone on it.
+     *
+     * @return The copy.
+     */
+    public Board copy() {
+        Board copy = new Board(this.getHeight(), this.getWidth());
+        for (int row = 0; row < this.getHeight(); ++row) {
+            for (int col = 0; col < this.getWidth(); ++col) {
+                if (this.grid[row][col] != null) {
+                    copy.setTileAt(row, col, this.grid[row][col]);
+                }
+            }
+        }
+        IdentityHashMap<Avatar, Avatar> copied = new IdentityHashMap<>();
+        for (int ii = 0; ii < this.occupancy.length; ++ii) {
+            Avatar avatar = this.occupancy[ii];
+            if (avatar != null) {
+                copy.occupancy[ii] = copied.computeIfAbsent(avatar, Avatar::copy);
+            }
+        }
+        System.arraycopy(this.avatarOrigins, 0, copy.avatarOrigins, 0, this.avatarOrigins.length);
+        System.arraycopy(this.avatarFronts, 0, copy.avatarFronts, 0, this.avatarFronts.length);
+        copy.zobristKey = this.zobristKey;
+        copy.ref = this.ref;
+        return copy;
+    }
+
     /**
      * Sets the Referee of this board as the given value.
      *
@@ -46,6 +100,115 @@ public class Board {
         return grid;
     }
 
+    /**
+     * Gets the bitset view of which slots of this Board hold which Tiles.
+     *
+     * @return This Board's BitBoard.
+     */
+    public BitBoard getBitBoard() {
+        return this.bitBoard;
+    }
+
+    /**
+     * Puts the given tile in the given slot without moving any Avatars. Meant
+     * for trying out placements, so the path segment index is left as it is,
+     * and the slot must be emptied again with removeTileAt().
+     *
+     * @param row    The row of the slot.
+     * @param column The column of the slot.
+     * @param tile   The tile to be put there.
+     */
+    public void setTileAt(int row, int column, Tiles tile) {
+        int slot = this.bitBoard.slotIndex(row, column);
+        if (this.grid[row][column] != null) {
+            this.zobristKey ^= Zobrist.tileKey(slot, this.bitBoard.getTileCode(row, column));
+            if (this.traceCache != null) {
+                this.traceCache.tileRemoved();
+            }
+        }
+        this.grid[row][column] = tile;
+        // Equivalent rotations are stored alike, so equal positions look equal.
+        int code = tile.getCanonicalCode();
+        this.bitBoard.set(row, column, code >>> 2, code & 3);
+        this.zobristKey ^= Zobrist.tileKey(slot, code);
+        if (this.traceCache != null) {
+            this.traceCache.tilePlaced(row, column);
+        }
+        this.updateStartAvailability(row, column);
+    }
+
+    /**
+     * Empties the given slot without moving any Avatars.
+     *
+     * @param row    The row of the slot.
+     * @param column The column of the slot.
+     */
+    public void removeTileAt(int row, int column) {
+        if (this.grid[row][column] != null) {
+            this.zobristKey ^= Zobrist.tileKey(this.bitBoard.slotIndex(row, column),
+                    this.bitBoard.getTileCode(row, column));
+        }
+        this.grid[row][column] = null;
+        this.bitBoard.clear(row, column);
+        if (this.traceCache != null) {
+            this.traceCache.tileRemoved();
+        }
+        this.updateStartAvailability(row, column);
+    }
+
+    /**
+     * Gets the slots around the edge of this Board, where initial placements
+     * go.
+     *
+     * @return The Perimeter shared by Boards of this size.
+     */
+    public Perimeter getPerimeter() {
+        return Perimeter.of(this.getHeight(), this.getWidth());
+    }
+
+    /**
+     * Checks if an initial placement may still go in the given slot of the
+     * Perimeter, which is so if the slot and its neighbours are empty.
+     *
+     * @param index The index of the slot on the Perimeter.
+     * @return True if the slot is free for an initial placement.
+     */
+    public boolean isStartAvailable(int index) {
+        return (this.getStartAvailability()[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Gives the first slot of the Perimeter, counter-clockwise from (0, 0),
+     * where an initial placement may still go.
+     *
+     * @return The index of the slot on the Perimeter, or -1 if there is none.
+     */
+    public int firstAvailableStart() {
+        long[] available = this.getStartAvailability();
+        for (int word = 0; word < available.length; ++word) {
+            if (available[word] != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(available[word]);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gives the last slot of the Perimeter, counter-clockwise from (0, 0),
+     * where an initial placement may still go.
+     *
+     * @return The index of the slot on the Perimeter, or -1 if there is none.
+     */
+    public int lastAvailableStart() {
+        long[] available = this.getStartAvailability();
+        for (int word = available.length - 1; word >= 0; --word) {
+            if (available[word] != 0) {
+                return (word << 6) + 63 - Long.numberOfLeadingZeros(available[word]);
+            }
+        }
+        return -1;
+    }
+
     /**
      * Gives the selected tile slot in the board.
      * Assumes that x and y coordinates are within the bounds of this board.
@@ -109,6 +272,14 @@ public class Board {
     public void initialPlacement(int row, int column, Tiles tile, Port.PortName portName, Avatar currentPlayer) {
         this.placeTile(row, column, tile, currentPlayer, true);
         this.placeAvatar(row, column, portName, currentPlayer);
+
+        // An Avatar starting on the edge stays on the segment ending there, so
+        // wherever it goes is the other end of that segment.
+        int slot = this.bitBoard.slotIndex(row, column);
+        int color = currentPlayer.getColor().ordinal();
+        boolean onEdge = this.bitBoard.isBorderSlot(this.bitBoard.neighbourSlot(slot, portName.ordinal()));
+        this.avatarOrigins[color] = onEdge ? (slot << 3) | portName.ordinal() : -1;
+        this.avatarFronts[color] = -1;
     }
 
     /**
@@ -122,8 +293,15 @@ public class Board {
      * @param firstMove     Is this the first move a player has made or not?
      */
     public void placeTile(int row, int column, Tiles tile, Avatar currentPlayer, boolean firstMove) {
-        Tiles tileCopy = tile.clone();
-        this.grid[row][column] = tileCopy;
+        PathIndex index = this.getPathIndex();
+        boolean replacing = this.grid[row][column] != null;
+        this.setTileAt(row, column, tile);
+        if (replacing) {
+            // Segments cannot be split, so the index is rebuilt when next used.
+            this.pathIndex = null;
+        } else {
+            index.place(this.bitBoard, this.bitBoard.slotIndex(row, column), tile.getCanonicalCode());
+        }
 
         // After referee calls this method it will advance the players according to
         // logic we will write in future assignment
@@ -136,6 +314,87 @@ public class Board {
         }
     }
 
+    /**
+     * Places the given tile in the given empty slot and moves every Avatar
+     * facing it to the end of its path, recording how to take the move back
+     * with undoMove(). Unlike placeTile(), no Referee is involved and Avatars
+     * reaching the edge are not eliminated, so this is meant for searching the
+     * game tree in place. Moves must be undone in the reverse order that they
+     * were applied, before the Board is used for anything else.
+     *
+     * @param row    The row of the slot.
+     * @param column The column of the slot.
+     * @param tile   The tile to be placed.
+     * @throws IllegalArgumentException If the slot is not empty.
+     */
+    public void applyMove(int row, int column, Tiles tile) throws IllegalArgumentException {
+        if (this.grid[row][column] != null) {
+            throw new IllegalArgumentException("Can only apply a move to an empty slot.");
+        }
+        UndoLog log = this.getUndoLog();
+        // Avatars are found by color on undo, even if they have since collided.
+        this.getAvatarsByColor();
+        int slot = this.bitBoard.slotIndex(row, column);
+        this.setTileAt(row, column, tile);
+        this.getPathIndex().place(this.bitBoard, slot, tile.getCanonicalCode(), log);
+
+        // Only Avatars on the ports facing the new tile can move.
+        int moved = 0;
+        for (int port = 0; port < 8; ++port) {
+            int neighbour = this.bitBoard.neighbourSlot(slot, port);
+            if (this.bitBoard.isBorderSlot(neighbour)) {
+                continue;
+            }
+            int fromRow = this.bitBoard.packedRow(neighbour << 3);
+            int fromCol = this.bitBoard.packedCol(neighbour << 3);
+            Port.PortName fromPort = Port.PortName.fromIndex(Port.PortName.advanceIndex(port));
+            Avatar avatar = this.getAvatarAt(fromRow, fromCol, fromPort);
+            if (avatar == null || avatar.hasExited()) {
+                continue;
+            }
+            int end = this.tracePacked(fromRow, fromCol, this.grid[fromRow][fromCol], fromPort, false);
+            this.moveAvatar(avatar, fromRow, fromCol, fromPort, end);
+            log.push((((neighbour << 3) | fromPort.ordinal()) << 3) | avatar.getColor().ordinal());
+            log.push(end);
+            ++moved;
+        }
+        log.push(slot);
+        log.push(moved);
+    }
+
+    /**
+     * Takes back the most recent move made with applyMove(), emptying its slot
+     * and moving the Avatars it moved back to where they were.
+     *
+     * @throws IllegalStateException If there is no move to undo.
+     */
+    public void undoMove() throws IllegalStateException {
+        UndoLog log = this.getUndoLog();
+        int moved = log.pop();
+        int slot = log.pop();
+        for (int ii = 0; ii < moved; ++ii) {
+            int end = log.pop();
+            int start = log.pop();
+            Avatar avatar = this.avatarsByColor[start & 7];
+            int endRow = this.bitBoard.packedRow(end);
+            int endCol = this.bitBoard.packedCol(end);
+            Port.PortName endPort = Port.PortName.fromIndex(BitBoard.packedPort(end));
+            this.moveAvatar(avatar, endRow, endCol, endPort, start >>> 3);
+        }
+        this.getPathIndex().unplace(log);
+        this.removeTileAt(this.bitBoard.packedRow(slot << 3), this.bitBoard.packedCol(slot << 3));
+    }
+
+    /**
+     * Tells if there are moves made with applyMove() that have not been
+     * undone.
+     *
+     * @return True if undoMove() has a move to take back.
+     */
+    public boolean hasMovesToUndo() {
+        return this.undoLog != null && !this.undoLog.isEmpty();
+    }
+
     /**
      * Checks to see if there are any avatars whose positions on the board are the same
      *
@@ -209,72 +468,71 @@ public class Board {
     public Location tracePath(int row, int col, Tiles tile, Port.PortName portName,
                               boolean firstMove, boolean physicalMove) {
 
-        // Setup of temporary variables.
-        int currentRow = row;
-        int currentCol = col;
-        Port.PortName currentPortName = portName;
-        Tiles currentTile = tile;
-
-        // If the current port is an entry point rather than the exit point,
-        // trace to the end of the current tile's path.
-        if (firstMove) {
-            currentPortName = currentTile.trace(portName, physicalMove);
-        }
-
-        // If the current position borders onto another placed tile, get its
-        // location.
-        Pair<Integer, Integer> nextCoordinates = this.advancedCoordinates(currentRow,
-                currentCol,
-                currentPortName, row, col);
-
-        // As long as the next tile location is placed, trace to the end of the
-        // given path, update temporary variables, and then check if the new
-        // location borders onto another placed tile.
-        while (nextCoordinates != null) {
-            Avatar curAvatar = null;
-            Port curPort = null;
-            if (physicalMove) {
-                for (IPlayer player : this.ref.getActive()) {
-                    Avatar avatar = player.getAvatar();
-                    if (avatar.getCurrentPort().toString().equals(currentPortName.toString())
-                            && avatar.getPos().x == currentRow && avatar.getPos().y == currentCol) {
-                        curAvatar = avatar;
-                    }
-                }
-                
-                curPort = currentTile.getPort(curAvatar.getCurrentPort());
-            }
-
-            currentPortName = currentPortName.advance();
-            currentRow = nextCoordinates.fst;
-            currentCol = nextCoordinates.snd;
-            if (this.grid[currentRow][currentCol] != null) {
-                currentTile = this.grid[currentRow][currentCol];
-            } else if (currentRow == row && currentCol == col) {
-              currentTile = tile;
-            }
+        // The Avatar being moved, if this is a physical move.
+        Avatar movingAvatar = null;
+        if (physicalMove) {
+            movingAvatar = this.getAvatarAt(row, col, portName);
+        }
 
-            if (physicalMove) {
-                curPort.removeAvatar();
-                Port nextPort = currentTile.getPort(curPort.getName().advance());
-                nextPort.addAvatar(curAvatar);
-            }
-            currentPortName = currentTile.trace(currentPortName, physicalMove);
-            if (physicalMove) {
-                curAvatar.updatePosition(currentRow, currentCol, currentPortName);
-            }
+        int packed = this.tracePacked(row, col, tile, portName, firstMove);
+        return this.moveAvatar(movingAvatar, row, col, portName, packed);
+    }
 
-            nextCoordinates = this.advancedCoordinates(currentRow, currentCol,
-                    currentPortName, row, col);
+    /**
+     * Moves the given Avatar, if any, from the given position to the given
+     * packed position.
+     *
+     * @param avatar   The Avatar to be moved, or null to only unpack the end.
+     * @param row      The row of the current position.
+     * @param col      The col coordinate of the current position.
+     * @param portName The port of the current position.
+     * @param packed   The end of the path, packed as by BitBoard.trace().
+     * @return A new Location, with x and y coordinates and a port name.
+     */
+    private Location moveAvatar(Avatar avatar, int row, int col, Port.PortName portName, int packed) {
+        int endRow = this.bitBoard.packedRow(packed);
+        int endCol = this.bitBoard.packedCol(packed);
+        Port.PortName endPortName = Port.PortName.fromIndex(BitBoard.packedPort(packed));
+
+        // Move the Avatar from where it started to where its path ends.
+        if (avatar != null) {
+            this.occupancy[this.occupancyIndex(row, col, portName)] = null;
+            this.occupancy[this.occupancyIndex(endRow, endCol, endPortName)] = avatar;
+            int color = avatar.getColor().ordinal();
+            this.zobristKey ^= Zobrist.avatarKey(this.portIndex(row, col, portName), color)
+                    ^ Zobrist.avatarKey(packed, color);
+            avatar.updatePosition(endRow, endCol, endPortName);
         }
 
         // Construct coordinates and return with final Port.PortName.
-        return new Location(currentRow, currentCol, currentPortName);
+        return new Location(endRow, endCol, endPortName);
+    }
+
+    /**
+     * From initial given starting position, trace the path as far as possible
+     * without moving any Avatars or creating any objects. Results are cached
+     * until a tile is placed that could change them.
+     *
+     * @param row       The row of the current position.
+     * @param col       The col coordinate of the current position.
+     * @param tile      The tile either to be placed at this location, or the tile
+     *                  already there.
+     * @param portName  The port of the current position.
+     * @param firstMove If true, the current position should be treated as an
+     *                  entry point to the current tile rather than an exit.
+     * @return The end of the path, packed as by BitBoard.trace().
+     */
+    public int tracePacked(int row, int col, Tiles tile, Port.PortName portName,
+                           boolean firstMove) {
+        // Rotations that look the same share a cache entry.
+        return this.getTraceCache().trace(row, col, tile.getCanonicalCode(), portName.ordinal(), firstMove);
     }
     
     /**
      * From the starting position of the given Avatar, trace its path as far as
-     * possible and return the new position.
+     * possible and return the new position. An Avatar that started on the edge
+     * and has only been moved by this method is moved straight to the end of
+     * its segment without walking the path.
      *
      * @param avatar    The Avatar to be queried.
      * @param firstMove If true, the current position should be treated as an
@@ -286,46 +544,162 @@ public class Board {
         int yy = avatar.getPos().y;
         Tiles tileAtLocation = this.grid[xx][yy];
         Port.PortName currentPort = avatar.getCurrentPort();
+
+        int color = avatar.getColor().ordinal();
+        int origin = this.avatarOrigins[color];
+        int current = (this.bitBoard.slotIndex(xx, yy) << 3) | currentPort.ordinal();
+        if (origin >= 0 && current == (firstMove ? origin : this.avatarFronts[color])
+                && this.getAvatarAt(xx, yy, currentPort) == avatar) {
+            int end = this.getPathIndex().otherEnd(origin);
+            this.avatarFronts[color] = end;
+            return this.moveAvatar(avatar, xx, yy, currentPort, end);
+        }
+        this.avatarFronts[color] = -1;
         return this.tracePath(xx, yy, tileAtLocation, currentPort, firstMove, true);
     }
 
     /**
-     * Gives pair of coordinates referring to where a player at the given location
-     * would advance to.
-     * Assumes that the location is the exit point of the tile for the
-     * hypothetical player.
+     * Gives the number of path traces asked of this Board, by the Referee and
+     * by any Players sharing it, including those answered from the cache.
      *
-     * @param row          The row of the current location.
-     * @param col          The column current location.
-     * @param currentPort The current Port acting as an exit from this location.
-     * @return A pair containing the coordinates of where the advancing would
-     * lead, or null if the current Port points towards an empty spot.
-     * @throws IllegalArgumentException If currentPort is not a valid
-     *                                  Port.PortName.
+     * @return The number of traces so far.
      */
-    private Pair<Integer, Integer> advancedCoordinates(int row, int col,
-                                                       Port.PortName currentPort,
-                                                       int placingRow,
-                                                       int placingColumn)
-            throws IllegalArgumentException {
-        Point advancedPosition = this.advancePosition(new Point(col, row), currentPort);
+    public long getTraceCount() {
+        return this.traceCache == null ? 0 : this.traceCache.getLookups();
+    }
 
-        /*
-            If a tile exists at the new position, return its position.
-            Otherwise, return null.
-         */
-        if (advancedPosition == null) {
-            return null;
-        } else {
-            if (this.getTileAt(advancedPosition.y, advancedPosition.x) == null) {
-                if (advancedPosition.y != placingRow || advancedPosition.x != placingColumn) {
-                    return null;
+    /**
+     * Gives the number of tiles walked onto while tracing paths on this
+     * Board. Traces answered from the cache or skipped by following an
+     * Avatar's path take no steps.
+     *
+     * @return The number of trace steps so far.
+     */
+    public long getTraceSteps() {
+        return this.bitBoard.getTraceSteps();
+    }
+
+    /**
+     * Gets the cache of traces over this Board, which is not sent along with
+     * the Board either. It is only built once a path is traced, so Boards
+     * that are never traced over, such as copies and Boards read back from
+     * JSON, do without it; until then there is nothing in it to invalidate.
+     *
+     * @return The trace cache of this Board.
+     */
+    private TraceCache getTraceCache() {
+        if (this.traceCache == null) {
+            this.traceCache = new TraceCache(this.bitBoard);
+        }
+        return this.traceCache;
+    }
+
+    /**
+     * Gets the bitmask of slots on the Perimeter where an initial placement
+     * may still go. It is not sent along with the Board either, so it is
+     * rebuilt from the placed tiles if missing.
+     *
+     * @return The bitmask, with bit n set if slot n of the Perimeter is free.
+     */
+    private long[] getStartAvailability() {
+        if (this.startAvailability == null) {
+            Perimeter perimeter = this.getPerimeter();
+            this.startAvailability = new long[(perimeter.size() + 63) >>> 6];
+            for (int ii = 0; ii < perimeter.size(); ++ii) {
+                if (this.bitBoard.isIsolatedEmpty(perimeter.getRow(ii), perimeter.getCol(ii))) {
+                    this.startAvailability[ii >>> 6] |= 1L << ii;
                 }
             }
-            return new Pair<>(advancedPosition.y, advancedPosition.x);
         }
+        return this.startAvailability;
     }
-    
+
+    /**
+     * Brings the initial placement bitmask up to date after the given slot was
+     * filled or emptied, which only affects that slot and its neighbours.
+     *
+     * @param row    The row of the slot.
+     * @param column The column of the slot.
+     */
+    private void updateStartAvailability(int row, int column) {
+        if (this.startAvailability == null) {
+            return;
+        }
+        Perimeter perimeter = this.getPerimeter();
+        for (int ii = 0; ii < NEAR_ROWS.length; ++ii) {
+            int nearRow = row + NEAR_ROWS[ii];
+            int nearColumn = column + NEAR_COLUMNS[ii];
+            int index = perimeter.indexOf(nearRow, nearColumn);
+            if (index < 0) {
+                continue;
+            }
+            if (this.bitBoard.isIsolatedEmpty(nearRow, nearColumn)) {
+                this.startAvailability[index >>> 6] |= 1L << index;
+            } else {
+                this.startAvailability[index >>> 6] &= ~(1L << index);
+            }
+        }
+    }
+
+    /**
+     * Gets the log of moves made with applyMove(), which is not sent along
+     * with the Board either.
+     *
+     * @return The undo log of this Board.
+     */
+    private UndoLog getUndoLog() {
+        if (this.undoLog == null) {
+            this.undoLog = new UndoLog();
+        }
+        return this.undoLog;
+    }
+
+    /**
+     * Gets the Avatars on this Board indexed by the ordinal of their color.
+     * This is not sent along with the Board, so it is rebuilt from the occupied
+     * ports if missing.
+     *
+     * @return The Avatar of each color, or null for colors not on the Board.
+     */
+    private Avatar[] getAvatarsByColor() {
+        if (this.avatarsByColor == null) {
+            this.avatarsByColor = new Avatar[Avatar.AvatarColor.values().length];
+            for (Avatar avatar : this.occupancy) {
+                if (avatar != null) {
+                    this.avatarsByColor[avatar.getColor().ordinal()] = avatar;
+                }
+            }
+        }
+        return this.avatarsByColor;
+    }
+
+    /**
+     * Gets the index of path segments on this Board. The index is not sent
+     * along with the Board, and Gson makes a received Board with the
+     * no-argument constructor whatever its size, so the index is only ever
+     * built here, from the placed tiles.
+     *
+     * @return The path segment index of this Board.
+     */
+    private PathIndex getPathIndex() {
+        if (this.pathIndex == null) {
+            // Tiles are indexed one by one, so each only sees those before it.
+            BitBoard placed = new BitBoard(this.getHeight(), this.getWidth());
+            this.pathIndex = new PathIndex(placed);
+            for (int row = 0; row < this.getHeight(); ++row) {
+                for (int col = 0; col < this.getWidth(); ++col) {
+                    Tiles tile = this.grid[row][col];
+                    if (tile != null) {
+                        int code = tile.getCanonicalCode();
+                        placed.set(row, col, code >>> 2, code & 3);
+                        this.pathIndex.place(placed, placed.slotIndex(row, col), code);
+                    }
+                }
+            }
+        }
+        return this.pathIndex;
+    }
+
     /**
      * Gets the coordinates of the position adjacent to the given location.
      *
@@ -386,7 +760,7 @@ public class Board {
             playerInfo.add(color);
             playerInfo.add(idxOfTile);
             playerInfo.add(curTile.getRotation());
-            playerInfo.add(portMap.get(curTile.getAvatarPort(avatar)));
+            playerInfo.add(portMap.get(this.getAvatarPort(avatarPos.x, avatarPos.y, avatar)));
             playerInfo.add(avatarPos.x);
             playerInfo.add(avatarPos.y);
 
@@ -408,10 +782,176 @@ public class Board {
      * @param currentPlayer The player who is making this placement.
      */
     private void placeAvatar(int row, int column, Port.PortName portName, Avatar currentPlayer) {
-        this.grid[row][column].placeAvatar(portName, currentPlayer);
+        this.occupancy[this.occupancyIndex(row, column, portName)] = currentPlayer;
+        this.getAvatarsByColor()[currentPlayer.getColor().ordinal()] = currentPlayer;
+        this.zobristKey ^= Zobrist.avatarKey(this.portIndex(row, column, portName),
+                currentPlayer.getColor().ordinal());
         currentPlayer.updatePosition(row, column, portName);
     }
+
+    /**
+     * Stands the given Avatar on the given port without tracing its path,
+     * taking it off wherever an Avatar of its color stood before. Meant for
+     * rebuilding a Board from a description of it, such as one sent over the
+     * network.
+     *
+     * @param row      The row of the slot.
+     * @param column   The column of the slot.
+     * @param portName The port on the slot.
+     * @param avatar   The Avatar to be stood there.
+     */
+    public void putAvatar(int row, int column, Port.PortName portName, Avatar avatar) {
+        int color = avatar.getColor().ordinal();
+        Avatar previous = this.getAvatarsByColor()[color];
+        if (previous != null && previous.getCurrentPort() != null) {
+            int row0 = previous.getPos().x;
+            int column0 = previous.getPos().y;
+            Port.PortName port0 = previous.getCurrentPort();
+            int index = this.occupancyIndex(row0, column0, port0);
+            if (this.occupancy[index] == previous) {
+                this.occupancy[index] = null;
+                this.zobristKey ^= Zobrist.avatarKey(this.portIndex(row0, column0, port0), color);
+            }
+        }
+        // The Avatar has not been traced here, so its segment is not known.
+        this.avatarOrigins[color] = -1;
+        this.avatarFronts[color] = -1;
+        this.placeAvatar(row, column, portName, avatar);
+    }
+
+    /**
+     * Gives the Avatar standing on the given port of the given slot.
+     *
+     * @param row      The row of the slot being queried.
+     * @param column   The column of the slot being queried.
+     * @param portName The port being queried.
+     * @return The Avatar on that port, or null if there is none.
+     */
+    public Avatar getAvatarAt(int row, int column, Port.PortName portName) {
+        return this.occupancy[this.occupancyIndex(row, column, portName)];
+    }
+
+    /**
+     * Gives the Avatars standing on each port of the given slot.
+     *
+     * @param row    The row of the slot being queried.
+     * @param column The column of the slot being queried.
+     * @return The Avatar on each port, indexed by Port.PortName ordinal, with
+     * null for unoccupied ports.
+     */
+    public Avatar[] getAvatarsAt(int row, int column) {
+        Avatar[] avatars = new Avatar[8];
+        System.arraycopy(this.occupancy, this.occupancyIndex(row, column, Port.PortName.N1),
+                avatars, 0, 8);
+        return avatars;
+    }
+
+    /**
+     * Gives the port of the given slot on which the given Avatar stands.
+     *
+     * @param row    The row of the slot being queried.
+     * @param column The column of the slot being queried.
+     * @param avatar The Avatar being looked for.
+     * @return The name of the port the Avatar stands on.
+     * @throws IllegalArgumentException If the Avatar is not on any of the slot's
+     *                                  ports.
+     */
+    public Port.PortName getAvatarPort(int row, int column, Avatar avatar) {
+        int base = this.occupancyIndex(row, column, Port.PortName.N1);
+        for (int ii = 0; ii < 8; ++ii) {
+            Avatar occupant = this.occupancy[base + ii];
+            if (occupant != null && occupant.getColor() == avatar.getColor()) {
+                return Port.PortName.fromIndex(ii);
+            }
+        }
+        throw new IllegalArgumentException("Given avatar was not found on any of the tile's ports");
+    }
+
+    /**
+     * Gives the index into the occupancy array of the given port of the given
+     * slot.
+     *
+     * @param row      The row of the slot.
+     * @param column   The column of the slot.
+     * @param portName The port on the slot.
+     * @return The index of that port in the occupancy array.
+     */
+    private int occupancyIndex(int row, int column, Port.PortName portName) {
+        return ((row * this.getWidth() + column) << 3) | portName.ordinal();
+    }
     
+    /**
+     * Gives the given port of the given slot packed as (slot << 3) | port, with
+     * the slot indexed as by the BitBoard.
+     *
+     * @param row      The row of the slot.
+     * @param column   The column of the slot.
+     * @param portName The port on the slot.
+     * @return The packed port.
+     */
+    private int portIndex(int row, int column, Port.PortName portName) {
+        return (this.bitBoard.slotIndex(row, column) << 3) | portName.ordinal();
+    }
+
+    /**
+     * Gets the Zobrist key of the position on this Board, which is kept up to
+     * date as tiles are placed and Avatars move. Equal positions have equal
+     * keys, and unequal positions almost never do.
+     *
+     * @return The Zobrist key of this Board's position.
+     */
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    /**
+     * Checks if the given Board holds the same position as this one: the same
+     * tiles, up to rotations that look the same, and Avatars of the same colors
+     * on the same ports. Boards with different keys are told apart without
+     * looking at their slots.
+     *
+     * @param other The Board to be compared with.
+     * @return True if both Boards hold the same position.
+     */
+    public boolean samePosition(Board other) {
+        if (this.zobristKey != other.zobristKey
+                || this.getHeight() != other.getHeight()
+                || this.getWidth() != other.getWidth()
+                || !this.bitBoard.sameTiles(other.bitBoard)) {
+            return false;
+        }
+        for (int ii = 0; ii < this.occupancy.length; ++ii) {
+            Avatar mine = this.occupancy[ii];
+            Avatar theirs = other.occupancy[ii];
+            if (mine == null ? theirs != null
+                    : theirs == null || mine.getColor() != theirs.getColor()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gives how many copies of each tile are left to be dealt in the game on
+     * this Board, as its Referee tells.
+     *
+     * @return The number of copies left, indexed by the tile's position in
+     * all35Tiles(), or null if this Board has no Referee, as when it was sent
+     * over the network, or its Referee has nothing left to deal.
+     */
+    public int[] getRemainingTiles() {
+        if (this.ref == null) {
+            return null;
+        }
+        int[] remaining = this.ref.getRemainingTiles();
+        for (int count : remaining) {
+            if (count > 0) {
+                return remaining;
+            }
+        }
+        return null;
+    }
+
     /**
      * Gets the Referee of this Board.
      *
@@ -0,0 +1,394 @@
+import java.util.Arrays;
+
+/**
+ * An immutable view of the position on a Board, for trying out placements
+ * without touching the Board itself. Tiles are held as canonical tile codes
+ * row by row, and a snapshot made by withPlacement() shares every row but the
+ * one it placed into with the snapshot it was made from. So each hypothetical
+ * placement copies one row and the small array of Avatar positions, and no
+ * Tiles or Ports are created.
+ * <p>
+ * Slots, ports and Avatar positions are indexed as by the BitBoard of a Board
+ * of the same dimensions, so Zobrist keys of snapshots and Boards can be
+ * compared.
+ */
+public class BoardSnapshot {
+    private static final int NO_POSITION = -1;
+
+    private short[][] rows;
+    private int stride;
+    private int[] avatarPorts;
+    private int exited;
+    private long zobristKey;
+
+    /**
+     * Constructs a snapshot from its parts, which are shared with other
+     * snapshots and so are never changed afterwards.
+     *
+     * @param rows        The tile codes plus one of every slot, by row, with
+     *                    zero for empty slots.
+     * @param avatarPorts The packed port of the Avatar of each color, or
+     *                    NO_POSITION if it is not on the board.
+     * @param exited      The colors of Avatars that have left the board, as a
+     *                    bitmask of color ordinals.
+     * @param zobristKey  The Zobrist key of the position.
+     */
+    private BoardSnapshot(short[][] rows, int[] avatarPorts, int exited,
+                          long zobristKey) {
+        this.rows = rows;
+        this.stride = rows[0].length + 2;
+        this.avatarPorts = avatarPorts;
+        this.exited = exited;
+        this.zobristKey = zobristKey;
+    }
+
+    /**
+     * Takes a snapshot of the position on the given Board.
+     *
+     * @param board The Board to be copied.
+     * @return A snapshot of the Board's tiles and Avatars.
+     */
+    public static BoardSnapshot of(Board board) {
+        BitBoard bitBoard = board.getBitBoard();
+        short[][] rows = new short[board.getHeight()][board.getWidth()];
+        for (int row = 0; row < rows.length; ++row) {
+            for (int col = 0; col < rows[row].length; ++col) {
+                if (!bitBoard.isEmpty(row, col)) {
+                    rows[row][col] = (short) (bitBoard.getTileCode(row, col) + 1);
+                }
+            }
+        }
+
+        int[] avatarPorts = new int[Avatar.AvatarColor.values().length];
+        Arrays.fill(avatarPorts, NO_POSITION);
+        int exited = 0;
+        for (int row = 0; row < rows.length; ++row) {
+            for (int col = 0; col < rows[row].length; ++col) {
+                Avatar[] avatars = board.getAvatarsAt(row, col);
+                for (int port = 0; port < avatars.length; ++port) {
+                    if (avatars[port] == null) {
+                        continue;
+                    }
+                    int color = avatars[port].getColor().ordinal();
+                    avatarPorts[color] = (bitBoard.slotIndex(row, col) << 3) | port;
+                    if (avatars[port].hasExited()) {
+                        exited |= 1 << color;
+                    }
+                }
+            }
+        }
+        return new BoardSnapshot(rows, avatarPorts, exited, board.getZobristKey());
+    }
+
+    /**
+     * Gives a snapshot of the position after the given tile is placed in the
+     * given empty slot, and every Avatar facing that slot has followed its
+     * path to the end. Avatars that end facing the edge of the board leave it.
+     * This snapshot is left as it is.
+     *
+     * @param row  The first coordinate of the slot.
+     * @param col  The second coordinate of the slot.
+     * @param tile The tile to be placed, in the rotation it is placed in.
+     * @return The snapshot after the placement.
+     */
+    public BoardSnapshot withPlacement(int row, int col, Tiles tile) {
+        return this.withPlacement(row, col, tile.getCanonicalCode());
+    }
+
+    /**
+     * Gives a snapshot of the position after the tile with the given code is
+     * placed in the given empty slot, as withPlacement() does for Tiles.
+     *
+     * @param row      The first coordinate of the slot.
+     * @param col      The second coordinate of the slot.
+     * @param tileCode The code of the tile and its rotation.
+     * @return The snapshot after the placement.
+     */
+    public BoardSnapshot withPlacement(int row, int col, int tileCode) {
+        int code = Tiles.canonicalCode(tileCode);
+        short[][] rows = this.rows.clone();
+        rows[row] = rows[row].clone();
+        rows[row][col] = (short) (code + 1);
+        int slot = this.slotIndex(row, col);
+        long key = this.zobristKey ^ Zobrist.tileKey(slot, code);
+
+        // Only Avatars facing the new tile can move.
+        int[] avatarPorts = this.avatarPorts.clone();
+        int exited = this.exited;
+        for (int color = 0; color < avatarPorts.length; ++color) {
+            int from = avatarPorts[color];
+            if (from == NO_POSITION || (exited & (1 << color)) != 0
+                    || this.neighbourSlot(from >>> 3, from & 7) != slot) {
+                continue;
+            }
+            int to = trace(rows, this.stride, from);
+            avatarPorts[color] = to;
+            key ^= Zobrist.avatarKey(from, color) ^ Zobrist.avatarKey(to, color);
+            if (this.isOffBoard(this.neighbourSlot(to >>> 3, to & 7))) {
+                exited |= 1 << color;
+            }
+        }
+        return new BoardSnapshot(rows, avatarPorts, exited, key);
+    }
+
+    /**
+     * Traces the path that leaves through the given port as far as placed
+     * tiles allow.
+     *
+     * @param from The port being left, packed as (slot << 3) | port.
+     * @return The end of the path, packed the same way.
+     */
+    public int trace(int from) {
+        return trace(this.rows, this.stride, from);
+    }
+
+    /**
+     * Gives the code of the tile in the given slot.
+     *
+     * @param row The first coordinate of the slot.
+     * @param col The second coordinate of the slot.
+     * @return The canonical code of the tile, or -1 if the slot is empty.
+     */
+    public int getTileCode(int row, int col) {
+        return this.rows[row][col] - 1;
+    }
+
+    /**
+     * Gives the tile in the given slot.
+     *
+     * @param row The first coordinate of the slot.
+     * @param col The second coordinate of the slot.
+     * @return The shared Tiles for the tile in the slot, or null if it is
+     * empty.
+     */
+    public Tiles getTileAt(int row, int col) {
+        int code = this.getTileCode(row, col);
+        return code < 0 ? null : Tiles.variant(code >>> 2, code & 3);
+    }
+
+    /**
+     * Checks if the given slot is on the board and empty.
+     *
+     * @param row The first coordinate of the slot.
+     * @param col The second coordinate of the slot.
+     * @return True if a tile could be placed there.
+     */
+    public boolean isEmpty(int row, int col) {
+        return row >= 0 && row < this.getHeight() && col >= 0 && col < this.getWidth()
+                && this.rows[row][col] == 0;
+    }
+
+    /**
+     * Gives the port the Avatar of the given color stands on.
+     *
+     * @param color The Avatar's color.
+     * @return The port packed as (slot << 3) | port, or -1 if the Avatar is not
+     * on the board.
+     */
+    public int getAvatarPort(Avatar.AvatarColor color) {
+        return this.avatarPorts[color.ordinal()];
+    }
+
+    /**
+     * Gives the port through which the path of the Avatar of the given color
+     * enters the slot it faces, which is where its next tile goes.
+     *
+     * @param color The Avatar's color.
+     * @return The port packed as (slot << 3) | port, or -1 if the Avatar is
+     * not playing or does not face an empty slot on the board.
+     */
+    public int getEntryPort(Avatar.AvatarColor color) {
+        if (!this.isAlive(color)) {
+            return NO_POSITION;
+        }
+        int from = this.avatarPorts[color.ordinal()];
+        int slot = this.neighbourSlot(from >>> 3, from & 7);
+        if (this.isOffBoard(slot) || codeAt(this.rows, this.stride, slot) >= 0) {
+            return NO_POSITION;
+        }
+        return (slot << 3) | Port.PortName.advanceIndex(from & 7);
+    }
+
+    /**
+     * Tells if the Avatar of the given color is still playing on this board.
+     *
+     * @param color The Avatar's color.
+     * @return True if the Avatar is on the board and has not left it.
+     */
+    public boolean isAlive(Avatar.AvatarColor color) {
+        return this.avatarPorts[color.ordinal()] != NO_POSITION
+                && (this.exited & (1 << color.ordinal())) == 0;
+    }
+
+    /**
+     * Gives the first coordinate of the slot of a packed port.
+     *
+     * @param packed The packed port.
+     * @return The first coordinate of its slot.
+     */
+    public int packedRow(int packed) {
+        return (packed >>> 3) / this.stride - 1;
+    }
+
+    /**
+     * Gives the second coordinate of the slot of a packed port.
+     *
+     * @param packed The packed port.
+     * @return The second coordinate of its slot.
+     */
+    public int packedCol(int packed) {
+        return (packed >>> 3) % this.stride - 1;
+    }
+
+    /**
+     * Estimates how many copies of each tile are left to be drawn: the stack
+     * holds about as many tiles as the board has slots, spread evenly over the
+     * distinct tiles, less those already on the board. If every tile seems
+     * used up, then each is given one copy, so draws are equally likely.
+     *
+     * @return The estimated number of copies left, indexed by tile id.
+     */
+    public int[] likelyRemainingTiles() {
+        int slots = this.getHeight() * this.getWidth();
+        int copies = (slots + Tiles.NUM_TILES - 1) / Tiles.NUM_TILES;
+        int[] remaining = new int[Tiles.NUM_TILES];
+        Arrays.fill(remaining, copies);
+        int total = copies * Tiles.NUM_TILES;
+        for (short[] row : this.rows) {
+            for (short cell : row) {
+                if (cell != 0 && remaining[(cell - 1) >>> 2] > 0) {
+                    --remaining[(cell - 1) >>> 2];
+                    --total;
+                }
+            }
+        }
+        if (total == 0) {
+            Arrays.fill(remaining, 1);
+        }
+        return remaining;
+    }
+
+    /**
+     * Gets the Zobrist key of this position, as Board.getZobristKey() does.
+     *
+     * @return The Zobrist key of this position.
+     */
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    /**
+     * Gets the height of this snapshot.
+     *
+     * @return The height of the board.
+     */
+    public int getHeight() {
+        return this.rows.length;
+    }
+
+    /**
+     * Gets the width of this snapshot.
+     *
+     * @return The width of the board.
+     */
+    public int getWidth() {
+        return this.rows[0].length;
+    }
+
+    /**
+     * Traces the path that leaves through the given port over the given rows.
+     *
+     * @param rows   The tile codes plus one of every slot, by row.
+     * @param stride The width of the board plus two.
+     * @param from   The port being left, packed as (slot << 3) | port.
+     * @return The end of the path, packed the same way.
+     */
+    private static int trace(short[][] rows, int stride, int from) {
+        int slot = from >>> 3;
+        int port = from & 7;
+        int next = neighbourSlot(stride, slot, port);
+        int code = codeAt(rows, stride, next);
+        while (code >= 0) {
+            slot = next;
+            port = Tiles.traceCode(code, Port.PortName.advanceIndex(port));
+            next = neighbourSlot(stride, slot, port);
+            code = codeAt(rows, stride, next);
+        }
+        return (slot << 3) | port;
+    }
+
+    /**
+     * Gives the code of the tile in the slot with the given padded index.
+     *
+     * @param rows   The tile codes plus one of every slot, by row.
+     * @param stride The width of the board plus two.
+     * @param slot   The padded index of the slot.
+     * @return The code of the tile, or -1 if the slot is empty or off the
+     * board.
+     */
+    private static int codeAt(short[][] rows, int stride, int slot) {
+        int row = slot / stride - 1;
+        int col = slot % stride - 1;
+        if (row < 0 || row >= rows.length || col < 0 || col >= rows[0].length) {
+            return -1;
+        }
+        return rows[row][col] - 1;
+    }
+
+    /**
+     * Checks if the slot with the given padded index is off the board.
+     *
+     * @param slot The padded index of the slot.
+     * @return True if the slot is part of the border around the board.
+     */
+    private boolean isOffBoard(int slot) {
+        int row = slot / this.stride - 1;
+        int col = slot % this.stride - 1;
+        return row < 0 || row >= this.getHeight() || col < 0 || col >= this.getWidth();
+    }
+
+    /**
+     * Gives the slot that the given port of the given slot leads to.
+     *
+     * @param slot The padded index of the slot.
+     * @param port The ordinal of the port.
+     * @return The padded index of the neighbouring slot.
+     */
+    private int neighbourSlot(int slot, int port) {
+        return neighbourSlot(this.stride, slot, port);
+    }
+
+    /**
+     * Gives the slot that the given port of the given slot leads to. North and
+     * South ports lead along the second coordinate, East and West ports along
+     * the first, as on a BitBoard.
+     *
+     * @param stride The width of the board plus two.
+     * @param slot   The padded index of the slot.
+     * @param port   The ordinal of the port.
+     * @return The padded index of the neighbouring slot.
+     */
+    private static int neighbourSlot(int stride, int slot, int port) {
+        switch (port >>> 1) {
+            case 0:
+                return slot + 1;
+            case 1:
+                return slot + stride;
+            case 2:
+                return slot - 1;
+            default:
+                return slot - stride;
+        }
+    }
+
+    /**
+     * Gives the padded index of the given slot.
+     *
+     * @param row The first coordinate of the slot.
+     * @param col The second coordinate of the slot.
+     * @return The padded index of the slot.
+     */
+    private int slotIndex(int row, int col) {
+        return (row + 1) * this.stride + col + 1;
+    }
+}
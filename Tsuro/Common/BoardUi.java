@@ -49,7 +49,8 @@ public class BoardUi extends JComponent {
 
                 Tiles tile = board.getGrid()[col][9 - row];
                 if (tile != null)
-                    tile.drawTile((Graphics2D) g.create(left, top, w, w), new Dimension(w, w));
+                    tile.drawTile((Graphics2D) g.create(left, top, w, w), new Dimension(w, w),
+                            board.getAvatarsAt(col, 9 - row));
             }
         }
     }
@@ -40,35 +40,21 @@ public class DumbStrategy implements Strategy {
         this.width = board.getWidth();
     }
 
+    @Override
+    public void updateHand(Avatar avatar, ArrayList<Tiles> hand) {
+    }
+
     /**
      * @return the position to be chosen
      */
     @Override
     public Point chooseInitPosition() {
-        for (int ii = 0; ii < this.height; ii++) {
-            if (Rules.validCoordinates(this.board, 0, ii)) {
-                return new Point(0, ii);
-            }
+        int index = this.board.firstAvailableStart();
+        if (index >= 0) {
+            Perimeter perimeter = this.board.getPerimeter();
+            return new Point(perimeter.getRow(index), perimeter.getCol(index));
         }
-        
-        for (int jj = 1; jj < this.width - 1; jj++) {
-            if (Rules.validCoordinates(this.board, jj, this.height - 1)) {
-                return new Point(jj, this.height - 1);
-            }
-        }
-        
-        for (int ii = this.height - 2; ii >= 0; ii--) {
-            if (Rules.validCoordinates(this.board, this.width - 1, ii)) {
-                return new Point(this.width - 1, ii);
-            }
-        }
-        
-        for (int jj = this.width - 2; jj > 0; jj--) {
-            if (Rules.validCoordinates(this.board, jj, 0)) {
-                return new Point(jj, 0);
-            }
-        }
-        
+
         throw new IllegalStateException("There are no more empty spots in the board.");
     }
 
@@ -136,7 +122,7 @@ public class DumbStrategy implements Strategy {
     private ArrayList<Port.PortName> possibleEndPorts(Tiles tile, ArrayList<Port.PortName> possibleStarts) {
         ArrayList<Port.PortName> possibleEnds = new ArrayList<>();
         for (Port.PortName possibleStart : possibleStarts) {
-            possibleEnds.add(tile.trace(possibleStart, false));
+            possibleEnds.add(tile.trace(possibleStart));
         }
         return possibleEnds;
     }
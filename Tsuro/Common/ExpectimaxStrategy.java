@@ -0,0 +1,348 @@
+import java.awt.*;
+import java.util.ArrayList;
+
+/**
+ * A strategy that looks ahead over its own placements and the tiles the other
+ * players may draw. Its own turns take the best placement, and each other
+ * player's turn averages over the tiles left in the stack, assuming the player
+ * rotates what it draws to stay on the board, or failing that to hurt this
+ * player the most. Draws are weighed by the tiles the Referee has left to
+ * deal, when it can tell. The search deepens one turn at a time until the time
+ * budget for the move runs out, and plays the best move of the deepest search
+ * that finished.
+ * <p>
+ * Lookahead works on BoardSnapshots, so the Board itself is never changed.
+ * Values found for a position are kept in a TranspositionTable, so each
+ * deeper search reuses what the shallower ones found, and positions reached
+ * by placing into two slots in either order are only searched once.
+ * The initial placement is left to a DumbStrategy.
+ */
+public class ExpectimaxStrategy implements Strategy {
+    /**
+     * The time, in milliseconds, given to each move if no other is chosen.
+     */
+    public static final long DEFAULT_BUDGET_MILLIS = 100;
+    /**
+     * The number of positions remembered between searches of one move, at
+     * 16 bytes each.
+     */
+    public static final int TABLE_ENTRIES = 1 << 15;
+
+    private static final double WIN = 1.0;
+    private static final double LOSS = -1.0;
+    private static final Avatar.AvatarColor[] COLORS = Avatar.AvatarColor.values();
+
+    private DumbStrategy opening;
+    private Board board;
+    private Avatar avatar;
+    private ArrayList<Tiles> hand;
+    private long budgetNanos;
+    private int rotation;
+    private TranspositionTable table;
+
+    // State of the search in progress.
+    private Avatar.AvatarColor me;
+    private int[] tileWeights;
+    private int totalWeight;
+    private long deadline;
+    private boolean timedOut;
+    private boolean cutOff;
+
+    /**
+     * Constructs an ExpectimaxStrategy with the default time budget.
+     */
+    public ExpectimaxStrategy() {
+        this(DEFAULT_BUDGET_MILLIS);
+    }
+
+    /**
+     * Constructs an ExpectimaxStrategy with the given time budget.
+     *
+     * @param budgetMillis The time, in milliseconds, to search for each move.
+     */
+    public ExpectimaxStrategy(long budgetMillis) {
+        this.opening = new DumbStrategy();
+        this.hand = new ArrayList<>();
+        this.budgetNanos = budgetMillis * 1000000L;
+        this.table = new TranspositionTable(TABLE_ENTRIES);
+    }
+
+    /**
+     * @return index of the initial tile the player should choose
+     */
+    @Override
+    public int chooseInitialTile() {
+        this.rotation = 0;
+        return this.opening.chooseInitialTile();
+    }
+
+    /**
+     * Searches for the best placement of the hand, and remembers its rotation
+     * for chooseRotation().
+     *
+     * @return index of the intermediate tile the player should choose
+     */
+    @Override
+    public int chooseIntermediateTile() {
+        this.rotation = 0;
+        MoveList moves = Rules.legalMoves(this.board, this.avatar, this.hand);
+        if (moves.size() == 0) {
+            return 0;
+        }
+        int best = moves.size() == 1 ? 0 : this.search(moves);
+        this.rotation = moves.getRotation(best);
+        return moves.getHandIndex(best);
+    }
+
+    @Override
+    public void updateBoard(Board board) {
+        this.board = board;
+        this.opening.updateBoard(board);
+    }
+
+    @Override
+    public void updateHand(Avatar avatar, ArrayList<Tiles> hand) {
+        this.avatar = avatar;
+        this.hand = hand;
+    }
+
+    /**
+     * @return the position to be chosen
+     */
+    @Override
+    public Point chooseInitPosition() {
+        return this.opening.chooseInitPosition();
+    }
+
+    /**
+     * @param tile tile to choose the port from
+     * @param position position of the tile on the board
+     * @return name of the port to be chosen
+     */
+    @Override
+    public Port.PortName choosePort(Tiles tile, Point position) {
+        return this.opening.choosePort(tile, position);
+    }
+
+    /**
+     * @return the rotation to place the tile with
+     */
+    @Override
+    public int chooseRotation() {
+        return this.rotation;
+    }
+
+    /**
+     * Searches ever deeper until the time budget runs out, and gives the best
+     * of the given moves found by the deepest search that finished.
+     *
+     * @param moves The legal moves of this turn.
+     * @return The index of the best move.
+     */
+    private int search(MoveList moves) {
+        this.deadline = System.nanoTime() + this.budgetNanos;
+        this.timedOut = false;
+        this.me = this.avatar.getColor();
+        BoardSnapshot root = BoardSnapshot.of(this.board);
+        this.weighTiles(root);
+        // Stored values depend on the tile weights, which change every move.
+        this.table.clear();
+
+        int best = 0;
+        for (int depth = 1; ; ++depth) {
+            this.cutOff = false;
+            int bestThisDepth = 0;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int ii = 0; ii < moves.size(); ++ii) {
+                BoardSnapshot child = root.withPlacement(moves.getRow(), moves.getCol(),
+                        moves.getTileCode(ii));
+                double value = this.value(child, depth - 1, this.me.ordinal());
+                if (this.timedOut) {
+                    return best;
+                }
+                if (value > bestValue) {
+                    bestValue = value;
+                    bestThisDepth = ii;
+                }
+            }
+            best = bestThisDepth;
+            // Stop once the game ends within the searched depth everywhere.
+            if (!this.cutOff) {
+                return best;
+            }
+        }
+    }
+
+    /**
+     * Gives the expected value of the given position for this player, with the
+     * turn passing to the next player after the one who just moved.
+     *
+     * @param snapshot The position.
+     * @param depth    The number of turns left to search.
+     * @param moved    The ordinal of the color of the player who just moved.
+     * @return The expected value, from LOSS to WIN.
+     */
+    private double value(BoardSnapshot snapshot, int depth, int moved) {
+        if (!snapshot.isAlive(this.me)) {
+            return LOSS;
+        }
+        // Once every other player is out, this player has won.
+        if (this.nextAlive(snapshot, this.me.ordinal()) == this.me.ordinal()) {
+            return WIN;
+        }
+        int mover = this.nextAlive(snapshot, moved);
+        if (depth == 0) {
+            this.cutOff = true;
+            return this.evaluate(snapshot);
+        }
+        if (System.nanoTime() > this.deadline) {
+            this.timedOut = true;
+            return 0;
+        }
+
+        long key = snapshot.getZobristKey() ^ Zobrist.turnKey(mover);
+        long stored = this.table.probe(key);
+        if (stored != TranspositionTable.MISS && TranspositionTable.depth(stored) >= depth) {
+            if (TranspositionTable.depth(stored) < TranspositionTable.MAX_DEPTH) {
+                this.cutOff = true;
+            }
+            return TranspositionTable.value(stored);
+        }
+
+        boolean outerCutOff = this.cutOff;
+        this.cutOff = false;
+        double value = this.expand(snapshot, depth, mover);
+        if (!this.timedOut) {
+            // A value found without reaching the depth limit holds at any depth.
+            this.table.store(key, value, this.cutOff ? depth : TranspositionTable.MAX_DEPTH,
+                    TranspositionTable.EXACT);
+        }
+        this.cutOff |= outerCutOff;
+        return value;
+    }
+
+    /**
+     * Gives the expected value of the given position for this player by
+     * searching the placements of the player whose turn it is.
+     *
+     * @param snapshot The position.
+     * @param depth    The number of turns left to search, at least one.
+     * @param mover    The ordinal of the color of the player to move.
+     * @return The expected value, from LOSS to WIN.
+     */
+    private double expand(BoardSnapshot snapshot, int depth, int mover) {
+        Avatar.AvatarColor moverColor = COLORS[mover];
+        int entry = snapshot.getEntryPort(moverColor);
+        if (entry < 0) {
+            return this.value(snapshot, depth - 1, mover);
+        }
+        int row = snapshot.packedRow(entry);
+        int col = snapshot.packedCol(entry);
+
+        // Average over the tiles the mover may draw.
+        double total = 0;
+        for (int tileId = 0; tileId < Tiles.NUM_TILES; ++tileId) {
+            if (this.tileWeights[tileId] == 0) {
+                continue;
+            }
+            double bestValue = Double.NEGATIVE_INFINITY;
+            boolean bestSurvives = false;
+            for (int rotation = 0; rotation < Tiles.rotationPeriod(tileId); ++rotation) {
+                BoardSnapshot child = snapshot.withPlacement(row, col, (tileId << 2) | rotation);
+                double value = this.value(child, depth - 1, mover);
+                if (this.timedOut) {
+                    return 0;
+                }
+                if (mover == this.me.ordinal()) {
+                    bestValue = Math.max(bestValue, value);
+                    continue;
+                }
+                // Others stay alive if they can, and otherwise hurt this player.
+                boolean survives = child.isAlive(moverColor);
+                if (bestValue == Double.NEGATIVE_INFINITY || (survives && !bestSurvives)
+                        || (survives == bestSurvives && value < bestValue)) {
+                    bestValue = value;
+                    bestSurvives = survives;
+                }
+            }
+            total += bestValue * this.tileWeights[tileId];
+        }
+        return total / this.totalWeight;
+    }
+
+    /**
+     * Estimates the value of a position where both this player and others are
+     * still playing: better the fewer others remain, and worse if this player
+     * faces a slot on the edge of the board.
+     *
+     * @param snapshot The position.
+     * @return The estimated value, strictly between LOSS and WIN.
+     */
+    private double evaluate(BoardSnapshot snapshot) {
+        int others = 0;
+        int othersAlive = 0;
+        for (Avatar.AvatarColor color : COLORS) {
+            if (color != this.me && snapshot.getAvatarPort(color) >= 0) {
+                ++others;
+                if (snapshot.isAlive(color)) {
+                    ++othersAlive;
+                }
+            }
+        }
+        double value = 0.5 * (others - othersAlive) / Math.max(others, 1);
+
+        int entry = snapshot.getEntryPort(this.me);
+        if (entry >= 0) {
+            int row = snapshot.packedRow(entry);
+            int col = snapshot.packedCol(entry);
+            if (row == 0 || col == 0 || row == snapshot.getHeight() - 1
+                    || col == snapshot.getWidth() - 1) {
+                value -= 0.25;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Gives the next player after the given one whose Avatar is still playing,
+     * in order of color.
+     *
+     * @param snapshot The position.
+     * @param moved    The ordinal of the color of the player who just moved.
+     * @return The ordinal of the color of the next player, which is the given
+     * one if no other is playing.
+     */
+    private int nextAlive(BoardSnapshot snapshot, int moved) {
+        for (int ii = 1; ii < COLORS.length; ++ii) {
+            int next = (moved + ii) % COLORS.length;
+            if (snapshot.isAlive(COLORS[next])) {
+                return next;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Weighs each tile by how many copies of it are left to be dealt, as the
+     * Referee tells, or else as are likely left in the stack. The likely
+     * copies are also used if the Referee tells of none at all.
+     *
+     * @param snapshot The current position.
+     */
+    private void weighTiles(BoardSnapshot snapshot) {
+        this.tileWeights = this.board.getRemainingTiles();
+        this.totalWeight = 0;
+        if (this.tileWeights != null) {
+            for (int weight : this.tileWeights) {
+                this.totalWeight += weight;
+            }
+        }
+        // A Referee with nothing left to deal says nothing of what comes next.
+        if (this.totalWeight == 0) {
+            this.tileWeights = snapshot.likelyRemainingTiles();
+            for (int weight : this.tileWeights) {
+                this.totalWeight += weight;
+            }
+        }
+    }
+}
@@ -0,0 +1,502 @@
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A strategy that picks its placement by Monte Carlo tree search. Each playout
+ * walks down a tree of placements, choosing among tried ones by UCB1 and
+ * drawing the tiles of every turn but this player's first at random, then
+ * plays the game out by placing random tiles in random rotations until at most
+ * one player is left or this player is out. Tiles are drawn from those the
+ * Referee has left to deal, or failing that from those likely left in the
+ * stack. The player or players still on
+ * the board at the end share the win.
+ * <p>
+ * The search is root parallel: each worker of a ForkJoinPool grows its own
+ * tree, and the move tried most often over all trees is played. Playouts run
+ * on BoardSnapshots, so the Board itself is never changed. The search stops
+ * once the given number of playouts have been run or the time budget runs
+ * out, whichever comes first. The initial placement is left to a
+ * DumbStrategy.
+ */
+public class MctsStrategy implements Strategy {
+    /**
+     * The time, in milliseconds, given to each move if no other is chosen.
+     */
+    public static final long DEFAULT_BUDGET_MILLIS = 100;
+
+    private static final double EXPLORATION = 0.7;
+    private static final Avatar.AvatarColor[] COLORS = Avatar.AvatarColor.values();
+
+    private DumbStrategy opening;
+    private Board board;
+    private Avatar avatar;
+    private ArrayList<Tiles> hand;
+    private int playouts;
+    private long budgetNanos;
+    private ForkJoinPool pool;
+    private int rotation;
+
+    /**
+     * Constructs an MctsStrategy with the default time budget and no limit on
+     * the number of playouts, searching on the common ForkJoinPool.
+     */
+    public MctsStrategy() {
+        this(0, DEFAULT_BUDGET_MILLIS);
+    }
+
+    /**
+     * Constructs an MctsStrategy with the given limits, searching on the
+     * common ForkJoinPool.
+     *
+     * @param playouts     The number of playouts to run for each move, or zero
+     *                     for no limit.
+     * @param budgetMillis The time, in milliseconds, to search for each move,
+     *                     or zero for no limit.
+     */
+    public MctsStrategy(int playouts, long budgetMillis) {
+        this(playouts, budgetMillis, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs an MctsStrategy with the given limits, searching on the given
+     * ForkJoinPool with one tree per worker.
+     *
+     * @param playouts     The number of playouts to run for each move, or zero
+     *                     for no limit.
+     * @param budgetMillis The time, in milliseconds, to search for each move,
+     *                     or zero for no limit.
+     * @param pool         The pool to search on.
+     * @throws IllegalArgumentException If a limit is negative, or neither
+     *                                  limit is given.
+     */
+    public MctsStrategy(int playouts, long budgetMillis, ForkJoinPool pool)
+            throws IllegalArgumentException {
+        if (playouts < 0 || budgetMillis < 0 || (playouts == 0 && budgetMillis == 0)) {
+            throw new IllegalArgumentException("An MctsStrategy needs a playout count or a time limit.");
+        }
+        this.opening = new DumbStrategy();
+        this.hand = new ArrayList<>();
+        this.playouts = playouts;
+        this.budgetNanos = budgetMillis * 1000000L;
+        this.pool = pool;
+    }
+
+    /**
+     * @return index of the initial tile the player should choose
+     */
+    @Override
+    public int chooseInitialTile() {
+        this.rotation = 0;
+        return this.opening.chooseInitialTile();
+    }
+
+    /**
+     * Searches for the best placement of the hand, and remembers its rotation
+     * for chooseRotation().
+     *
+     * @return index of the intermediate tile the player should choose
+     */
+    @Override
+    public int chooseIntermediateTile() {
+        this.rotation = 0;
+        MoveList moves = Rules.legalMoves(this.board, this.avatar, this.hand);
+        if (moves.size() == 0) {
+            return 0;
+        }
+        int best = moves.size() == 1 ? 0 : this.search(moves);
+        this.rotation = moves.getRotation(best);
+        return moves.getHandIndex(best);
+    }
+
+    @Override
+    public void updateBoard(Board board) {
+        this.board = board;
+        this.opening.updateBoard(board);
+    }
+
+    @Override
+    public void updateHand(Avatar avatar, ArrayList<Tiles> hand) {
+        this.avatar = avatar;
+        this.hand = hand;
+    }
+
+    /**
+     * @return the position to be chosen
+     */
+    @Override
+    public Point chooseInitPosition() {
+        return this.opening.chooseInitPosition();
+    }
+
+    /**
+     * @param tile tile to choose the port from
+     * @param position position of the tile on the board
+     * @return name of the port to be chosen
+     */
+    @Override
+    public Port.PortName choosePort(Tiles tile, Point position) {
+        return this.opening.choosePort(tile, position);
+    }
+
+    /**
+     * @return the rotation to place the tile with
+     */
+    @Override
+    public int chooseRotation() {
+        return this.rotation;
+    }
+
+    /**
+     * Grows one search tree per worker of the pool until the limits are
+     * reached, and gives the move tried most often over all of them.
+     *
+     * @param moves The legal moves of this turn.
+     * @return The index of the best move.
+     */
+    private int search(MoveList moves) {
+        BoardSnapshot root = BoardSnapshot.of(this.board);
+        int[] leftToDeal = this.board.getRemainingTiles();
+        int[] deck = leftToDeal != null ? deal(leftToDeal) : new int[0];
+        // A Referee with nothing left to deal says nothing of what comes next.
+        if (deck.length == 0) {
+            deck = deal(root.likelyRemainingTiles());
+        }
+        long deadline = this.budgetNanos == 0 ? Long.MAX_VALUE
+                : System.nanoTime() + this.budgetNanos;
+        AtomicInteger remaining = new AtomicInteger(
+                this.playouts == 0 ? Integer.MAX_VALUE : this.playouts);
+        SplittableRandom random = new SplittableRandom();
+
+        List<Callable<Node>> searches = new ArrayList<>();
+        for (int ii = 0; ii < this.pool.getParallelism(); ++ii) {
+            SearchTree tree = new SearchTree(root, moves, this.avatar.getColor().ordinal(),
+                    deck, random.split());
+            searches.add(() -> tree.grow(remaining, deadline));
+        }
+
+        int[] visits = new int[moves.size()];
+        try {
+            for (Future<Node> result : this.pool.invokeAll(searches)) {
+                Node tried = result.get();
+                for (int ii = 0; ii < moves.size(); ++ii) {
+                    Node child = tried.find(moves.getTileCode(ii));
+                    if (child != null) {
+                        visits[ii] += child.visits;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The search for a move failed.", e.getCause());
+        }
+
+        int best = 0;
+        for (int ii = 1; ii < moves.size(); ++ii) {
+            if (visits[ii] > visits[best]) {
+                best = ii;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Lays out the tiles left to be drawn as an array with one entry per copy,
+     * so that a random draw is a single random index.
+     *
+     * @param remaining The number of copies left of each tile, by tile id.
+     * @return The ids of the tiles left, one per copy.
+     */
+    private static int[] deal(int[] remaining) {
+        int total = 0;
+        for (int count : remaining) {
+            total += count;
+        }
+        int[] deck = new int[total];
+        int next = 0;
+        for (int tileId = 0; tileId < remaining.length; ++tileId) {
+            for (int ii = 0; ii < remaining[tileId]; ++ii) {
+                deck[next++] = tileId;
+            }
+        }
+        return deck;
+    }
+
+    /**
+     * A node of a search tree: a placement, and the playouts that went
+     * through it. Rewards are counted for the player who made the placement.
+     */
+    private static class Node {
+        private int tileCode;
+        private int visits;
+        private double reward;
+        private Node[] children;
+        private int size;
+
+        /**
+         * Constructs an untried Node for the given placement.
+         *
+         * @param tileCode The canonical code of the placed tile and rotation.
+         */
+        private Node(int tileCode) {
+            this.tileCode = tileCode;
+            this.children = new Node[4];
+        }
+
+        /**
+         * Gives the child of this Node for the given placement.
+         *
+         * @param tileCode The canonical code of the placed tile and rotation.
+         * @return The child, or null if the placement has not been tried.
+         */
+        private Node find(int tileCode) {
+            for (int ii = 0; ii < this.size; ++ii) {
+                if (this.children[ii].tileCode == tileCode) {
+                    return this.children[ii];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Adds a child to this Node for the given placement.
+         *
+         * @param tileCode The canonical code of the placed tile and rotation.
+         * @return The new child.
+         */
+        private Node add(int tileCode) {
+            if (this.size == this.children.length) {
+                Node[] grown = new Node[this.children.length * 2];
+                System.arraycopy(this.children, 0, grown, 0, this.size);
+                this.children = grown;
+            }
+            Node child = new Node(tileCode);
+            this.children[this.size++] = child;
+            return child;
+        }
+    }
+
+    /**
+     * The search tree grown by one worker. Only that worker touches it, so it
+     * needs no locking; workers share only the count of playouts left.
+     */
+    private static class SearchTree {
+        private BoardSnapshot root;
+        private MoveList moves;
+        private int me;
+        private int[] deck;
+        private SplittableRandom random;
+        private Node top;
+        private int[] codes;
+        private ArrayList<Node> path;
+        private ArrayList<Integer> movers;
+
+        /**
+         * Constructs an empty SearchTree.
+         *
+         * @param root   The position to search from.
+         * @param moves  The legal moves of this player in that position.
+         * @param me     The ordinal of the color of this player.
+         * @param deck   The ids of the tiles left to be drawn, one per copy.
+         * @param random The source of randomness for this tree alone.
+         */
+        private SearchTree(BoardSnapshot root, MoveList moves, int me, int[] deck,
+                           SplittableRandom random) {
+            this.root = root;
+            this.moves = moves;
+            this.me = me;
+            this.deck = deck;
+            this.random = random;
+            this.top = new Node(-1);
+            this.codes = new int[Math.max(moves.size(), 4)];
+            this.path = new ArrayList<>();
+            this.movers = new ArrayList<>();
+        }
+
+        /**
+         * Runs playouts until none are left to run or the deadline passes.
+         *
+         * @param remaining The number of playouts left over all trees.
+         * @param deadline  The value of System.nanoTime() to stop at.
+         * @return The root of this tree.
+         */
+        private Node grow(AtomicInteger remaining, long deadline) {
+            while (remaining.getAndDecrement() > 0 && System.nanoTime() < deadline) {
+                this.playout();
+            }
+            return this.top;
+        }
+
+        /**
+         * Runs one playout: selects a path down the tree, adds one new Node,
+         * plays the game out at random, and credits the result to the path.
+         */
+        private void playout() {
+            this.path.clear();
+            this.movers.clear();
+            this.path.add(this.top);
+            this.movers.add(-1);
+            BoardSnapshot snapshot = this.root;
+            int mover = this.me;
+            Node node = this.top;
+            int passes = 0;
+            boolean expanded = false;
+
+            int alive = aliveMask(snapshot);
+            int lastAlive = alive;
+            while (!this.isOver(alive) && passes < Integer.bitCount(alive)) {
+                int entry = snapshot.getEntryPort(COLORS[mover]);
+                if (entry < 0) {
+                    ++passes;
+                    mover = nextAlive(alive, mover);
+                    continue;
+                }
+                passes = 0;
+                int code;
+                if (expanded) {
+                    code = this.randomCode();
+                } else {
+                    Node child = this.select(node);
+                    if (child.visits == 0) {
+                        expanded = true;
+                    }
+                    node = child;
+                    code = child.tileCode;
+                    this.path.add(child);
+                    this.movers.add(mover);
+                }
+                snapshot = snapshot.withPlacement(snapshot.packedRow(entry),
+                        snapshot.packedCol(entry), code);
+                lastAlive = alive;
+                alive = aliveMask(snapshot);
+                mover = nextAlive(alive, mover);
+            }
+
+            // If the last placement took everyone out, they share the win.
+            int winners = alive == 0 ? lastAlive : alive;
+            double share = 1.0 / Math.max(Integer.bitCount(winners), 1);
+            for (int ii = 0; ii < this.path.size(); ++ii) {
+                Node onPath = this.path.get(ii);
+                int movedBy = this.movers.get(ii);
+                ++onPath.visits;
+                if (movedBy >= 0 && (winners & (1 << movedBy)) != 0) {
+                    onPath.reward += share;
+                }
+            }
+        }
+
+        /**
+         * Chooses which placement to follow from the given Node. At the top of
+         * the tree the choices are this player's legal moves; elsewhere a tile
+         * is drawn at random and the choices are its rotations. An untried
+         * choice is taken first, and otherwise the one with the best UCB1
+         * score.
+         *
+         * @param node The Node whose mover places next.
+         * @return The child to follow, which has no visits if it is new.
+         */
+        private Node select(Node node) {
+            int count;
+            if (node == this.top) {
+                count = this.moves.size();
+                for (int ii = 0; ii < count; ++ii) {
+                    this.codes[ii] = this.moves.getTileCode(ii);
+                }
+            } else {
+                int tileId = this.deck[this.random.nextInt(this.deck.length)];
+                count = Tiles.rotationPeriod(tileId);
+                for (int ii = 0; ii < count; ++ii) {
+                    this.codes[ii] = (tileId << 2) | ii;
+                }
+            }
+
+            int tried = 0;
+            int start = this.random.nextInt(count);
+            for (int ii = 0; ii < count; ++ii) {
+                int code = this.codes[(start + ii) % count];
+                Node child = node.find(code);
+                if (child == null) {
+                    return node.add(code);
+                }
+                tried += child.visits;
+            }
+
+            Node best = null;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            double logTried = Math.log(tried);
+            for (int ii = 0; ii < count; ++ii) {
+                Node child = node.find(this.codes[ii]);
+                double score = child.reward / child.visits
+                        + EXPLORATION * Math.sqrt(logTried / child.visits);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Gives a random tile from the deck in a random rotation.
+         *
+         * @return The code of the tile and its rotation.
+         */
+        private int randomCode() {
+            int tileId = this.deck[this.random.nextInt(this.deck.length)];
+            return (tileId << 2) | this.random.nextInt(4);
+        }
+
+        /**
+         * Tells if a playout is over: this player is out, or at most one
+         * player is left.
+         *
+         * @param alive The colors still playing, as a bitmask of ordinals.
+         * @return True if the playout should stop.
+         */
+        private boolean isOver(int alive) {
+            return (alive & (1 << this.me)) == 0 || Integer.bitCount(alive) <= 1;
+        }
+
+        /**
+         * Gives the colors of the Avatars still playing in the given position.
+         *
+         * @param snapshot The position.
+         * @return The colors still playing, as a bitmask of ordinals.
+         */
+        private static int aliveMask(BoardSnapshot snapshot) {
+            int alive = 0;
+            for (int ii = 0; ii < COLORS.length; ++ii) {
+                if (snapshot.isAlive(COLORS[ii])) {
+                    alive |= 1 << ii;
+                }
+            }
+            return alive;
+        }
+
+        /**
+         * Gives the next player after the given one who is still playing, in
+         * order of color.
+         *
+         * @param alive The colors still playing, as a bitmask of ordinals.
+         * @param moved The ordinal of the color of the player who just moved.
+         * @return The ordinal of the color of the next player, which is the
+         * given one if no other is playing.
+         */
+        private static int nextAlive(int alive, int moved) {
+            for (int ii = 1; ii < COLORS.length; ++ii) {
+                int next = (moved + ii) % COLORS.length;
+                if ((alive & (1 << next)) != 0) {
+                    return next;
+                }
+            }
+            return moved;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * The legal placements of a hand of Tiles for one Avatar's turn, as given by
+ * Rules.legalMoves(). Every placement is into the same slot, the one the
+ * Avatar faces, so each move is packed into an int as the index of its tile in
+ * the hand shifted left by eight, or'd with the canonical code of the placed
+ * tile and rotation, as given by Tiles.canonicalCode().
+ * <p>
+ * Rotations that leave a tile looking the same, and tiles that appear in the
+ * hand more than once, are only listed once.
+ */
+public class MoveList {
+    private int row;
+    private int col;
+    private int[] moves;
+    private int size;
+    private boolean safe;
+
+    /**
+     * Constructs an empty MoveList for placements into the given slot.
+     *
+     * @param row      The first coordinate of the slot.
+     * @param col      The second coordinate of the slot.
+     * @param capacity The greatest number of moves that will be added.
+     */
+    MoveList(int row, int col, int capacity) {
+        this.row = row;
+        this.col = col;
+        this.moves = new int[capacity];
+    }
+
+    /**
+     * Adds a move to this MoveList.
+     *
+     * @param handIndex The index of the placed tile in the hand.
+     * @param tileCode  The code of the placed tile and its rotation.
+     */
+    void add(int handIndex, int tileCode) {
+        this.moves[this.size++] = (handIndex << 8) | tileCode;
+    }
+
+    /**
+     * Records whether the moves in this MoveList avoid death. If not, the moves
+     * are every placement of the hand, since they are all equally suicidal.
+     *
+     * @param safe True if none of the moves end in death.
+     */
+    void setSafe(boolean safe) {
+        this.safe = safe;
+    }
+
+    /**
+     * Gets the first coordinate of the slot all moves are placed into.
+     *
+     * @return The first coordinate of the slot.
+     */
+    public int getRow() {
+        return this.row;
+    }
+
+    /**
+     * Gets the second coordinate of the slot all moves are placed into.
+     *
+     * @return The second coordinate of the slot.
+     */
+    public int getCol() {
+        return this.col;
+    }
+
+    /**
+     * Gives the number of moves in this MoveList.
+     *
+     * @return The number of moves.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Tells if there is at least one move that does not end in death.
+     *
+     * @return True if the moves in this MoveList are all safe, or false if
+     * every placement of the hand ends in death.
+     */
+    public boolean hasSafeMove() {
+        return this.safe;
+    }
+
+    /**
+     * Gives the index in the hand of the tile placed by the given move.
+     *
+     * @param ii The index of the move.
+     * @return The index of its tile in the hand.
+     */
+    public int getHandIndex(int ii) {
+        return this.moves[ii] >>> 8;
+    }
+
+    /**
+     * Gives the canonical tile code, as given by Tiles.canonicalCode(), of the
+     * given move.
+     *
+     * @param ii The index of the move.
+     * @return The code of the placed tile and its rotation.
+     */
+    public int getTileCode(int ii) {
+        return this.moves[ii] & 0xFF;
+    }
+
+    /**
+     * Gives the Tiles placed by the given move, rotated as it is placed.
+     *
+     * @param ii The index of the move.
+     * @return The shared Tiles for the move's tile and rotation.
+     */
+    public Tiles getTile(int ii) {
+        int code = this.getTileCode(ii);
+        return Tiles.variant(code >>> 2, code & 3);
+    }
+
+    /**
+     * Gives the rotation, in degrees, of the tile placed by the given move.
+     *
+     * @param ii The index of the move.
+     * @return The rotation of the placed tile.
+     */
+    public int getRotation(int ii) {
+        return (this.getTileCode(ii) & 3) * 90;
+    }
+
+    /**
+     * Checks if placing the given Tiles is one of the moves in this MoveList,
+     * counting rotations that look the same as equal.
+     *
+     * @param tile The Tiles, rotated as it would be placed.
+     * @return True if placing it is legal.
+     */
+    public boolean contains(Tiles tile) {
+        int code = tile.getCanonicalCode();
+        for (int ii = 0; ii < this.size; ++ii) {
+            if (this.getTileCode(ii) == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
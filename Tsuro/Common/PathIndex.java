@@ -0,0 +1,117 @@
+/**
+ * An index of the path segments formed by the tiles placed on a Board. A
+ * segment is a maximal chain of connected tile paths, and its two ends are
+ * ports whose neighbouring slot is empty or off the board. For each end the
+ * index stores the other end of its segment, so placing a tile only links
+ * the segments around its slot, and the end of any path starting from the
+ * end of a segment is read without walking it.
+ * <p>
+ * Ends are packed as (slot << 3) | port, with slots indexed as by the
+ * BitBoard the index was built for. Entries for ports that are no longer the
+ * end of a segment are stale and must not be read.
+ */
+public class PathIndex {
+    /**
+     * The number of entries place() pushes onto an UndoLog: two entries are
+     * overwritten for each of the four paths of a tile, and each is logged as
+     * its index and old value.
+     */
+    public static final int UNDO_ENTRIES = 16;
+
+    private int[] otherEnds;
+
+    /**
+     * Constructs an index for a Board with no tiles on it.
+     *
+     * @param bitBoard The BitBoard of the Board being indexed.
+     */
+    public PathIndex(BitBoard bitBoard) {
+        this.otherEnds = new int[bitBoard.numSlots() << 3];
+    }
+
+    /**
+     * Links the paths of a tile newly placed in the given slot with the
+     * segments ending next to it. Each of the four paths of the tile joins at
+     * most two segments, so this takes constant time. The slot must have been
+     * empty when last indexed.
+     *
+     * @param bitBoard The BitBoard of the Board being indexed.
+     * @param slot     The index of the slot the tile was placed in.
+     * @param tileCode The code of the placed tile.
+     */
+    public void place(BitBoard bitBoard, int slot, int tileCode) {
+        this.place(bitBoard, slot, tileCode, null);
+    }
+
+    /**
+     * Links the paths of a tile newly placed in the given slot, as place()
+     * does, and pushes the overwritten entries onto the given log so that the
+     * placement can be taken back with unplace(). Exactly UNDO_ENTRIES entries
+     * are pushed.
+     *
+     * @param bitBoard The BitBoard of the Board being indexed.
+     * @param slot     The index of the slot the tile was placed in.
+     * @param tileCode The code of the placed tile.
+     * @param log      The log to push the overwritten entries onto, or null.
+     */
+    public void place(BitBoard bitBoard, int slot, int tileCode, UndoLog log) {
+        for (int port = 0; port < 8; ++port) {
+            int exit = Tiles.traceCode(tileCode, port);
+            // Each path is seen from both of its ports, so link it only once.
+            if (exit < port) {
+                continue;
+            }
+            int end = this.outerEnd(bitBoard, slot, port);
+            int otherEnd = this.outerEnd(bitBoard, slot, exit);
+            if (log != null) {
+                log.push(end);
+                log.push(this.otherEnds[end]);
+                log.push(otherEnd);
+                log.push(this.otherEnds[otherEnd]);
+            }
+            this.otherEnds[end] = otherEnd;
+            this.otherEnds[otherEnd] = end;
+        }
+    }
+
+    /**
+     * Takes back the most recent placement logged by place(), by popping its
+     * entries off the given log and restoring them.
+     *
+     * @param log The log the placement was pushed onto.
+     */
+    public void unplace(UndoLog log) {
+        for (int ii = 0; ii < UNDO_ENTRIES; ii += 2) {
+            int value = log.pop();
+            this.otherEnds[log.pop()] = value;
+        }
+    }
+
+    /**
+     * Gives the other end of the segment with the given end.
+     *
+     * @param end A packed end of a segment.
+     * @return The other end of that segment, packed the same way.
+     */
+    public int otherEnd(int end) {
+        return this.otherEnds[end];
+    }
+
+    /**
+     * Gives the far end of what lies beyond the given port of the given slot:
+     * the other end of the segment that the port now joins, or the port
+     * itself if its neighbouring slot is empty.
+     *
+     * @param bitBoard The BitBoard of the Board being indexed.
+     * @param slot     The index of the slot.
+     * @param port     The ordinal of the port.
+     * @return The packed end.
+     */
+    private int outerEnd(BitBoard bitBoard, int slot, int port) {
+        int neighbour = bitBoard.neighbourSlot(slot, port);
+        if (bitBoard.isSlotOccupied(neighbour)) {
+            return this.otherEnds[(neighbour << 3) | Port.PortName.advanceIndex(port)];
+        }
+        return (slot << 3) | port;
+    }
+}
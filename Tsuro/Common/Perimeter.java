@@ -0,0 +1,182 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The slots around the edge of a board of some size, where initial placements
+ * go, along with the ports of each that face off the board. Slots are listed
+ * counter-clockwise from (0, 0): up the second coordinate, up the first, back
+ * down the second and back down the first, each slot once.
+ * <p>
+ * A Perimeter only depends on the board's dimensions, so one is made for each
+ * size and shared by every Board of that size.
+ */
+public class Perimeter {
+    private static final Map<Long, Perimeter> BY_SIZE = new ConcurrentHashMap<>();
+
+    private int height;
+    private int width;
+    private int[] rows;
+    private int[] cols;
+    private int[] outwardPorts;
+    private int[] indexBySlot;
+
+    /**
+     * Constructs the Perimeter of a board of the given size.
+     *
+     * @param height The height of the board.
+     * @param width  The width of the board.
+     */
+    private Perimeter(int height, int width) {
+        this.height = height;
+        this.width = width;
+        this.indexBySlot = new int[height * width];
+        Arrays.fill(this.indexBySlot, -1);
+        int capacity = Math.min(height * width, 2 * (height + width));
+        this.rows = new int[capacity];
+        this.cols = new int[capacity];
+        this.outwardPorts = new int[capacity];
+
+        int size = 0;
+        for (int col = 0; col < width; ++col) {
+            size = this.add(size, 0, col);
+        }
+        for (int row = 1; row < height; ++row) {
+            size = this.add(size, row, width - 1);
+        }
+        for (int col = width - 2; col >= 0; --col) {
+            size = this.add(size, height - 1, col);
+        }
+        for (int row = height - 2; row > 0; --row) {
+            size = this.add(size, row, 0);
+        }
+        this.rows = Arrays.copyOf(this.rows, size);
+        this.cols = Arrays.copyOf(this.cols, size);
+        this.outwardPorts = Arrays.copyOf(this.outwardPorts, size);
+    }
+
+    /**
+     * Gives the Perimeter of a board of the given size.
+     *
+     * @param height The height of the board.
+     * @param width  The width of the board.
+     * @return The shared Perimeter for boards of that size.
+     */
+    public static Perimeter of(int height, int width) {
+        return BY_SIZE.computeIfAbsent(((long) height << 32) | width,
+                size -> new Perimeter(height, width));
+    }
+
+    /**
+     * Gives the number of slots on this Perimeter.
+     *
+     * @return The number of slots around the edge of the board.
+     */
+    public int size() {
+        return this.rows.length;
+    }
+
+    /**
+     * Gives the first coordinate of the given slot of this Perimeter.
+     *
+     * @param index The index of the slot on this Perimeter.
+     * @return The first coordinate of the slot.
+     */
+    public int getRow(int index) {
+        return this.rows[index];
+    }
+
+    /**
+     * Gives the second coordinate of the given slot of this Perimeter.
+     *
+     * @param index The index of the slot on this Perimeter.
+     * @return The second coordinate of the slot.
+     */
+    public int getCol(int index) {
+        return this.cols[index];
+    }
+
+    /**
+     * Gives the ports of the given slot that face off the board, which are
+     * the ports an Avatar may start on.
+     *
+     * @param index The index of the slot on this Perimeter.
+     * @return A bitmask with bit n set if the port with ordinal n faces off
+     * the board.
+     */
+    public int getOutwardPorts(int index) {
+        return this.outwardPorts[index];
+    }
+
+    /**
+     * Checks if the given port of the given slot faces off the board.
+     *
+     * @param index    The index of the slot on this Perimeter.
+     * @param portName The port.
+     * @return True if an Avatar may start on the port.
+     */
+    public boolean isOutward(int index, Port.PortName portName) {
+        return (this.outwardPorts[index] & (1 << portName.ordinal())) != 0;
+    }
+
+    /**
+     * Gives the index on this Perimeter of the given slot.
+     *
+     * @param row The first coordinate of the slot.
+     * @param col The second coordinate of the slot.
+     * @return The index of the slot, or -1 if it is not on the edge of the
+     * board or not on the board at all.
+     */
+    public int indexOf(int row, int col) {
+        if (row < 0 || row >= this.height || col < 0 || col >= this.width) {
+            return -1;
+        }
+        return this.indexBySlot[row * this.width + col];
+    }
+
+    /**
+     * Adds the given slot to this Perimeter, unless it is already on it, as
+     * happens on boards one slot high or wide.
+     *
+     * @param size The number of slots added so far.
+     * @param row  The first coordinate of the slot.
+     * @param col  The second coordinate of the slot.
+     * @return The number of slots added, including this one.
+     */
+    private int add(int size, int row, int col) {
+        if (this.indexBySlot[row * this.width + col] >= 0) {
+            return size;
+        }
+        // East and West ports lead along the first coordinate, North and South
+        // ports along the second, as on a BitBoard.
+        int ports = 0;
+        if (row == 0) {
+            ports |= portBits(Port.PortName.W1, Port.PortName.W2);
+        }
+        if (row == this.height - 1) {
+            ports |= portBits(Port.PortName.E1, Port.PortName.E2);
+        }
+        if (col == 0) {
+            ports |= portBits(Port.PortName.S1, Port.PortName.S2);
+        }
+        if (col == this.width - 1) {
+            ports |= portBits(Port.PortName.N1, Port.PortName.N2);
+        }
+        this.indexBySlot[row * this.width + col] = size;
+        this.rows[size] = row;
+        this.cols[size] = col;
+        this.outwardPorts[size] = ports;
+        return size + 1;
+    }
+
+    /**
+     * Gives the bitmask of the given two ports.
+     *
+     * @param first  One port.
+     * @param second Another port.
+     * @return A bitmask with the bits of the ordinals of both ports set.
+     */
+    private static int portBits(Port.PortName first, Port.PortName second) {
+        return (1 << first.ordinal()) | (1 << second.ordinal());
+    }
+}
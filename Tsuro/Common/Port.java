@@ -1,12 +1,11 @@
 import java.util.ArrayList;
 
 /**
- * Represents a Port on a Tsuro Tiles.
+ * Represents a Port on a Tsuro Tiles. Avatars standing on a Port are tracked
+ * by the Board rather than by the Port itself.
  */
 public class Port {
   private PortName name;
-  private Avatar avatar;
-  private boolean hasAvatar;
   
   /**
    * Standard constructor.
@@ -15,7 +14,6 @@ public class Port {
    */
   public Port(PortName name) {
     this.name = name;
-    this.hasAvatar = false;
   }
   
   /**
@@ -27,42 +25,6 @@ public class Port {
     return this.name;
   }
   
-  /**
-   * Gets the Avatar at this Port, if applicable.
-   *
-   * @return The Avatar at this Port, or null if none exists.
-   */
-  public Avatar getAvatar() {
-    return this.avatar;
-  }
-  
-  /**
-   * Tells whether or not an Avatar is at this Port.
-   *
-   * @return True if this port has an Avatar.
-   */
-  public boolean getHasAvatar() {
-    return this.hasAvatar;
-  }
-  
-  /**
-   * Adds an Avatar to this Port.
-   *
-   * @param avatar The avatar to be added to this Port.
-   */
-  public void addAvatar(Avatar avatar) {
-    this.avatar = avatar;
-    this.hasAvatar = true;
-  }
-  
-  /**
-   * Removes the Avatar from this port, if applicable.
-   */
-  public void removeAvatar() {
-    this.hasAvatar = false;
-    this.avatar = null;
-  }
-  
   /**
    * Rotates this port by 90 degrees.
    *
@@ -78,7 +40,9 @@ public class Port {
    */
   public enum PortName {
     N1, N2, E1, E2, S1, S2, W1, W2;
-  
+
+    private static final PortName[] BY_INDEX = values();
+
     /**
      * Gives a name of what Port on an adjacent Tiles would be connected to by
      * this one.
@@ -184,6 +148,40 @@ public class Port {
       }
     }
     
+    /**
+     * Gives the PortName with the given ordinal.
+     *
+     * @param index The ordinal of the desired PortName.
+     * @return The PortName with the given ordinal.
+     */
+    public static PortName fromIndex(int index) {
+      return BY_INDEX[index];
+    }
+
+    /**
+     * Gives the ordinal of the port yielded by rotating the port with the given
+     * ordinal clockwise. Since ports are declared clockwise two per side, a
+     * quarter turn moves a port two places along.
+     *
+     * @param index    The ordinal of the port to be rotated.
+     * @param rotation The number of 90 degree clockwise turns.
+     * @return The ordinal of the rotated port.
+     */
+    public static int rotateIndex(int index, int rotation) {
+      return (index + 2 * rotation) & 7;
+    }
+
+    /**
+     * Gives the ordinal of the port on an adjacent Tiles that the port with the
+     * given ordinal connects to, as advance() does for names.
+     *
+     * @param index The ordinal of the port to be advanced.
+     * @return The ordinal of the port it connects to.
+     */
+    public static int advanceIndex(int index) {
+      return ((index ^ 1) + 4) & 7;
+    }
+
     public static ArrayList<PortName> allPortNames() {
       ArrayList<PortName> allPortNames = new ArrayList<>();
       allPortNames.add(N1);
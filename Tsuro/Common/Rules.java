@@ -1,4 +1,5 @@
 import java.awt.*;
+import java.util.List;
 
 /**
  * The Rules class is accessible to both the Referee and the Players for
@@ -24,6 +25,7 @@ import java.awt.*;
  * A Rule Checker can:
  * - Check if a Place action for a Tile is legal
  * - Check if an initial Tiles and Avatar placement is legal
+ * - List every legal placement of a hand of Tiles
  * - Check if the game is over
  */
 public class Rules {
@@ -47,25 +49,17 @@ public class Rules {
                                                   Point pos,
                                                   Port.PortName portName,
                                                   Tiles tile) {
-        // Sets up temporary xx and yy variables for when it is more convenient
-        int row = pos.y;
-        int col = pos.x;
-
-        // location must be on board
-        boolean coordinatesOnBoard = doesBoardContainCoordinates(board, col, row);
-        // location must be empty
-        boolean locationEmpty = isBoardEmptyAt(board, col, row);
-        // All tiles adjacent to location must be empty
-        boolean adjacentsEmpty = areAdjacentsEmptyAt(board, col, row);
-        // location must be along the edge of the board
-        boolean connectsToEdge = connectsToEdge(board, pos, portName);
+        // The location must be on the edge of the board, empty, with all
+        // adjacent slots empty, and the port must face the edge. The Board
+        // keeps track of which edge slots are still free.
+        Perimeter perimeter = board.getPerimeter();
+        int index = perimeter.indexOf(pos.x, pos.y);
+        if (index < 0 || !board.isStartAvailable(index)
+                || !perimeter.isOutward(index, portName)) {
+            return false;
+        }
         // The placement must not result in the death of the player
-        boolean willNotResultInDeath = !willEndInDeath(board, col, row, portName, tile,
-                true);
-
-        // If all these conditions are true, then the placement is legal.
-        return coordinatesOnBoard && locationEmpty && adjacentsEmpty &&
-                connectsToEdge && willNotResultInDeath;
+        return !willEndInDeath(board, pos.x, pos.y, portName, tile, true);
     }
 
     /**
@@ -86,16 +80,13 @@ public class Rules {
                                                        IPlayer player) {
         Avatar avatar = player.getAvatar();
         if (isPlaceTileLegal(board, xx, yy, tile, avatar)) {
-            board.getGrid()[xx][yy] = tile;
-            Port.PortName initPort = avatar.getCurrentPort();
-            Point initPos = new Point(avatar.getPos().x, avatar.getPos().y);
-            if (willEndInDeath(board, avatar.getPos().x, avatar.getPos().y, avatar.getCurrentPort(), tile, false)) {
-                board.getGrid()[xx][yy] = null;
-                avatar.updatePosition(initPos.x, initPos.y, initPort);
+            // The avatar's path continues into (xx, yy) through the port
+            // facing it, so the trace can start there without placing the tile.
+            Port.PortName entryPort = avatar.getCurrentPort().advance();
+            if (willEndInDeath(board, xx, yy, entryPort, tile, true)) {
                 return player.hasNoMoves(board, tile,false);
             }
             else {
-                avatar.updatePosition(initPos.x, initPos.y, initPort);
                 return true;
             }
         } else {
@@ -103,6 +94,76 @@ public class Rules {
         }
     }
 
+    /**
+     * Lists every legal placement of the given hand for the given Avatar's
+     * turn. A placement is legal if it does not end in the death of the
+     * Avatar, or if every placement of the hand does. All placements are into
+     * the slot the Avatar faces, so the path into it is traced once per
+     * distinct tile and rotation, and rotations that look the same are only
+     * traced and listed once.
+     *
+     * @param board  The Board that the Tiles would be placed on.
+     * @param avatar The Avatar of the player making this move.
+     * @param hand   The Tiles the player can choose from, in any rotation.
+     * @return The legal moves, which are empty if the Avatar does not face an
+     * empty slot on the Board.
+     */
+    public static MoveList legalMoves(Board board, Avatar avatar,
+                                      List<Tiles> hand) {
+        // Every placement goes where the Avatar's path continues.
+        Location next = new Location(avatar).advance();
+        int xx = next.getCol();
+        int yy = next.getRow();
+        MoveList moves = new MoveList(xx, yy, hand.size() * Tiles.NUM_ROTATIONS);
+        if (!doesBoardContainCoordinates(board, xx, yy)
+                || !isBoardEmptyAt(board, xx, yy)) {
+            return moves;
+        }
+
+        // First list only the placements that survive.
+        boolean[] seen = new boolean[Tiles.NUM_TILES * Tiles.NUM_ROTATIONS];
+        boolean[] deadly = new boolean[Tiles.NUM_TILES * Tiles.NUM_ROTATIONS];
+        for (int ii = 0; ii < hand.size(); ++ii) {
+            Tiles tile = hand.get(ii);
+            if (tile == null) {
+                continue;
+            }
+            int tileId = tile.getIdxInAll35();
+            for (int rotation = 0; rotation < Tiles.rotationPeriod(tileId); ++rotation) {
+                int code = (tileId << 2) | rotation;
+                if (seen[code]) {
+                    continue;
+                }
+                seen[code] = true;
+                deadly[code] = willEndInDeath(board, xx, yy, next.getPortName(),
+                        Tiles.variant(tileId, rotation), true);
+                if (!deadly[code]) {
+                    moves.add(ii, code);
+                }
+            }
+        }
+
+        // If none survive, then every placement is legal.
+        moves.setSafe(moves.size() > 0);
+        if (!moves.hasSafeMove()) {
+            for (int ii = 0; ii < hand.size(); ++ii) {
+                Tiles tile = hand.get(ii);
+                if (tile == null) {
+                    continue;
+                }
+                int tileId = tile.getIdxInAll35();
+                for (int rotation = 0; rotation < Tiles.rotationPeriod(tileId); ++rotation) {
+                    int code = (tileId << 2) | rotation;
+                    if (deadly[code]) {
+                        deadly[code] = false;
+                        moves.add(ii, code);
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
     /**
      * Checks if a new Tile can be placed at (xx, yy). This requires that:
      * - The (xx, yy) position is on the Board.
@@ -167,13 +228,15 @@ public class Rules {
       moved initially to the portName of the location before tracing out its
       path to the end, what will the final location of the avatar be?
      */
-        Location updatedLocation = board.tracePath(xx, yy, tile, currentPort,
-                firstMove, false);
+        int updatedLocation = board.tracePacked(xx, yy, tile, currentPort,
+                firstMove);
 
-        // Unpack updated Location
-        int updatedRow = updatedLocation.getCol();
-        int updatedCol = updatedLocation.getRow();
-        Port.PortName updatedPortName = updatedLocation.getPortName();
+        // Unpack updated location
+        BitBoard bitBoard = board.getBitBoard();
+        int updatedRow = bitBoard.packedCol(updatedLocation);
+        int updatedCol = bitBoard.packedRow(updatedLocation);
+        Port.PortName updatedPortName =
+                Port.PortName.fromIndex(BitBoard.packedPort(updatedLocation));
 
     /*
       If the updated location connects to the edge, then the proposed move will
@@ -182,73 +245,13 @@ public class Rules {
         return connectsToEdge(board, updatedRow, updatedCol, updatedPortName);
     }
 
-    /**
-     * Checks if given position is only adjacent to empty slots on the given
-     * Board.
-     * Assumes that coordinates are contained within board.
-     *
-     * @param board The Board being queried.
-     * @param xx    The x coordinate that is being queried.
-     * @param yy    The y coordinate that is being queried.
-     * @return True if (xx, yy) is only adjacent to empty spots, or false if not.
-     */
-    private static boolean areAdjacentsEmptyAt(Board board, int xx, int yy) {
-        // Initialize return variable.
-        boolean adjacentsEmpty = true;
-
-    /*
-      If (xx, yy) is not on the left border, then we can check if the tile left
-      of it is empty or not.
-     */
-        if (xx != 0) {
-            adjacentsEmpty = isBoardEmptyAt(board, xx - 1, yy);
-        }
-    /*
-      If (xx, yy) is not on the right border, then we can check if the tile
-      right of it is empty or not.
-     */
-        if (xx != board.getWidth() - 1) {
-            adjacentsEmpty &= isBoardEmptyAt(board, xx + 1, yy);
-        }
-    /*
-      If (xx, yy) is not on the top border, then we can check if the tile above
-      it is empty or not.
-     */
-        if (yy != 0) {
-            adjacentsEmpty &= isBoardEmptyAt(board, xx, yy - 1);
-        }
-    /*
-      If (xx, yy) is not on the bottom border, then we can check if the tile
-      below it is empty or not.
-     */
-        if (yy != board.getHeight() - 1) {
-            adjacentsEmpty &= isBoardEmptyAt(board, xx, yy + 1);
-        }
-
-        // If all of the adjacent tiles are empty, return true.
-        return adjacentsEmpty;
-    }
-
-    /**
-     * Checks if the given location connects to the edge of the board.
-     * Assumes that coordinates are contained within board.
-     *
-     * @param board    The Board being queried.
-     * @param pos      The Point that is being queried.
-     * @param portName The Port.PortName that is being queried.
-     * @return True if location is adjacent to the edge of the board, or false if
-     * not.
-     */
-    private static boolean connectsToEdge(Board board, Point pos,
-                                          Port.PortName portName) {
-        // Unpacks pos and sends it along to overloaded alias.
-        return connectsToEdge(board, pos.y, pos.x, portName);
-    }
-
     /**
      * Checks if the given coordinates and Port.PortName connects to the edge of
      * the board.
-     * Assumes that coordinates are contained within board.
+     * Assumes that coordinates are contained within board. North and South
+     * ports lead along the y coordinate, which is the second index into the
+     * Board's grid and so runs up to its width, and East and West ports along
+     * the x coordinate, which runs up to its height.
      *
      * @param board    The Board being queried.
      * @param col      The x coordinate being queried.
@@ -259,7 +262,7 @@ public class Rules {
     public static boolean connectsToEdge(Board board, int row, int col,
                                          Port.PortName portName) {
         // If the location is at the North border and the port is North facing:
-        boolean bordersNorth = (row == board.getHeight() - 1) &&
+        boolean bordersNorth = (row == board.getWidth() - 1) &&
                 (portName == Port.PortName.N1 ||
                         portName == Port.PortName.N2);
         // If the location is at the South border and the port is South facing:
@@ -271,7 +274,7 @@ public class Rules {
                 (portName == Port.PortName.W1 ||
                         portName == Port.PortName.W2);
         // If the location is at the East border and the port is East facing:
-        boolean bordersEast = (col == board.getWidth() - 1) &&
+        boolean bordersEast = (col == board.getHeight() - 1) &&
                 (portName == Port.PortName.E1 ||
                         portName == Port.PortName.E2);
 
@@ -289,10 +292,7 @@ public class Rules {
      */
     private static boolean doesBoardContainCoordinates(Board board, int xx,
                                                        int yy) {
-        boolean containsX = xx >= 0 && xx < board.getWidth();
-        boolean containsY = yy >= 0 && yy < board.getHeight();
-        // If both dimensions are large enough for these indices, return true.
-        return containsX && containsY;
+        return board.getBitBoard().contains(xx, yy);
     }
 
     /**
@@ -323,8 +323,8 @@ public class Rules {
      * @return True if (xx, yy) is empty on this board, or false if not.
      */
     private static boolean isBoardEmptyAt(Board board, int xx, int yy) {
-        // If there is no Tiles object at given indices, then return true.
-        return board.getTileAt(xx, yy) == null;
+        // If no tile bit is set at given indices, then return true.
+        return board.getBitBoard().isEmpty(xx, yy);
     }
     
     /**
@@ -337,8 +337,6 @@ public class Rules {
      *         that is empty and has empty neighbors.
      */
     public static boolean validCoordinates(Board board, int xx, int yy) {
-        return doesBoardContainCoordinates(board, xx, yy) &&
-                isBoardEmptyAt(board, xx, yy) &&
-                areAdjacentsEmptyAt(board, xx, yy);
+        return board.getBitBoard().isIsolatedEmpty(xx, yy);
     }
 }
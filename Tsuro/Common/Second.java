@@ -40,14 +40,17 @@ public class Second implements Strategy {
         this.board = board;
     }
     
+    @Override
+    public void updateHand(Avatar avatar, ArrayList<Tiles> hand) {
+    }
+    
     private boolean isAcceptableTile(ArrayList<Tiles> hands, int choice) {
         Tiles possibleTile = hands.get(choice);
         Tiles[][] grid = new Board().getGrid();
         Point initialGridPlacement = chooseInitPosition();
         Point position = new Point();
         // this gets the initial tile's output port that the avatar leaves out of
-        Port.PortName initialOutputPort = possibleTile.trace(choosePort(possibleTile, initialGridPlacement),
-                false);
+        Port.PortName initialOutputPort = possibleTile.trace(choosePort(possibleTile, initialGridPlacement));
 
         // This is checking if the output port leads to the edge of the board, which means the tile and/or
         // its rotation is not acceptable
@@ -64,29 +67,11 @@ public class Second implements Strategy {
     // starting from (0, 0)
     @Override
     public Point chooseInitPosition() {
-        Tiles[][] grid = this.board.getGrid();
-        for (int ii = 0; ii < grid.length; ii++) {
-            if (grid[ii][0] == null) {
-                return new Point(ii, 0);
-            }
-        }
-
-        for (int jj = 1; jj < grid.length - 1; jj++) {
-            if (grid[grid.length - 1][jj] == null) {
-                return new Point(grid.length - 1, jj);
-            }
-        }
-
-        for (int ii = grid.length - 1; ii >= 0; ii--) {
-            if (grid[ii][grid.length - 1] == null) {
-                return new Point(ii, grid.length - 1);
-            }
-        }
-
-        for (int jj = grid.length - 2; jj > 0; jj--) {
-            if (grid[0][jj] == null) {
-                return new Point(0, jj);
-            }
+        // This walks the edge the other way round from the Perimeter.
+        int index = this.board.isStartAvailable(0) ? 0 : this.board.lastAvailableStart();
+        if (index >= 0) {
+            Perimeter perimeter = this.board.getPerimeter();
+            return new Point(perimeter.getRow(index), perimeter.getCol(index));
         }
         throw new IllegalStateException("There are no more empty spots in the board");
     }
@@ -1,4 +1,5 @@
 import java.awt.*;
+import java.util.ArrayList;
 
 public interface Strategy {
 
@@ -14,6 +15,15 @@ public interface Strategy {
 
     void  updateBoard (Board board);
 
+    /**
+     * Tells this strategy which Avatar it plays for and which Tiles it may
+     * choose from on the coming turn.
+     *
+     * @param avatar The Avatar of the Player using this strategy.
+     * @param hand   The Tiles in the Player's hand.
+     */
+    void updateHand(Avatar avatar, ArrayList<Tiles> hand);
+
 
     /**
      * @return the position to be chosen
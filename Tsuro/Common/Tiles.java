@@ -2,6 +2,7 @@ import java.awt.geom.Ellipse2D;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -15,10 +16,91 @@ import javafx.scene.shape.Ellipse;
 
 /**
  * Represents a Tsuro tile with 8 ports and 4 pairwise distinct connections
- * between each one and its pair.
+ * between each one and its pair. Tiles only describe geometry; which Avatars
+ * stand on which ports is tracked by the Board, so a Tiles can be shared
+ * between every cell it is placed on.
  */
 public class Tiles implements Serializable {
-    public ArrayList<Pair<Port, Port>> paths;
+    /**
+     * The number of distinct Tsuro tiles.
+     */
+    public static final int NUM_TILES = 35;
+
+    /**
+     * The number of distinct rotations (0, 90, 180 and 270 degrees) of a tile.
+     */
+    public static final int NUM_ROTATIONS = 4;
+
+    /**
+     * The port pairs of every distinct tile at 0 degrees, indexed by the tile's
+     * position in all35Tiles(). Each row lists the two ends of paths 1-4 in
+     * order.
+     */
+    private static final String[][] TILE_DEFINITIONS = {
+            {"S2", "S1", "E2", "E1", "N2", "N1", "W2", "W1"},
+            {"S2", "S1", "E2", "E1", "N2", "W2", "N1", "W1"},
+            {"S2", "S1", "E2", "E1", "N2", "W1", "N1", "W2"},
+            {"S2", "S1", "E2", "N2", "E1", "W2", "N1", "W1"},
+            {"S2", "S1", "E2", "N2", "E1", "W1", "N1", "W2"},
+            {"S2", "S1", "E2", "N1", "E1", "W2", "N2", "W1"},
+            {"S2", "S1", "E2", "N1", "E1", "W1", "N2", "W2"},
+            {"S2", "S1", "E2", "W2", "E1", "N2", "N1", "W1"},
+            {"S2", "S1", "E2", "W2", "E1", "N1", "N2", "W1"},
+            {"S2", "S1", "E2", "W2", "E1", "W1", "N2", "N1"},
+            {"S2", "S1", "E2", "W1", "E1", "N2", "N1", "W2"},
+            {"S2", "S1", "E2", "W1", "E1", "N1", "N2", "W2"},
+            {"S2", "S1", "E2", "W1", "E1", "W2", "N2", "N1"},
+            {"S2", "E2", "S1", "E1", "N2", "W2", "N1", "W1"},
+            {"S2", "E2", "S1", "E1", "N2", "W1", "N1", "W2"},
+            {"S2", "E2", "S1", "N2", "E1", "W2", "N1", "W1"},
+            {"S2", "E2", "S1", "N2", "E1", "W1", "N1", "W2"},
+            {"S2", "E2", "S1", "N1", "E1", "W2", "N2", "W1"},
+            {"S2", "E2", "S1", "N1", "E1", "W1", "N2", "W2"},
+            {"S2", "E2", "S1", "W2", "E1", "N2", "N1", "W1"},
+            {"S2", "E2", "S1", "W2", "E1", "N1", "N2", "W1"},
+            {"S2", "E2", "S1", "W1", "E1", "N2", "N1", "W2"},
+            {"S2", "E2", "S1", "W1", "E1", "N1", "N2", "W2"},
+            {"S2", "E1", "S1", "E2", "N2", "W1", "N1", "W2"},
+            {"S2", "E1", "S1", "N2", "E2", "W2", "N1", "W1"},
+            {"S2", "E1", "S1", "N2", "E2", "W1", "N1", "W2"},
+            {"S2", "E1", "S1", "N1", "E2", "W2", "N2", "W1"},
+            {"S2", "E1", "S1", "W2", "E2", "N1", "N2", "W1"},
+            {"S2", "N2", "S1", "E2", "E1", "W2", "N1", "W1"},
+            {"S2", "N2", "S1", "E2", "E1", "W1", "N1", "W2"},
+            {"S2", "N2", "S1", "E1", "E2", "W2", "N1", "W1"},
+            {"S2", "N2", "S1", "N1", "E2", "W2", "E1", "W1"},
+            {"S2", "N2", "S1", "N1", "E2", "W1", "E1", "W2"},
+            {"S2", "N1", "S1", "N2", "E2", "W1", "E1", "W2"},
+            {"S2", "W1", "S1", "E2", "E1", "N2", "N1", "W2"}
+    };
+
+    /**
+     * Port-to-port connections of every tile under every rotation, flattened so
+     * that the other end of the path entered at port p on tile t rotated r
+     * quarter turns clockwise is CONNECTIONS[((t * 4 + r) << 3) | p], where
+     * ports are indexed by Port.PortName.ordinal().
+     */
+    private static final byte[] CONNECTIONS = buildConnections();
+
+    /**
+     * The number of quarter turns after which each tile looks the same again
+     * (1, 2 or 4), indexed by the tile's position in all35Tiles().
+     */
+    private static final byte[] ROTATION_PERIODS = buildRotationPeriods();
+
+    /**
+     * The shared Tiles for every tile under every rotation, built once when
+     * this class is loaded and handed out by rotate() and variant().
+     */
+    private static final Tiles[] VARIANTS = buildVariants();
+
+    /**
+     * The shared Tiles for the distinct rotations of every tile, indexed by
+     * the tile's position in all35Tiles().
+     */
+    private static final List<List<Tiles>> DISTINCT_ROTATIONS = buildDistinctRotations();
+
+    private ArrayList<Pair<Port, Port>> paths;
     private int rotation;
     private int idxInAll35;
 
@@ -79,27 +161,15 @@ public class Tiles implements Serializable {
 
 
 
-    public Tiles clone () {
-        Tiles clone = new Tiles(this.paths.get(0).fst.getName().toString(),
-                this.paths.get(0).snd.getName().toString(),
-                this.paths.get(1).fst.getName().toString(),
-                this.paths.get(1).snd.getName().toString(),
-                this.paths.get(2).fst.getName().toString(),
-                this.paths.get(2).snd.getName().toString(),
-                this.paths.get(3).fst.getName().toString(),
-                this.paths.get(3).snd.getName().toString(),
-                this.idxInAll35);
-        clone.rotate(this.getRotation());
-        return clone;
-    }
-
-    public boolean hasAvatar() {
-        for (Pair<Port, Port> path : paths) {
-            if (path.fst.getHasAvatar() || path.snd.getHasAvatar()) {
-                return true;
-            }
-        }
-        return false;
+    /**
+     * Gets the four paths of this Tiles. Tiles are shared between every Board
+     * that holds them, so the paths cannot be changed.
+     *
+     * @return A read-only view of the paths, each a pair of the Ports at its
+     *         two ends.
+     */
+    public List<Pair<Port, Port>> getPaths() {
+        return Collections.unmodifiableList(this.paths);
     }
 
     public Port getPort(Port.PortName name){
@@ -117,10 +187,14 @@ public class Tiles implements Serializable {
     /**
      * Nonstandard constructor for use in Tiles rotation.
      *
-     * @param paths The paths of the new Tiles.
+     * @param paths      The paths of the new Tiles.
+     * @param idxInAll35 The index of the new Tiles in all35Tiles().
+     * @param rotation   The rotation of the new Tiles, in degrees.
      */
-    private Tiles(ArrayList<Pair<Port, Port>> paths) {
+    private Tiles(ArrayList<Pair<Port, Port>> paths, int idxInAll35, int rotation) {
         this.paths = paths;
+        this.idxInAll35 = idxInAll35;
+        this.rotation = rotation;
     }
 
     /**
@@ -137,12 +211,48 @@ public class Tiles implements Serializable {
         return this.idxInAll35;
     }
 
+    /**
+    * @return This Tile's index in all 35 Tiles shifted left by two, or'd with
+    *         its number of 90 degree clockwise turns
+    */
+    public int getCode() {
+        return (this.idxInAll35 << 2) | (this.rotation / 90);
+    }
+
+    /**
+    * @return The code of the rotation of this Tile that is used to stand for
+    *         every rotation connecting the same ports, as by canonicalCode()
+    */
+    public int getCanonicalCode() {
+        return canonicalCode(this.getCode());
+    }
+
+    /**
+    * @return The shared Tiles for the canonical rotation of this Tile, which
+    *         connects the same ports as this Tile
+    */
+    public Tiles canonical() {
+        int code = this.getCanonicalCode();
+        return variant(code >>> 2, code & 3);
+    }
+
     /**
     * The drawing of a Tile
     * @param g The graphics component
     * @param d The dimension component
     */
     public void drawTile(Graphics g, Dimension d) {
+        this.drawTile(g, d, null);
+    }
+
+    /**
+    * The drawing of a Tile along with the Avatars standing on its ports
+    * @param g The graphics component
+    * @param d The dimension component
+    * @param avatars The Avatar at each port, indexed by Port.PortName ordinal,
+    *                or null if no Avatars should be drawn
+    */
+    public void drawTile(Graphics g, Dimension d, Avatar[] avatars) {
         HashMap<Port.PortName, Pair<Integer, Integer>> cords = createCords(d);
         Graphics2D g2 = (Graphics2D) g;
         float width = 3;
@@ -168,15 +278,20 @@ public class Tiles implements Serializable {
                     cords.get(thisPath.snd.getName()).snd);
             g2.draw(path);
 
-            if (thisPath.fst.getHasAvatar()) {
+            if (avatars == null) {
+                continue;
+            }
+            Avatar fstAvatar = avatars[thisPath.fst.getName().ordinal()];
+            Avatar sndAvatar = avatars[thisPath.snd.getName().ordinal()];
+            if (fstAvatar != null) {
                 Pair<Integer, Integer> cordsPathFirst = getAvatarCords(cords.get(thisPath.fst.getName()), d);
-                Color col = thisPath.fst.getAvatar().getColor().getColorObject();
+                Color col = fstAvatar.getColor().getColorObject();
                 g.setColor(col);
                 g.fillOval(cordsPathFirst.fst, cordsPathFirst.snd, 15, 15);
 
-            } else if (thisPath.snd.getHasAvatar()) {
+            } else if (sndAvatar != null) {
                 Pair<Integer, Integer> cordsPathSecond = getAvatarCords(cords.get(thisPath.snd.getName()), d);
-                Color col = thisPath.snd.getAvatar().getColor().getColorObject();
+                Color col = sndAvatar.getColor().getColorObject();
                 g.setColor(col);
                 g.fillOval(cordsPathSecond.fst,
                         cordsPathSecond.snd, 15, 15);
@@ -196,67 +311,9 @@ public class Tiles implements Serializable {
         }
     }
 
-    public Port.PortName getAvatarPort(Avatar avatar) {
-        for (Pair<Port, Port> path : paths) {
-            if (path.fst.getHasAvatar() && path.fst.getAvatar().getColor().toString().equals(avatar.getColor().toString())) {
-                return path.fst.getName();
-            } else if (path.snd.getHasAvatar() && path.snd.getAvatar().getColor().toString().equals(avatar.getColor().toString())) {
-                return path.snd.getName();
-            }
-        }
-        throw new IllegalArgumentException("Given avatar was not found on any of the tile's ports");
-    }
-
-    public void moveAvatarInTile(Avatar avatar) {
-        Port.PortName p = getAvatarPort(avatar);
-        for (Pair<Port, Port> path : paths) {
-            if (p.toString().equals(path.fst.getName().toString())) {
-                path.fst.removeAvatar();
-                path.snd.addAvatar(avatar);
-            }
-            if (p.toString().equals(path.snd.getName().toString())) {
-                path.snd.removeAvatar();
-                path.fst.addAvatar(avatar);
-            }
-        }
-    }
-
-    /**
-     * Places an Avatar onto a given location on this Tiles.
-     *
-     * @param name   The name of the port onto which the Avatar should be placed.
-     * @param avatar The Avatar to be placed.
-     */
-    public void placeAvatar(Port.PortName name, Avatar avatar) {
-        // Check each path for the given name.
-        for (Pair<Port, Port> path : paths) {
-            Port end1 = path.fst;
-            Port end2 = path.snd;
-
-            // If one of these ports has the given name, then add the Avatar.
-            if (end1.getName().equals(name)) {
-                end1.addAvatar(avatar);
-            } else if (end2.getName().equals(name)) {
-                end2.addAvatar(avatar);
-            }
-        }
-    }
-
-    public void removeAvatar(Avatar avatar) {
-        for (Pair<Port, Port> path : this.paths) {
-            if (path.fst.getHasAvatar() &&
-                    path.fst.getAvatar().getColor().toString().equals(avatar.getColor().toString())) {
-                path.fst.removeAvatar();
-            }
-            if (path.snd.getHasAvatar() &&
-                    path.snd.getAvatar().getColor().toString().equals(avatar.getColor().toString())) {
-                path.snd.removeAvatar();
-            }
-        }
-    }
-
     /**
-     * Gives a rotated version of this Tiles.
+     * Gives a rotated version of this Tiles. The result is the shared instance
+     * from the registry of all tile rotations, so no Tiles are created.
      *
      * @param degrees The number of degrees to be rotated by.
      * @return A version of this Tiles, rotated by the given angle.
@@ -272,14 +329,20 @@ public class Tiles implements Serializable {
                     "one of: 90, 180, 270.");
         }
 
-        // Process rotation:
-        int numOf90s = degrees / 90;
-        Tiles postRotation = this;
-        for (int ii = 0; ii < numOf90s; ++ii) {
-            postRotation = postRotation.rotateClockwise();
-        }
+        // Look up the rotation relative to this Tiles' current one:
+        int numOf90s = (this.rotation + degrees) / 90;
+        return variant(this.idxInAll35, numOf90s & 3);
+    }
 
-        return postRotation;
+    /**
+     * Gives the shared instance of the given tile under the given rotation.
+     *
+     * @param tileId   The index of the tile in all35Tiles().
+     * @param rotation The number of 90 degree clockwise turns (0-3).
+     * @return The registered Tiles for this tile and rotation.
+     */
+    public static Tiles variant(int tileId, int rotation) {
+        return VARIANTS[(tileId << 2) | rotation];
     }
 
     /**
@@ -289,30 +352,135 @@ public class Tiles implements Serializable {
      * @param entryPoint The entry Port.PortName of the path to be traced.
      * @return The other end of the traced path.
      */
-    public Port.PortName trace(Port.PortName entryPoint, boolean physicalMove) {
-        // Check each path on this Tiles:
-        for (Pair<Port, Port> path : this.paths) {
-            // Gets other end of the requested path.
-            if (path.fst.getName() == entryPoint) {
-                if (physicalMove) {
-                    Avatar avatar = path.fst.getAvatar();
-                    path.fst.removeAvatar();
-                    path.snd.addAvatar(avatar);
-                    avatar.setCurrentPort(path.snd.getName());
+    public Port.PortName trace(Port.PortName entryPoint) {
+        return Port.PortName.fromIndex(trace(this.idxInAll35, this.rotation / 90,
+                entryPoint.ordinal()));
+    }
+
+    /**
+     * Follows the path entered at the given port on the given tile and rotation
+     * and gives the index of that path's other end. This is a single lookup
+     * into the precomputed connection table.
+     *
+     * @param tileId    The index of the tile in all35Tiles().
+     * @param rotation  The number of 90 degree clockwise turns (0-3).
+     * @param entryPort The ordinal of the Port.PortName being entered.
+     * @return The ordinal of the Port.PortName at the other end of the path.
+     */
+    public static int trace(int tileId, int rotation, int entryPort) {
+        return traceCode((tileId << 2) | rotation, entryPort);
+    }
+
+    /**
+     * Follows the path entered at the given port on the tile with the given
+     * code, as given by getCode(), and gives the index of that path's other
+     * end.
+     *
+     * @param tileCode  The code of the tile and its rotation.
+     * @param entryPort The ordinal of the Port.PortName being entered.
+     * @return The ordinal of the Port.PortName at the other end of the path.
+     */
+    public static int traceCode(int tileCode, int entryPort) {
+        return CONNECTIONS[(tileCode << 3) | entryPort];
+    }
+
+    /**
+     * Gives the number of quarter turns after which the given tile looks the
+     * same again. Rotations r and r + rotationPeriod() of a tile connect the
+     * same ports, so only rotations below the period are distinct.
+     *
+     * @param tileId The index of the tile in all35Tiles().
+     * @return 1 if the tile is the same under every rotation, 2 if only under
+     * half turns, or 4 if under none.
+     */
+    public static int rotationPeriod(int tileId) {
+        return ROTATION_PERIODS[tileId];
+    }
+
+    /**
+     * Gives the canonical code of the given tile code. Every rotation of a tile
+     * that connects the same ports has the same canonical code, namely that of
+     * the lowest such rotation, so placements that look the same can be
+     * treated as one.
+     *
+     * @param tileCode The code of a tile and its rotation, as by getCode().
+     * @return The code of the tile under its lowest equivalent rotation.
+     */
+    public static int canonicalCode(int tileCode) {
+        // Periods are powers of two, so the rotation is reduced by masking.
+        return tileCode & (~3 | (ROTATION_PERIODS[tileCode >>> 2] - 1));
+    }
+
+    /**
+     * Gives the distinct rotations of the given tile, which are its rotations
+     * by fewer quarter turns than rotationPeriod().
+     *
+     * @param tileId The index of the tile in all35Tiles().
+     * @return An unmodifiable list of the shared Tiles for each distinct
+     * rotation, starting from 0 degrees.
+     */
+    public static List<Tiles> distinctRotations(int tileId) {
+        return DISTINCT_ROTATIONS.get(tileId);
+    }
+
+    /**
+     * Builds the connection table for all tiles under all rotations from
+     * TILE_DEFINITIONS.
+     *
+     * @return The flattened connection table.
+     */
+    private static byte[] buildConnections() {
+        byte[] connections = new byte[NUM_TILES * NUM_ROTATIONS * 8];
+        for (int tileId = 0; tileId < NUM_TILES; ++tileId) {
+            String[] def = TILE_DEFINITIONS[tileId];
+            for (int rotation = 0; rotation < NUM_ROTATIONS; ++rotation) {
+                int base = ((tileId << 2) | rotation) << 3;
+                for (int ii = 0; ii < 8; ii += 2) {
+                    int end1 = Port.PortName.rotateIndex(
+                            Port.PortName.valueOf(def[ii]).ordinal(), rotation);
+                    int end2 = Port.PortName.rotateIndex(
+                            Port.PortName.valueOf(def[ii + 1]).ordinal(), rotation);
+                    connections[base | end1] = (byte) end2;
+                    connections[base | end2] = (byte) end1;
                 }
-                return path.snd.getName();
             }
-            if (path.snd.getName() == entryPoint) {
-                if (physicalMove) {
-                    Avatar avatar = path.snd.getAvatar();
-                    path.snd.removeAvatar();
-                    path.fst.addAvatar(avatar);
-                    avatar.setCurrentPort(path.fst.getName());
-                }
-                return path.fst.getName();
+        }
+        return connections;
+    }
+
+    /**
+     * Builds the table of rotation periods from the connection table, by
+     * finding the first rotation whose connections match the unrotated tile.
+     *
+     * @return The rotation period of every tile.
+     */
+    private static byte[] buildRotationPeriods() {
+        byte[] periods = new byte[NUM_TILES];
+        for (int tileId = 0; tileId < NUM_TILES; ++tileId) {
+            int period = 1;
+            while (period < NUM_ROTATIONS && !sameConnections(tileId << 2, (tileId << 2) | period)) {
+                period <<= 1;
             }
+            periods[tileId] = (byte) period;
         }
-        return null;
+        return periods;
+    }
+
+    /**
+     * Checks if the tiles with the given codes connect every port to the same
+     * port.
+     *
+     * @param code1 The code of the first tile and its rotation.
+     * @param code2 The code of the second tile and its rotation.
+     * @return True if the two connect the same ports.
+     */
+    private static boolean sameConnections(int code1, int code2) {
+        for (int port = 0; port < 8; ++port) {
+            if (CONNECTIONS[(code1 << 3) | port] != CONNECTIONS[(code2 << 3) | port]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -335,22 +503,13 @@ public class Tiles implements Serializable {
         // checks the origin ports of each of the expectedDestinationPorts and
         // adds them to the container list
         for (Port.PortName destinationPort : expectedDestinationPorts) {
-            Port.PortName beginningPort = trace(destinationPort, false);
+            Port.PortName beginningPort = trace(destinationPort);
             validPorts.add(beginningPort);
         }
 
         return validPorts;
     }
     
-    public void trimOuterAvatars(ArrayList<Port.PortName> outerPorts) {
-        for (Port.PortName portName : outerPorts) {
-            Port port = this.getPort(portName);
-            if (port.getHasAvatar()) {
-                port.removeAvatar();
-            }
-        }
-    }
-
     /**
     * Create cords for paths
     * @param d The dimension component
@@ -403,10 +562,50 @@ public class Tiles implements Serializable {
         }
 
         // Return new Tiles with the rotated Paths.
-        return new Tiles(newPaths);
+        return new Tiles(newPaths, this.idxInAll35, (this.rotation + 90) % 360);
+    }
+
+    /**
+     * Builds the registry of every tile under every rotation. Rotated variants
+     * are derived from the 0 degree tile once, here, rather than on every call
+     * to rotate().
+     *
+     * @return The registered Tiles, indexed by tile * 4 + rotation.
+     */
+    private static Tiles[] buildVariants() {
+        Tiles[] variants = new Tiles[NUM_TILES * NUM_ROTATIONS];
+        for (int tileId = 0; tileId < NUM_TILES; ++tileId) {
+            String[] def = TILE_DEFINITIONS[tileId];
+            Tiles variant = new Tiles(def[0], def[1],
+                    def[2], def[3],
+                    def[4], def[5],
+                    def[6], def[7], tileId);
+            for (int rotation = 0; rotation < NUM_ROTATIONS; ++rotation) {
+                variants[(tileId << 2) | rotation] = variant;
+                variant = variant.rotateClockwise();
+            }
+        }
+        return variants;
     }
     
     
+    /**
+     * Builds the lists of distinct rotations of every tile from the registry.
+     *
+     * @return The distinct rotations of every tile.
+     */
+    private static List<List<Tiles>> buildDistinctRotations() {
+        List<List<Tiles>> distinct = new ArrayList<>(NUM_TILES);
+        for (int tileId = 0; tileId < NUM_TILES; ++tileId) {
+            ArrayList<Tiles> rotations = new ArrayList<>(rotationPeriod(tileId));
+            for (int rotation = 0; rotation < rotationPeriod(tileId); ++rotation) {
+                rotations.add(variant(tileId, rotation));
+            }
+            distinct.add(Collections.unmodifiableList(rotations));
+        }
+        return distinct;
+    }
+
     @Override
     public String toString() {
         Pair<Port, Port> path0 = this.paths.get(0);
@@ -433,187 +632,16 @@ public class Tiles implements Serializable {
     }
     
     /**
-     * Create ArrayList of all 35 distinct Tsuro Tiles.
+     * Create ArrayList of all 35 distinct Tsuro Tiles. The Tiles are the shared,
+     * unrotated instances from the registry.
      *
      * @return List of all 35 distinct Tsuro Tiles.
      */
     public static ArrayList<Tiles> all35Tiles() {
-        ArrayList<Tiles> distinctTiles = new ArrayList<>();
-        // Tile 0
-        distinctTiles.add(new Tiles("S2", "S1",
-                "E2", "E1",
-                "N2", "N1",
-                "W2", "W1", 0));
-        // Tile 1
-        distinctTiles.add(new Tiles("S2", "S1",
-                "E2", "E1",
-                "N2", "W2",
-                "N1", "W1", 1));
-        // Tile 2
-        distinctTiles.add(new Tiles("S2", "S1",
-                "E2", "E1",
-                "N2", "W1",
-                "N1", "W2", 2));
-        // Tile 3
-        distinctTiles.add(new Tiles("S2", "S1",
-                "E2", "N2",
-                "E1", "W2",
-                "N1", "W1", 3));
-        // Tile 4
-        distinctTiles.add(new Tiles("S2", "S1",
-                "E2", "N2",
-                "E1", "W1",
-                "N1", "W2", 4));
-        // Tile 5
-        distinctTiles.add(new Tiles("S2", "S1",
-                "E2", "N1",
-                "E1", "W2",
-                "N2", "W1", 5));
-        // Tile 6
-        distinctTiles.add(new Tiles("S2", "S1",
-                "E2", "N1",
-                "E1", "W1",
-                "N2", "W2", 6));
-        // Tile 7
-        distinctTiles.add(new Tiles("S2", "S1",
-                "E2", "W2",
-                "E1", "N2",
-                "N1", "W1", 7));
-        // Tile 8
-        distinctTiles.add(new Tiles("S2", "S1",
-                "E2", "W2",
-                "E1", "N1",
-                "N2", "W1", 8));
-        // Tile 9
-        distinctTiles.add(new Tiles("S2", "S1",
-                "E2", "W2",
-                "E1", "W1",
-                "N2", "N1", 9));
-        // Tile 10
-        distinctTiles.add(new Tiles("S2", "S1",
-                "E2", "W1",
-                "E1", "N2",
-                "N1", "W2", 10));
-        // Tile 11
-        distinctTiles.add(new Tiles("S2", "S1",
-                "E2", "W1",
-                "E1", "N1",
-                "N2", "W2", 11));
-        // Tile 12
-        distinctTiles.add(new Tiles("S2", "S1",
-                "E2", "W1",
-                "E1", "W2",
-                "N2", "N1", 12));
-        // Tile 13
-        distinctTiles.add(new Tiles("S2", "E2",
-                "S1", "E1",
-                "N2", "W2",
-                "N1", "W1", 13));
-        // Tile 14
-        distinctTiles.add(new Tiles("S2", "E2",
-                "S1", "E1",
-                "N2", "W1",
-                "N1", "W2", 14));
-        // Tile 15
-        distinctTiles.add(new Tiles("S2", "E2",
-                "S1", "N2",
-                "E1", "W2",
-                "N1", "W1", 15));
-        // Tile 16
-        distinctTiles.add(new Tiles("S2", "E2",
-                "S1", "N2",
-                "E1", "W1",
-                "N1", "W2", 16));
-        // Tile 17
-        distinctTiles.add(new Tiles("S2", "E2",
-                "S1", "N1",
-                "E1", "W2",
-                "N2", "W1", 17));
-        // Tile 18
-        distinctTiles.add(new Tiles("S2", "E2",
-                "S1", "N1",
-                "E1", "W1",
-                "N2", "W2", 18));
-        // Tile 19
-        distinctTiles.add(new Tiles("S2", "E2",
-                "S1", "W2",
-                "E1", "N2",
-                "N1", "W1", 19));
-        // Tile 20
-        distinctTiles.add(new Tiles("S2", "E2",
-                "S1", "W2",
-                "E1", "N1",
-                "N2", "W1", 20));
-        // Tile 21
-        distinctTiles.add(new Tiles("S2", "E2",
-                "S1", "W1",
-                "E1", "N2",
-                "N1", "W2", 21));
-        // Tile 22
-        distinctTiles.add(new Tiles("S2", "E2",
-                "S1", "W1",
-                "E1", "N1",
-                "N2", "W2", 22));
-        // Tile 23
-        distinctTiles.add(new Tiles("S2", "E1",
-                "S1", "E2",
-                "N2", "W1",
-                "N1", "W2", 23));
-        // Tile 24
-        distinctTiles.add(new Tiles("S2", "E1",
-                "S1", "N2",
-                "E2", "W2",
-                "N1", "W1", 24));
-        // Tile 25
-        distinctTiles.add(new Tiles("S2", "E1",
-                "S1", "N2",
-                "E2", "W1",
-                "N1", "W2", 25));
-        // Tile 26
-        distinctTiles.add(new Tiles("S2", "E1",
-                "S1", "N1",
-                "E2", "W2",
-                "N2", "W1", 26));
-        // Tile 27
-        distinctTiles.add(new Tiles("S2", "E1",
-                "S1", "W2",
-                "E2", "N1",
-                "N2", "W1", 27));
-        // Tile 28
-        distinctTiles.add(new Tiles("S2", "N2",
-                "S1", "E2",
-                "E1", "W2",
-                "N1", "W1", 28));
-        // Tile 29
-        distinctTiles.add(new Tiles("S2", "N2",
-                "S1", "E2",
-                "E1", "W1",
-                "N1", "W2", 29));
-        // Tile 30
-        distinctTiles.add(new Tiles("S2", "N2",
-                "S1", "E1",
-                "E2", "W2",
-                "N1", "W1", 30));
-        // Tile 31
-        distinctTiles.add(new Tiles("S2", "N2",
-                "S1", "N1",
-                "E2", "W2",
-                "E1", "W1", 31));
-        // Tile 32
-        distinctTiles.add(new Tiles("S2", "N2",
-                "S1", "N1",
-                "E2", "W1",
-                "E1", "W2", 32));
-        // Tile 33
-        distinctTiles.add(new Tiles("S2", "N1",
-                "S1", "N2",
-                "E2", "W1",
-                "E1", "W2", 33));
-        // Tile 34
-        distinctTiles.add(new Tiles("S2", "W1",
-                "S1", "E2",
-                "E1", "N2",
-                "N1", "W2", 34));
+        ArrayList<Tiles> distinctTiles = new ArrayList<>(NUM_TILES);
+        for (int ii = 0; ii < NUM_TILES; ++ii) {
+            distinctTiles.add(variant(ii, 0));
+        }
         return distinctTiles;
     }
 }
@@ -0,0 +1,113 @@
+/**
+ * A cache of path traces on a Board, keyed by the slot, entry port and tile
+ * of the trace. The same trace is asked for many times a turn, as both the
+ * Referee and the Players check every tile and rotation of a hand for death.
+ * <p>
+ * A trace only depends on the tiles it passes through, all of which stay on
+ * the board, and on the emptiness of the slot it starts in and the slot its
+ * end faces. So placing a tile only invalidates entries for those two slots,
+ * which is checked when an entry is read by comparing when it was stored with
+ * when those slots last changed. Removing a tile invalidates every entry.
+ */
+public class TraceCache {
+    private static final int SIZE_BITS = 12;
+
+    private BitBoard bitBoard;
+    private long[] keys;
+    private int[] ends;
+    private int[] stamps;
+    private int[] changedAt;
+    private int clearedAt;
+    private int version;
+    private long lookups;
+    private long misses;
+
+    /**
+     * Constructs an empty cache for traces over the given BitBoard.
+     *
+     * @param bitBoard The BitBoard of the Board being traced over.
+     */
+    public TraceCache(BitBoard bitBoard) {
+        this.bitBoard = bitBoard;
+        this.keys = new long[1 << SIZE_BITS];
+        this.ends = new int[1 << SIZE_BITS];
+        this.stamps = new int[1 << SIZE_BITS];
+        this.changedAt = new int[bitBoard.numSlots()];
+        this.version = 1;
+    }
+
+    /**
+     * Traces a path as BitBoard.trace() does, reusing an earlier result if it
+     * is still valid.
+     *
+     * @param row       The first coordinate of the starting slot.
+     * @param col       The second coordinate of the starting slot.
+     * @param tileCode  The code of the tile at, or to be placed at, the slot.
+     * @param port      The ordinal of the starting port.
+     * @param firstMove If true, the starting port is an entry to the slot's tile
+     *                  rather than an exit.
+     * @return The end of the path, packed as by BitBoard.trace().
+     */
+    public int trace(int row, int col, int tileCode, int port, boolean firstMove) {
+        int slot = this.bitBoard.slotIndex(row, col);
+        // Keys are offset by one so that an empty entry never matches.
+        long key = ((((long) slot << 8 | tileCode) << 3 | port) << 1 | (firstMove ? 1 : 0)) + 1;
+        int entry = (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - SIZE_BITS));
+        ++this.lookups;
+
+        if (this.keys[entry] == key) {
+            int stamp = this.stamps[entry];
+            int end = this.ends[entry];
+            int facing = this.bitBoard.neighbourSlot(end >>> 3, BitBoard.packedPort(end));
+            if (stamp >= this.clearedAt && stamp >= this.changedAt[slot]
+                    && stamp >= this.changedAt[facing]) {
+                return end;
+            }
+        }
+
+        ++this.misses;
+        int end = this.bitBoard.trace(row, col, tileCode, port, firstMove);
+        this.keys[entry] = key;
+        this.ends[entry] = end;
+        this.stamps[entry] = this.version;
+        return end;
+    }
+
+    /**
+     * Records that a tile was put in the given slot, invalidating the traces
+     * that start in or end facing it.
+     *
+     * @param row The first coordinate of the slot.
+     * @param col The second coordinate of the slot.
+     */
+    public void tilePlaced(int row, int col) {
+        this.changedAt[this.bitBoard.slotIndex(row, col)] = ++this.version;
+    }
+
+    /**
+     * Records that a tile was taken off the board, invalidating every trace,
+     * since any of them may have passed through it.
+     */
+    public void tileRemoved() {
+        this.clearedAt = ++this.version;
+    }
+
+    /**
+     * Gives the number of traces asked of this cache.
+     *
+     * @return The number of calls to trace() so far.
+     */
+    public long getLookups() {
+        return this.lookups;
+    }
+
+    /**
+     * Gives the number of traces that could not be answered from this cache
+     * and were walked on the BitBoard.
+     *
+     * @return The number of cache misses so far.
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+}
@@ -0,0 +1,188 @@
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of search results keyed by the Zobrist key of a position,
+ * for strategies that reach the same position by different orders of moves.
+ * <p>
+ * Entries live in a single long[], two longs each: the entry's data, and the
+ * data XOR'd with its key. An entry only counts as found if the two agree with
+ * the key, so a read racing a write from another thread sees either a whole
+ * entry or a miss, and the table needs no locks. The data packs the value as a
+ * float in the low 32 bits, then eight bits of depth, two bits of bound, and a
+ * bit marking the entry as used, so an empty entry is all zeroes.
+ * <p>
+ * Entries are grouped in buckets of two. The first keeps the deepest result
+ * stored to the bucket, and the second takes whatever the first turns away,
+ * so a table that is full keeps its most expensive results while still
+ * remembering recent ones.
+ */
+public class TranspositionTable {
+    /**
+     * The bound of a value that is exact.
+     */
+    public static final int EXACT = 0;
+    /**
+     * The bound of a value that the true value is at least.
+     */
+    public static final int LOWER_BOUND = 1;
+    /**
+     * The bound of a value that the true value is at most.
+     */
+    public static final int UPPER_BOUND = 2;
+    /**
+     * The greatest depth an entry can record.
+     */
+    public static final int MAX_DEPTH = 0xFF;
+    /**
+     * What probe() gives when a key is not in the table.
+     */
+    public static final long MISS = 0;
+
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final long USED = 1L << 42;
+
+    private long[] entries;
+    private int bucketMask;
+
+    /**
+     * Constructs an empty TranspositionTable holding at most the given number
+     * of entries, rounded down to a power of two. Each entry takes 16 bytes.
+     *
+     * @param capacity The greatest number of entries to hold.
+     * @throws IllegalArgumentException If the capacity is less than two.
+     */
+    public TranspositionTable(int capacity) throws IllegalArgumentException {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("A TranspositionTable needs room for at least two entries.");
+        }
+        int buckets = Integer.highestOneBit(capacity) / 2;
+        this.entries = new long[buckets * 4];
+        this.bucketMask = buckets - 1;
+    }
+
+    /**
+     * Looks up the entry for the given key.
+     *
+     * @param key The Zobrist key of the position.
+     * @return The entry's packed data, to be read with value(), depth() and
+     * bound(), or MISS if the key is not in the table.
+     */
+    public long probe(long key) {
+        int first = this.bucketIndex(key);
+        for (int ii = first; ii < first + 4; ii += 2) {
+            long data = this.entries[ii + 1];
+            if (data != MISS && (this.entries[ii] ^ data) == key) {
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores a result for the given key. A result already stored for the key
+     * is only replaced by one searched at least as deep.
+     *
+     * @param key   The Zobrist key of the position.
+     * @param value The value found for the position.
+     * @param depth The depth it was searched to, capped at MAX_DEPTH.
+     * @param bound How the value bounds the true value: EXACT, LOWER_BOUND or
+     *              UPPER_BOUND.
+     */
+    public void store(long key, double value, int depth, int bound) {
+        int clamped = Math.max(0, Math.min(depth, MAX_DEPTH));
+        long data = (Float.floatToIntBits((float) value) & 0xFFFFFFFFL)
+                | ((long) clamped << DEPTH_SHIFT) | ((long) bound << BOUND_SHIFT) | USED;
+        int deep = this.bucketIndex(key);
+        int recent = deep + 2;
+
+        for (int ii = deep; ii <= recent; ii += 2) {
+            long stored = this.entries[ii + 1];
+            if (stored != MISS && (this.entries[ii] ^ stored) == key) {
+                if (clamped >= depth(stored)) {
+                    this.write(ii, key, data);
+                }
+                return;
+            }
+        }
+
+        long deepest = this.entries[deep + 1];
+        if (deepest == MISS || clamped >= depth(deepest)) {
+            // The result it displaces is still worth keeping as a recent one.
+            if (deepest != MISS) {
+                this.write(recent, this.entries[deep] ^ deepest, deepest);
+            }
+            this.write(deep, key, data);
+        } else {
+            this.write(recent, key, data);
+        }
+    }
+
+    /**
+     * Empties this TranspositionTable.
+     */
+    public void clear() {
+        Arrays.fill(this.entries, 0);
+    }
+
+    /**
+     * Gives the number of entries this TranspositionTable can hold.
+     *
+     * @return The capacity of the table.
+     */
+    public int getCapacity() {
+        return this.entries.length / 2;
+    }
+
+    /**
+     * Gives the value of an entry found by probe().
+     *
+     * @param data The entry's packed data.
+     * @return The stored value.
+     */
+    public static double value(long data) {
+        return Float.intBitsToFloat((int) data);
+    }
+
+    /**
+     * Gives the depth of an entry found by probe().
+     *
+     * @param data The entry's packed data.
+     * @return The depth the value was searched to.
+     */
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & MAX_DEPTH;
+    }
+
+    /**
+     * Gives the bound of an entry found by probe().
+     *
+     * @param data The entry's packed data.
+     * @return EXACT, LOWER_BOUND or UPPER_BOUND.
+     */
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+
+    /**
+     * Writes an entry into the given place in the table.
+     *
+     * @param index The index of the entry's first long.
+     * @param key   The Zobrist key of the position.
+     * @param data  The entry's packed data.
+     */
+    private void write(int index, long key, long data) {
+        this.entries[index] = key ^ data;
+        this.entries[index + 1] = data;
+    }
+
+    /**
+     * Gives the index of the first long of the bucket for the given key.
+     *
+     * @param key The Zobrist key of the position.
+     * @return The index of the bucket's first entry.
+     */
+    private int bucketIndex(long key) {
+        return ((int) (key ^ (key >>> 32)) & this.bucketMask) << 2;
+    }
+}
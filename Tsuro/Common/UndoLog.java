@@ -0,0 +1,55 @@
+/**
+ * A stack of ints recording how to take back moves made on a Board with
+ * Board.applyMove(). Each move pushes a fixed number of entries for the path
+ * segment index, two entries per Avatar it moved, and then the slot it placed
+ * into and the number of Avatars moved, so the most recent move can be popped
+ * off first. The stack only grows, so walking a game tree in place creates no
+ * objects once it has reached its deepest point.
+ */
+public class UndoLog {
+    private int[] entries;
+    private int size;
+
+    /**
+     * Constructs an empty UndoLog.
+     */
+    public UndoLog() {
+        this.entries = new int[64];
+    }
+
+    /**
+     * Pushes an entry onto this UndoLog.
+     *
+     * @param entry The entry to be pushed.
+     */
+    public void push(int entry) {
+        if (this.size == this.entries.length) {
+            int[] grown = new int[this.entries.length * 2];
+            System.arraycopy(this.entries, 0, grown, 0, this.size);
+            this.entries = grown;
+        }
+        this.entries[this.size++] = entry;
+    }
+
+    /**
+     * Pops the most recently pushed entry off this UndoLog.
+     *
+     * @return The popped entry.
+     * @throws IllegalStateException If this UndoLog is empty.
+     */
+    public int pop() throws IllegalStateException {
+        if (this.size == 0) {
+            throw new IllegalStateException("There are no moves to undo.");
+        }
+        return this.entries[--this.size];
+    }
+
+    /**
+     * Tells if there are no entries on this UndoLog.
+     *
+     * @return True if nothing is left to undo.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * The Zobrist keys used to hash positions on a Board. A position's key is
+ * the XOR of one key for each placed tile, chosen by its slot and canonical
+ * tile code, and one key for each Avatar, chosen by the port it stands on and
+ * its color. So placing a tile or moving an Avatar updates the key with one or
+ * two XORs.
+ * <p>
+ * Keys are derived by mixing their index rather than drawn from a stored
+ * table, so they need no sizing per Board and are the same on every machine,
+ * which lets keys from a Board sent over the network be compared with local
+ * ones.
+ */
+public class Zobrist {
+    private static final long TILE_SALT = 0x5DEECE66DL;
+    private static final long AVATAR_SALT = 0x2545F4914F6CDD1DL;
+    private static final long TURN_SALT = 0x632BE59BD9B4E019L;
+
+    /**
+     * Gives the key for a tile in the given slot.
+     *
+     * @param slot     The index of the slot, as given by BitBoard.slotIndex().
+     * @param tileCode The canonical code of the tile and its rotation.
+     * @return The key of the tile in the slot.
+     */
+    public static long tileKey(int slot, int tileCode) {
+        return mix(TILE_SALT + ((long) slot << 8 | tileCode));
+    }
+
+    /**
+     * Gives the key for an Avatar of the given color standing on the given
+     * port.
+     *
+     * @param port  The port, packed as (slot << 3) | port ordinal.
+     * @param color The ordinal of the Avatar's color.
+     * @return The key of the Avatar on the port.
+     */
+    public static long avatarKey(int port, int color) {
+        return mix(AVATAR_SALT + ((long) port << 3 | color));
+    }
+
+    /**
+     * Gives the key for it being the given player's turn, for searches that
+     * tell apart positions by whose turn it is.
+     *
+     * @param color The ordinal of the color of the player to move.
+     * @return The key of the player's turn.
+     */
+    public static long turnKey(int color) {
+        return mix(TURN_SALT + color);
+    }
+
+    /**
+     * Scrambles the given value with the finalizer of the SplitMix64
+     * generator, so that nearby indices give unrelated keys.
+     *
+     * @param value The value to be scrambled.
+     * @return The scrambled value.
+     */
+    private static long mix(long value) {
+        long zz = value + 0x9E3779B97F4A7C15L;
+        zz = (zz ^ (zz >>> 30)) * 0xBF58476D1CE4E5B9L;
+        zz = (zz ^ (zz >>> 27)) * 0x94D049BB133111EBL;
+        return zz ^ (zz >>> 31);
+    }
+}
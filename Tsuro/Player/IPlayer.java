@@ -46,8 +46,22 @@ public interface IPlayer extends Comparable<IPlayer> {
 
     ArrayList<Tiles> confiscateTiles();
 
+    /**
+     * Gives this Player the Board as it now is. With a move deadline, this is
+     * a copy of the Player's own; without one, it is the Referee's Board, and
+     * must be left as it was found.
+     *
+     * @param b The Board.
+     */
     void updateBoard(Board b);
 
+    /**
+     * Gives up on this Player, which took too long to provide a placement:
+     * a remote Player's connection is closed, so that a call still waiting on
+     * it fails at once. Nothing more is sent to the Player.
+     */
+    void disconnect();
+
     /**
      * Gets the color of this Player's Avatar.
      * @return The color of this Player's Avatar.
@@ -67,6 +81,14 @@ public interface IPlayer extends Comparable<IPlayer> {
 
     public void setAvatar(Avatar avatar);
 
+    /**
+     * Tells this Player where its Avatar stands after a placement. The Avatar
+     * given may be a copy, so the Player keeps the Avatar it was set.
+     *
+     * @param avatar The Avatar as it now stands.
+     */
+    void updateAvatar(Avatar avatar);
+
     public void setPosition(Point newPos);
 
     public int getAge();
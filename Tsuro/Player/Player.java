@@ -33,6 +33,11 @@ public class Player implements IPlayer{
     public void updateBoard (Board b){
         this.strategy.updateBoard(b);
     }
+
+    @Override
+    public void disconnect() {
+        // There is no connection to close. A strategy still searching does so on its own copy of the Board.
+    }
     
     /**
     * Runs the given strategy and plays Tsuro accordingly
@@ -46,6 +51,12 @@ public class Player implements IPlayer{
             case "second":
             case "Second":
                 return new Second();
+            case "expectimax":
+            case "Expectimax":
+                return new ExpectimaxStrategy();
+            case "mcts":
+            case "MCTS":
+                return new MctsStrategy();
             default:
                 throw new IllegalArgumentException("Strategy: " + stratName + " is not supported");
         }
@@ -106,6 +117,7 @@ public class Player implements IPlayer{
     @Override
     public JsonArray provideInitPlacement() {
         JsonArray response = new JsonArray();
+        this.strategy.updateHand(this.avatar, this.tileHand);
         int optionIdx = this.strategy.chooseInitialTile();
         Tiles chosenTile = this.tileHand.remove(optionIdx);
         Point chosenPos = this.strategy.chooseInitPosition();
@@ -167,6 +179,7 @@ public class Player implements IPlayer{
     public JsonArray provideInterPlacement() {
 
         JsonArray response = new JsonArray();
+        this.strategy.updateHand(this.avatar, this.tileHand);
         int optionIdx = this.strategy.chooseIntermediateTile();
         Tiles chosenTile = this.tileHand.remove(optionIdx);
         Point chosenPos = this.chooseInterPosition();
@@ -186,6 +199,11 @@ public class Player implements IPlayer{
         this.avatar = avatar;
     }
 
+    @Override
+    public void updateAvatar(Avatar avatar) {
+        // The Avatar this Player was set is the one the Referee moves.
+    }
+
     public boolean hasExited() {
         return this.avatar.hasExited();
     }
@@ -213,36 +231,13 @@ public class Player implements IPlayer{
      * @return True if this Avatar has no valid moves left.
      */
     public boolean hasNoMoves(Board board, Tiles placingTile, boolean firstMove) {
-
-        Location here = new Location(this.avatar);
-        Location toPlace = here.advance();
-        
-        // Options for rotations:
-        int[] degrees = {0, 90, 180, 270};
-    
-    /*
-       For each tile in the hand and every way it can be rotated, check if that
-       placement would end in death.
-     */
+        /*
+           Check every tile in the hand, along with the one being placed, in
+           every way it can be rotated.
+         */
         ArrayList<Tiles> checkingTiles = new ArrayList<>(this.tileHand);
         checkingTiles.add(placingTile);
-        for (Tiles tile : checkingTiles) {
-            if (tile == null) {
-                continue;
-            }
-            for (int numDegrees : degrees) {
-                boolean isMoveSuicidal = Rules.willEndInDeath(board, toPlace.getCol(),
-                        toPlace.getRow(), toPlace.getPortName(), tile.rotate(numDegrees),
-                        true);
-                if (!isMoveSuicidal) {
-                    /// If any moves will not end in death, then return false.
-                    return false;
-                }
-            }
-        }
-        
-        // If all moves will end in death, then return true.
-        return true;
+        return !Rules.legalMoves(board, this.avatar, checkingTiles).hasSafeMove();
     }
     
     public boolean hasFullHand() {
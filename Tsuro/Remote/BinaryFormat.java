@@ -0,0 +1,558 @@
+import com.google.gson.JsonArray;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The compact binary protocol spoken between a GameServer and a Client that
+ * offer it, in place of serialized Strings of commands and JSON.
+ * <p>
+ * A Client offers it by adding OFFER to its name and strategy. A server that
+ * understands replies ACCEPT, still as a serialized String, and both ends
+ * send only frames from then on. A server that does not ignores the offer,
+ * and the Client keeps to the old protocol.
+ * <p>
+ * A frame is its length in two bytes, counting neither of them, then a one
+ * byte opcode and the payload. Tiles are sent as their code, as by
+ * Tiles.getCode(), rotations as quarter turns, and colors, ports and
+ * coordinates as one byte each.
+ * <p>
+ * Boards are numbered by the server. Once the Client has acknowledged a
+ * version, the server need only send what has changed since, and sends the
+ * whole Board again if the Client says it holds none.
+ */
+public final class BinaryFormat {
+    /**
+     * Added to the Client's name and strategy to offer the binary protocol.
+     */
+    public static final String OFFER = "binary1";
+    /**
+     * The server's reply to an offer it accepts.
+     */
+    public static final String ACCEPT = "Use binary protocol 1";
+
+    /**
+     * Server to Client: the Player's Avatar.
+     */
+    public static final byte AVATAR = 0x01;
+    /**
+     * Server to Client: the Player's hand for the next round.
+     */
+    public static final byte HAND = 0x02;
+    /**
+     * Server to Client: the whole Board.
+     */
+    public static final byte BOARD = 0x03;
+    /**
+     * Server to Client: the changes to the Board since a version the Client
+     * acknowledged.
+     */
+    public static final byte BOARD_DELTA = 0x09;
+    /**
+     * Server to Client: asks for an initial placement.
+     */
+    public static final byte PROVIDE_INIT = 0x04;
+    /**
+     * Server to Client: asks for an intermediate placement.
+     */
+    public static final byte PROVIDE_INTER = 0x05;
+    /**
+     * Server to Client: the Player has won.
+     */
+    public static final byte WON = 0x06;
+    /**
+     * Server to Client: the Player was eliminated.
+     */
+    public static final byte ELIMINATED = 0x07;
+    /**
+     * Server to Client: the Player was kicked.
+     */
+    public static final byte KICKED = 0x08;
+    /**
+     * Client to server: an initial placement.
+     */
+    public static final byte INIT_PLACEMENT = 0x11;
+    /**
+     * Client to server: an intermediate placement.
+     */
+    public static final byte INTER_PLACEMENT = 0x12;
+    /**
+     * Client to server: the version of the Board the Client holds.
+     */
+    public static final byte BOARD_ACK = 0x13;
+
+    /**
+     * The longest a frame may be, not counting its length.
+     */
+    public static final int MAX_FRAME = 0xFFFF;
+
+    private static final int NO_TILE = 0xFF;
+    private static final int HAS_PORT = 0x08;
+    private static final int EXITED = 0x80;
+
+    private BinaryFormat() {
+    }
+
+    /**
+     * Starts a frame with the given opcode, leaving room for its length.
+     *
+     * @param opcode   The opcode.
+     * @param capacity The most bytes of payload that will follow.
+     * @return The frame, ready for the payload to be put.
+     */
+    private static ByteBuffer start(byte opcode, int capacity) {
+        ByteBuffer frame = ByteBuffer.allocate(3 + capacity);
+        frame.putShort((short) 0).put(opcode);
+        return frame;
+    }
+
+    /**
+     * Writes the length of the given frame and makes it ready to be written.
+     *
+     * @param frame The frame, with its whole payload put.
+     * @return The same frame.
+     * @throws IllegalArgumentException If the frame is too long.
+     */
+    private static ByteBuffer finish(ByteBuffer frame) throws IllegalArgumentException {
+        int length = frame.position() - 2;
+        if (length > MAX_FRAME) {
+            throw new IllegalArgumentException("Frame of " + length + " bytes is too long.");
+        }
+        frame.putShort(0, (short) length);
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * Gives a frame with the given opcode and no payload.
+     *
+     * @param opcode The opcode.
+     * @return The frame, ready to be written.
+     */
+    public static ByteBuffer encodeSignal(byte opcode) {
+        return finish(start(opcode, 0));
+    }
+
+    /**
+     * Gives a frame of the given Avatar: its color, port and whether it has
+     * exited in one byte, then its row and column.
+     *
+     * @param avatar The Avatar.
+     * @return The frame, ready to be written.
+     */
+    public static ByteBuffer encodeAvatar(Avatar avatar) {
+        ByteBuffer frame = start(AVATAR, 3);
+        Port.PortName port = avatar.getCurrentPort();
+        int flags = (avatar.getColor().ordinal() << 4)
+                | (port == null ? 0 : HAS_PORT | port.ordinal())
+                | (avatar.hasExited() ? EXITED : 0);
+        frame.put((byte) flags).put((byte) avatar.getPos().x).put((byte) avatar.getPos().y);
+        return finish(frame);
+    }
+
+    /**
+     * Reads an Avatar from the payload of an AVATAR frame.
+     *
+     * @param payload The payload.
+     * @return The Avatar.
+     */
+    public static Avatar decodeAvatar(ByteBuffer payload) {
+        int flags = payload.get() & 0xFF;
+        Avatar avatar = new Avatar(colorName((flags >> 4) & 0x07));
+        int row = payload.get() & 0xFF;
+        int column = payload.get() & 0xFF;
+        if ((flags & HAS_PORT) != 0) {
+            avatar.updatePosition(row, column, Port.PortName.fromIndex(flags & 0x07));
+        } else {
+            avatar.updatePosition(row, column);
+        }
+        if ((flags & EXITED) != 0) {
+            avatar.setExited();
+        }
+        return avatar;
+    }
+
+    /**
+     * Gives a frame of the given hand: the number of tiles, then their codes.
+     *
+     * @param hand The tiles in the hand.
+     * @return The frame, ready to be written.
+     */
+    public static ByteBuffer encodeHand(List<Tiles> hand) {
+        ByteBuffer frame = start(HAND, 1 + hand.size());
+        frame.put((byte) hand.size());
+        for (Tiles tile : hand) {
+            frame.put((byte) tile.getCode());
+        }
+        return finish(frame);
+    }
+
+    /**
+     * Reads a hand from the payload of a HAND frame.
+     *
+     * @param payload The payload.
+     * @return The tiles in the hand.
+     */
+    public static ArrayList<Tiles> decodeHand(ByteBuffer payload) {
+        int size = payload.get() & 0xFF;
+        ArrayList<Tiles> hand = new ArrayList<>(size);
+        for (int ii = 0; ii < size; ++ii) {
+            hand.add(decodeTile(payload.get() & 0xFF));
+        }
+        return hand;
+    }
+
+    /**
+     * Gives the code of the tile in each slot of the given Board, row by row,
+     * as the frames of Boards carry them.
+     *
+     * @param board The Board.
+     * @return The code of each tile, or NO_TILE for empty slots.
+     */
+    public static byte[] tileCodes(Board board) {
+        int width = board.getWidth();
+        byte[] codes = new byte[board.getHeight() * width];
+        Tiles[][] grid = board.getGrid();
+        for (int row = 0; row < board.getHeight(); ++row) {
+            for (int col = 0; col < width; ++col) {
+                Tiles tile = grid[row][col];
+                codes[row * width + col] = (byte) (tile == null ? NO_TILE : tile.getCode());
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Gives a frame of the given Board: the version, its height and width, the
+     * code of the tile in each slot, row by row, then its Avatars.
+     *
+     * @param version The version of the Board, as counted by the sender.
+     * @param codes   The code of each tile, as by tileCodes().
+     * @param board   The Board.
+     * @return The frame, ready to be written.
+     */
+    public static ByteBuffer encodeBoard(int version, byte[] codes, Board board) {
+        ByteBuffer frame = start(BOARD, 4 + 2 + codes.length + avatarsCapacity());
+        frame.putInt(version).put((byte) board.getHeight()).put((byte) board.getWidth()).put(codes);
+        putAvatars(frame, board, codes);
+        return finish(frame);
+    }
+
+    /**
+     * Reads a Board from the payload of a BOARD frame, after its version.
+     *
+     * @param payload The payload, with the version read.
+     * @return The Board, with its tiles and Avatars but no Referee.
+     */
+    public static Board decodeBoard(ByteBuffer payload) {
+        int height = payload.get() & 0xFF;
+        int width = payload.get() & 0xFF;
+        Board board = new Board(height, width);
+        for (int row = 0; row < height; ++row) {
+            for (int col = 0; col < width; ++col) {
+                int code = payload.get() & 0xFF;
+                if (code != NO_TILE) {
+                    board.placeTile(row, col, decodeTile(code), null, true);
+                }
+            }
+        }
+        readAvatars(payload, board);
+        return board;
+    }
+
+    /**
+     * Gives a frame of the changes to a Board since an earlier version: the
+     * earlier version and this one, the number of tiles placed since, the row,
+     * column and code of each, then every Avatar. Tiles are never taken off a
+     * Board in a game, so such changes cannot be sent this way.
+     *
+     * @param base      The earlier version.
+     * @param version   The version of the Board now.
+     * @param baseCodes The code of each tile in the earlier version.
+     * @param codes     The code of each tile now.
+     * @param board     The Board now.
+     * @return The frame, ready to be written, or null if a tile was taken off
+     * or the Board is too large for a delta to be shorter.
+     */
+    public static ByteBuffer encodeBoardDelta(int base, int version, byte[] baseCodes, byte[] codes,
+                                              Board board) {
+        int width = board.getWidth();
+        int changed = 0;
+        for (int ii = 0; ii < codes.length; ++ii) {
+            if (codes[ii] != baseCodes[ii]) {
+                if (codes[ii] == (byte) NO_TILE) {
+                    return null;
+                }
+                ++changed;
+            }
+        }
+        if (changed > 0xFF) {
+            return null;
+        }
+        ByteBuffer frame = start(BOARD_DELTA, 8 + 1 + 3 * changed + avatarsCapacity());
+        frame.putInt(base).putInt(version).put((byte) changed);
+        for (int ii = 0; ii < codes.length; ++ii) {
+            if (codes[ii] != baseCodes[ii]) {
+                frame.put((byte) (ii / width)).put((byte) (ii % width)).put(codes[ii]);
+            }
+        }
+        putAvatars(frame, board, codes);
+        return finish(frame);
+    }
+
+    /**
+     * Applies the changes in the payload of a BOARD_DELTA frame to the given
+     * Board, if it holds a version the changes can be applied to: the earlier
+     * version they are from, or a later one.
+     *
+     * @param payload The payload.
+     * @param board   The Board, or null if none is held.
+     * @param held    The version of the Board.
+     * @return The version of the Board once changed, or -1 if the changes
+     * could not be applied and the Board was left as it was.
+     */
+    public static int applyBoardDelta(ByteBuffer payload, Board board, int held) {
+        int base = payload.getInt();
+        int version = payload.getInt();
+        if (board == null || held < base || held >= version) {
+            return -1;
+        }
+        int changed = payload.get() & 0xFF;
+        for (int ii = 0; ii < changed; ++ii) {
+            int row = payload.get() & 0xFF;
+            int col = payload.get() & 0xFF;
+            Tiles tile = decodeTile(payload.get() & 0xFF);
+            Tiles current = board.getTileAt(row, col);
+            if (current == null || current.getCode() != tile.getCode()) {
+                board.placeTile(row, col, tile, null, true);
+            }
+        }
+        readAvatars(payload, board);
+        return version;
+    }
+
+    /**
+     * Gives a frame acknowledging that the Client holds the given version of
+     * the Board.
+     *
+     * @param version The version, or 0 if the Client holds none and needs
+     *                the whole Board.
+     * @return The frame, ready to be written.
+     */
+    public static ByteBuffer encodeBoardAck(int version) {
+        ByteBuffer frame = start(BOARD_ACK, 4);
+        frame.putInt(version);
+        return finish(frame);
+    }
+
+    /**
+     * Gives the most bytes the Avatars on a Board take in a frame.
+     *
+     * @return The number of bytes.
+     */
+    private static int avatarsCapacity() {
+        return 1 + 3 * Avatar.AvatarColor.values().length;
+    }
+
+    /**
+     * Puts the Avatars on the given Board: their number, then the color and
+     * port, row and column of each.
+     *
+     * @param frame The frame.
+     * @param board The Board.
+     * @param codes The code of each tile on the Board, as by tileCodes().
+     */
+    private static void putAvatars(ByteBuffer frame, Board board, byte[] codes) {
+        int width = board.getWidth();
+        int countAt = frame.position();
+        int count = 0;
+        frame.put((byte) 0);
+        for (int ii = 0; ii < codes.length; ++ii) {
+            // Avatars only ever stand on tiles.
+            if (codes[ii] == (byte) NO_TILE) {
+                continue;
+            }
+            Avatar[] avatars = board.getAvatarsAt(ii / width, ii % width);
+            for (int port = 0; port < avatars.length; ++port) {
+                if (avatars[port] != null) {
+                    frame.put((byte) ((avatars[port].getColor().ordinal() << 3) | port))
+                            .put((byte) (ii / width)).put((byte) (ii % width));
+                    ++count;
+                }
+            }
+        }
+        frame.put(countAt, (byte) count);
+    }
+
+    /**
+     * Reads Avatars put by putAvatars() and stands them on the given Board.
+     *
+     * @param payload The payload.
+     * @param board   The Board.
+     */
+    private static void readAvatars(ByteBuffer payload, Board board) {
+        int count = payload.get() & 0xFF;
+        for (int ii = 0; ii < count; ++ii) {
+            int colorAndPort = payload.get() & 0xFF;
+            int row = payload.get() & 0xFF;
+            int col = payload.get() & 0xFF;
+            Port.PortName port = Port.PortName.fromIndex(colorAndPort & 0x07);
+            Avatar standing = board.getAvatarAt(row, col, port);
+            if (standing == null || standing.getColor().ordinal() != colorAndPort >> 3) {
+                board.putAvatar(row, col, port, new Avatar(colorName(colorAndPort >> 3)));
+            }
+        }
+    }
+
+    /**
+     * Gives a frame of the given initial placement: the tile's index, its
+     * quarter turns, the color, the port, then the row and column.
+     *
+     * @param placement The placement, as a Player provides it.
+     * @return The frame, ready to be written.
+     */
+    public static ByteBuffer encodeInitPlacement(JsonArray placement) {
+        ByteBuffer frame = start(INIT_PLACEMENT, 6);
+        frame.put((byte) placement.get(0).getAsInt())
+                .put((byte) (placement.get(1).getAsInt() / 90))
+                .put((byte) Avatar.AvatarColor.mapColor(placement.get(2).getAsString()).ordinal())
+                .put((byte) Port.PortName.valueOf(placement.get(3).getAsString()).ordinal())
+                .put((byte) placement.get(4).getAsInt())
+                .put((byte) placement.get(5).getAsInt());
+        return finish(frame);
+    }
+
+    /**
+     * Reads an initial placement from the payload of an INIT_PLACEMENT frame.
+     *
+     * @param payload The payload.
+     * @return The placement, as a Player provides it.
+     */
+    public static JsonArray decodeInitPlacement(ByteBuffer payload) {
+        JsonArray placement = new JsonArray();
+        placement.add(payload.get() & 0xFF);
+        placement.add((payload.get() & 0xFF) * 90);
+        placement.add(colorName(payload.get() & 0xFF));
+        placement.add(Port.PortName.fromIndex(payload.get() & 0x07).name());
+        placement.add(payload.get() & 0xFF);
+        placement.add(payload.get() & 0xFF);
+        return placement;
+    }
+
+    /**
+     * Gives a frame of the given intermediate placement: the color, the
+     * tile's index, its quarter turns, then the row and column.
+     *
+     * @param placement The placement, as a Player provides it.
+     * @return The frame, ready to be written.
+     */
+    public static ByteBuffer encodeInterPlacement(JsonArray placement) {
+        ByteBuffer frame = start(INTER_PLACEMENT, 5);
+        frame.put((byte) Avatar.AvatarColor.mapColor(placement.get(0).getAsString()).ordinal())
+                .put((byte) placement.get(1).getAsInt())
+                .put((byte) (placement.get(2).getAsInt() / 90))
+                .put((byte) placement.get(3).getAsInt())
+                .put((byte) placement.get(4).getAsInt());
+        return finish(frame);
+    }
+
+    /**
+     * Reads an intermediate placement from the payload of an INTER_PLACEMENT
+     * frame.
+     *
+     * @param payload The payload.
+     * @return The placement, as a Player provides it.
+     */
+    public static JsonArray decodeInterPlacement(ByteBuffer payload) {
+        JsonArray placement = new JsonArray();
+        placement.add(colorName(payload.get() & 0xFF));
+        placement.add(payload.get() & 0xFF);
+        placement.add((payload.get() & 0xFF) * 90);
+        placement.add(payload.get() & 0xFF);
+        placement.add(payload.get() & 0xFF);
+        return placement;
+    }
+
+    /**
+     * Reads the next whole frame from the given bytes, if they hold all of it.
+     * The buffer is left after the frame if one was read, or where it was if
+     * not.
+     *
+     * @param in The bytes read so far, ready to be read from.
+     * @return The opcode and payload of the frame, or null if more bytes are
+     * needed.
+     * @throws IOException If the frame has no opcode.
+     */
+    public static ByteBuffer decodeFrame(ByteBuffer in) throws IOException {
+        if (in.remaining() < 2) {
+            return null;
+        }
+        int length = in.getShort(in.position()) & 0xFFFF;
+        if (length == 0) {
+            throw new IOException("Frame without an opcode.");
+        }
+        if (in.remaining() < 2 + length) {
+            return null;
+        }
+        ByteBuffer frame = ByteBuffer.allocate(length);
+        ByteBuffer body = in.duplicate();
+        body.position(in.position() + 2).limit(in.position() + 2 + length);
+        frame.put(body).flip();
+        in.position(in.position() + 2 + length);
+        return frame;
+    }
+
+    /**
+     * Waits for the next frame on the given stream.
+     *
+     * @param in The stream.
+     * @return The opcode and payload of the frame.
+     * @throws IOException If the stream ended or broke before a whole frame.
+     */
+    public static ByteBuffer readFrame(DataInputStream in) throws IOException {
+        int length = in.readUnsignedShort();
+        if (length == 0) {
+            throw new IOException("Frame without an opcode.");
+        }
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+        return ByteBuffer.wrap(frame);
+    }
+
+    /**
+     * Writes the given frame to the given stream and flushes it.
+     *
+     * @param out   The stream.
+     * @param frame The frame, ready to be written.
+     * @throws IOException If the stream broke.
+     */
+    public static void writeFrame(OutputStream out, ByteBuffer frame) throws IOException {
+        out.write(frame.array(), frame.position(), frame.remaining());
+        out.flush();
+    }
+
+    /**
+     * Gives the tile with the given code.
+     *
+     * @param code The code, as by Tiles.getCode().
+     * @return The tile.
+     */
+    private static Tiles decodeTile(int code) {
+        return Tiles.variant(code >>> 2, code & 3);
+    }
+
+    /**
+     * Gives the name of the Avatar color with the given ordinal, as Players
+     * name it.
+     *
+     * @param ordinal The ordinal of the color.
+     * @return The name of the color.
+     */
+    private static String colorName(int ordinal) {
+        return Avatar.AvatarColor.values()[ordinal].name().toLowerCase();
+    }
+}
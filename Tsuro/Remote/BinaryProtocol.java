@@ -0,0 +1,119 @@
+import com.google.gson.JsonArray;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * The binary protocol laid out by BinaryFormat, spoken with Clients that
+ * offered it. Boards are sent as the changes since the version the Client
+ * last acknowledged.
+ */
+public class BinaryProtocol implements RemoteProtocol {
+    private FrameChannel channel;
+    private BoardHistory history;
+    private Board board;
+
+    /**
+     * Constructs a BinaryProtocol over the given channel.
+     *
+     * @param channel The channel to the Client, already switched to frames.
+     */
+    public BinaryProtocol(FrameChannel channel) {
+        this.channel = channel;
+        this.history = new BoardHistory();
+    }
+
+    @Override
+    public void sendAvatar(Avatar avatar) throws IOException {
+        this.channel.sendFrame(BinaryFormat.encodeAvatar(avatar));
+    }
+
+    @Override
+    public void sendHand(List<Tiles> hand) throws IOException {
+        this.channel.sendFrame(BinaryFormat.encodeHand(hand));
+    }
+
+    @Override
+    public void sendBoard(Board board) throws IOException {
+        ByteBuffer frame = this.channel.pollFrame();
+        while (frame != null) {
+            this.handleUnasked(frame);
+            frame = this.channel.pollFrame();
+        }
+        this.board = board;
+        this.channel.sendFrame(this.history.update(board));
+    }
+
+    @Override
+    public JsonArray requestInitPlacement() throws IOException {
+        this.channel.sendFrame(BinaryFormat.encodeSignal(BinaryFormat.PROVIDE_INIT));
+        return BinaryFormat.decodeInitPlacement(this.expect(BinaryFormat.INIT_PLACEMENT));
+    }
+
+    @Override
+    public JsonArray requestInterPlacement() throws IOException {
+        this.channel.sendFrame(BinaryFormat.encodeSignal(BinaryFormat.PROVIDE_INTER));
+        return BinaryFormat.decodeInterPlacement(this.expect(BinaryFormat.INTER_PLACEMENT));
+    }
+
+    @Override
+    public void notifyWinner() throws IOException {
+        this.channel.sendFrame(BinaryFormat.encodeSignal(BinaryFormat.WON));
+    }
+
+    @Override
+    public void notifyEliminated() throws IOException {
+        this.channel.sendFrame(BinaryFormat.encodeSignal(BinaryFormat.ELIMINATED));
+    }
+
+    @Override
+    public void notifyKicked() throws IOException {
+        this.channel.sendFrame(BinaryFormat.encodeSignal(BinaryFormat.KICKED));
+    }
+
+    @Override
+    public void abort() {
+        this.channel.abort();
+    }
+
+    /**
+     * Waits for the next frame with the given opcode, handling any that the
+     * Client sends unasked before it. A Client that says it holds no Board
+     * while it is being waited on is sent the whole Board at once, as it
+     * cannot answer without one.
+     *
+     * @param opcode The opcode expected.
+     * @return The payload of the frame.
+     * @throws IOException If no frame came, or one with another opcode did.
+     */
+    private ByteBuffer expect(byte opcode) throws IOException {
+        ByteBuffer frame = this.channel.receiveFrame();
+        while (frame.get(0) != opcode) {
+            if (this.handleUnasked(frame) && this.board != null) {
+                this.channel.sendFrame(this.history.update(this.board));
+            }
+            frame = this.channel.receiveFrame();
+        }
+        frame.get();
+        return frame;
+    }
+
+    /**
+     * Handles a frame the Client sent without being asked, which can only be
+     * an acknowledgement of a Board.
+     *
+     * @param frame The frame.
+     * @return True if the Client holds no Board and needs the whole of it.
+     * @throws IOException If the frame is anything else.
+     */
+    private boolean handleUnasked(ByteBuffer frame) throws IOException {
+        byte opcode = frame.get();
+        if (opcode != BinaryFormat.BOARD_ACK) {
+            throw new IOException("Unexpected opcode " + opcode + ".");
+        }
+        int version = frame.getInt();
+        this.history.acknowledge(version);
+        return version == 0;
+    }
+}
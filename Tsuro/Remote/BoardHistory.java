@@ -0,0 +1,75 @@
+import java.nio.ByteBuffer;
+import java.util.TreeMap;
+
+/**
+ * The versions of the Board sent to one Client, kept from the last one the
+ * Client acknowledged, so that each update need only carry what has changed
+ * since a version the Client is known to hold.
+ */
+public class BoardHistory {
+    // Past this, a Client that does not acknowledge is sent whole Boards.
+    private static final int MAX_UNACKNOWLEDGED = 64;
+
+    private int version;
+    private int acknowledged;
+    private TreeMap<Integer, byte[]> sent;
+
+    /**
+     * Constructs a BoardHistory for a Client that holds no Board yet.
+     */
+    public BoardHistory() {
+        this.sent = new TreeMap<>();
+    }
+
+    /**
+     * Gives the frame that brings the Client up to date with the given Board,
+     * and numbers it as the next version: the changes since the version the
+     * Client last acknowledged, or the whole Board if there is none to build
+     * on.
+     *
+     * @param board The Board.
+     * @return The frame, ready to be written.
+     */
+    public ByteBuffer update(Board board) {
+        byte[] codes = BinaryFormat.tileCodes(board);
+        byte[] base = this.sent.get(this.acknowledged);
+        ++this.version;
+        ByteBuffer frame = null;
+        if (base != null && base.length == codes.length) {
+            frame = BinaryFormat.encodeBoardDelta(this.acknowledged, this.version, base, codes, board);
+        }
+        if (frame == null) {
+            frame = BinaryFormat.encodeBoard(this.version, codes, board);
+        }
+        this.sent.put(this.version, codes);
+        if (this.sent.size() > MAX_UNACKNOWLEDGED) {
+            this.sent.pollFirstEntry();
+        }
+        return frame;
+    }
+
+    /**
+     * Records that the Client holds the given version. Versions before it
+     * are no longer needed. A Client that holds none, as after reconnecting,
+     * is sent the whole Board next.
+     *
+     * @param version The version, or 0 for none.
+     */
+    public void acknowledge(int version) {
+        if (version <= 0 || !this.sent.containsKey(version)) {
+            this.acknowledged = 0;
+            return;
+        }
+        this.acknowledged = version;
+        this.sent.headMap(version).clear();
+    }
+
+    /**
+     * Gives the version of the last Board sent.
+     *
+     * @return The version, or 0 if none has been sent.
+     */
+    public int getVersion() {
+        return this.version;
+    }
+}
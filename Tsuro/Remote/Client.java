@@ -5,6 +5,7 @@ import jdk.nashorn.internal.runtime.JSONFunctions;
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Scanner;
 import java.util.logging.FileHandler;
@@ -29,16 +30,22 @@ public class Client {
       Socket s = new Socket(ip, port);
       
       // obtaining input and out streams
-      ObjectInputStream dis = new ObjectInputStream(s.getInputStream());
+      InputStream in = new BufferedInputStream(s.getInputStream());
+      ObjectInputStream dis = new ObjectInputStream(in);
       ObjectOutputStream dos = new ObjectOutputStream(s.getOutputStream());
       
-      dos.writeObject(name + "," + strategy);
+      // offer the binary protocol; servers that do not know it ignore the offer
+      dos.writeObject(name + "," + strategy + "," + BinaryFormat.OFFER);
       dos.flush();
       
+      String serverCommand = dis.readObject().toString();
+      if (serverCommand.equals(BinaryFormat.ACCEPT)) {
+        playBinary(player, s, new DataInputStream(in));
+        return;
+      }
+      
       while (true)
       {
-        
-        String serverCommand = dis.readObject().toString();
         switch (serverCommand){
           case "Referee assigned you an avatar":
             String stringAvatar = dis.readObject().toString();
@@ -77,6 +84,7 @@ public class Client {
             break;
           default: throw new IllegalStateException(serverCommand + " is not a valid server request");
         }
+        serverCommand = dis.readObject().toString();
       }
   
     } catch (ClassNotFoundException e) {
@@ -85,4 +93,86 @@ public class Client {
       System.out.println(player.getName() + " has closed connection");
     }
   }
+  
+  /**
+   * Plays out the game over the binary protocol, once the server has
+   * accepted it. The Board is kept between turns and brought up to date with
+   * the changes the server sends, and every version is acknowledged. If the
+   * changes cannot be applied, the whole Board is asked for, and a request
+   * for a placement waits until it comes.
+   *
+   * @param player The Player playing the game.
+   * @param s      The socket to the server.
+   * @param in     The stream from the server, after the server's acceptance.
+   * @throws IOException If the connection broke.
+   */
+  private static void playBinary(Player player, Socket s, DataInputStream in) throws IOException {
+    OutputStream out = new BufferedOutputStream(s.getOutputStream());
+    Board board = null;
+    int version = 0;
+    byte pending = 0;
+    while (true)
+    {
+      ByteBuffer frame = BinaryFormat.readFrame(in);
+      byte opcode = frame.get();
+      boolean request = opcode == BinaryFormat.PROVIDE_INIT || opcode == BinaryFormat.PROVIDE_INTER;
+      if (request && version == 0) {
+        // the whole Board has been asked for and is on its way
+        pending = opcode;
+        continue;
+      }
+      switch (opcode){
+        case BinaryFormat.AVATAR:
+          player.setAvatar(BinaryFormat.decodeAvatar(frame));
+          break;
+        case BinaryFormat.HAND:
+          player.setTileHand(BinaryFormat.decodeHand(frame));
+          break;
+        case BinaryFormat.BOARD:
+          version = frame.getInt();
+          board = BinaryFormat.decodeBoard(frame);
+          player.updateBoard(board);
+          BinaryFormat.writeFrame(out, BinaryFormat.encodeBoardAck(version));
+          if (pending != 0) {
+            answer(player, out, pending);
+            pending = 0;
+          }
+          break;
+        case BinaryFormat.BOARD_DELTA:
+          version = Math.max(0, BinaryFormat.applyBoardDelta(frame, board, version));
+          if (version > 0) {
+            player.updateBoard(board);
+          }
+          BinaryFormat.writeFrame(out, BinaryFormat.encodeBoardAck(version));
+          break;
+        case BinaryFormat.PROVIDE_INIT:
+        case BinaryFormat.PROVIDE_INTER:
+          answer(player, out, opcode);
+          break;
+        case BinaryFormat.WON:
+        case BinaryFormat.ELIMINATED:
+        case BinaryFormat.KICKED:
+          s.close();
+          System.out.println(player.getName() + " has closed connection");
+          return;
+        default: throw new IllegalStateException(opcode + " is not a valid server opcode");
+      }
+    }
+  }
+  
+  /**
+   * Sends the server the placement it asked for.
+   *
+   * @param player The Player making the placement.
+   * @param out    The stream to the server.
+   * @param opcode The opcode of the server's request.
+   * @throws IOException If the connection broke.
+   */
+  private static void answer(Player player, OutputStream out, byte opcode) throws IOException {
+    if (opcode == BinaryFormat.PROVIDE_INIT) {
+      BinaryFormat.writeFrame(out, BinaryFormat.encodeInitPlacement(player.provideInitPlacement()));
+    } else {
+      BinaryFormat.writeFrame(out, BinaryFormat.encodeInterPlacement(player.provideInterPlacement()));
+    }
+  }
 } 
\ No newline at end of file
@@ -0,0 +1,284 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A MessageChannel over a non-blocking SocketChannel served by a GameServer.
+ * Only the GameServer's selector thread reads from or writes to the socket:
+ * messages sent from game threads are queued until the socket can take them,
+ * and messages read are queued until a game thread asks for one.
+ * <p>
+ * Once the Client and server agree on the binary protocol, the Connection is
+ * switched to frames and is used as a FrameChannel instead.
+ */
+public class Connection implements MessageChannel, FrameChannel {
+    private static final int INITIAL_BUFFER = 1 << 12;
+    // Room for the stream header and the longest message or frame allowed.
+    private static final int MAX_BUFFER = 1 << 17;
+    // Put on the queue of received messages once nothing more will come.
+    private static final Object CLOSED = new Object();
+
+    private SocketChannel channel;
+    private GameServer server;
+    private ObjectStreamCodec codec;
+    private ProxyPlayer player;
+    private ByteBuffer readBuffer;
+    private Queue<ByteBuffer> writes;
+    private BlockingQueue<Object> received;
+    private volatile boolean binary;
+    private volatile boolean closing;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a Connection over the given accepted SocketChannel.
+     *
+     * @param channel The channel, in non-blocking mode.
+     * @param server  The GameServer whose selector serves the channel.
+     */
+    public Connection(SocketChannel channel, GameServer server) {
+        this.channel = channel;
+        this.server = server;
+        this.codec = new ObjectStreamCodec();
+        this.readBuffer = ByteBuffer.allocate(INITIAL_BUFFER);
+        this.writes = new ConcurrentLinkedQueue<>();
+        this.received = new LinkedBlockingQueue<>();
+        // Clients wait for the stream header before saying who they are.
+        this.writes.add(this.codec.encodeHeader());
+    }
+
+    @Override
+    public void send(String message) throws IOException {
+        if (this.closing) {
+            throw new IOException("Connection is closed.");
+        }
+        this.writes.add(this.codec.encode(message));
+        this.server.requestFlush(this);
+    }
+
+    @Override
+    public String receive() throws IOException {
+        Object message = this.take();
+        if (!(message instanceof String)) {
+            throw new IOException("Expected a String message, not a frame.");
+        }
+        return (String) message;
+    }
+
+    @Override
+    public void sendFrame(ByteBuffer frame) throws IOException {
+        if (this.closing) {
+            throw new IOException("Connection is closed.");
+        }
+        this.writes.add(frame);
+        this.server.requestFlush(this);
+    }
+
+    @Override
+    public ByteBuffer receiveFrame() throws IOException {
+        Object frame = this.take();
+        if (!(frame instanceof ByteBuffer)) {
+            throw new IOException("Expected a frame, not a String message.");
+        }
+        return (ByteBuffer) frame;
+    }
+
+    @Override
+    public ByteBuffer pollFrame() {
+        Object frame = this.received.peek();
+        return frame instanceof ByteBuffer ? (ByteBuffer) this.received.poll() : null;
+    }
+
+    /**
+     * Waits for the next message or frame received.
+     *
+     * @return The message or frame.
+     * @throws IOException If the connection was closed before one came.
+     */
+    private Object take() throws IOException {
+        try {
+            Object message = this.received.take();
+            if (message == CLOSED) {
+                this.received.add(CLOSED);
+                throw new IOException("Connection is closed.");
+            }
+            return message;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a message.");
+        }
+    }
+
+    /**
+     * Takes the next message received, if there is one and it is a String,
+     * without waiting.
+     *
+     * @return The message, or null if none has come.
+     */
+    public String poll() {
+        Object message = this.received.peek();
+        return message instanceof String ? (String) this.received.poll() : null;
+    }
+
+    /**
+     * Switches to the binary protocol: everything sent or read from now on is
+     * a frame. The Client must not send frames until it has read everything
+     * sent before the switch, so nothing read before it is a frame.
+     */
+    void useFrames() {
+        this.binary = true;
+    }
+
+    @Override
+    public void close() {
+        this.closing = true;
+        this.server.requestFlush(this);
+    }
+
+    /**
+     * Closes the socket at once, from any thread, dropping whatever has not
+     * been written and waking anything waiting for a message. Unlike close(),
+     * this does not wait for the Client to read what was sent, so it also
+     * closes a Client that has stopped reading.
+     */
+    @Override
+    public void abort() {
+        SelectionKey key = this.getKey();
+        if (key != null) {
+            key.cancel();
+        }
+        this.shutDown();
+    }
+
+    /**
+     * Gets the Player this Connection is to.
+     *
+     * @return The Player, or null if the Client has not yet said who it is.
+     */
+    public ProxyPlayer getPlayer() {
+        return this.player;
+    }
+
+    /**
+     * Sets the Player this Connection is to, once the Client has said who it
+     * is.
+     *
+     * @param player The Player.
+     */
+    void setPlayer(ProxyPlayer player) {
+        this.player = player;
+    }
+
+    /**
+     * Gets the key of the socket with the GameServer's selector.
+     *
+     * @return The key, or null if the socket is not registered.
+     */
+    SelectionKey getKey() {
+        return this.channel.keyFor(this.server.getSelector());
+    }
+
+    /**
+     * Checks if this Connection has been closed, by either end.
+     *
+     * @return True if no more messages will be sent or received.
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * Reads what the socket has and queues every whole message in it. Only
+     * called on the selector thread. The socket is shut down if the Client
+     * sends something longer than a message may be.
+     */
+    void onReadable() {
+        try {
+            if (this.channel.read(this.readBuffer) < 0) {
+                this.shutDown();
+                return;
+            }
+            this.readBuffer.flip();
+            Object message = this.decode();
+            while (message != null) {
+                this.received.add(message);
+                message = this.decode();
+            }
+            this.readBuffer.compact();
+            if (!this.readBuffer.hasRemaining()) {
+                if (this.readBuffer.capacity() >= MAX_BUFFER) {
+                    this.shutDown();
+                    return;
+                }
+                ByteBuffer larger = ByteBuffer.allocate(this.readBuffer.capacity() * 2);
+                this.readBuffer.flip();
+                larger.put(this.readBuffer);
+                this.readBuffer = larger;
+            }
+        } catch (IOException io) {
+            this.shutDown();
+        }
+    }
+
+    /**
+     * Reads the next whole message or frame from the bytes read so far.
+     *
+     * @return The message or frame, or null if more bytes are needed.
+     * @throws IOException If the bytes are not what the protocol expects.
+     */
+    private Object decode() throws IOException {
+        return this.binary ? BinaryFormat.decodeFrame(this.readBuffer) : this.codec.decode(this.readBuffer);
+    }
+
+    /**
+     * Writes as much of the queued messages as the socket will take, and
+     * closes the socket if this Connection is closing and all of them are
+     * written. Only called on the selector thread.
+     *
+     * @param key The key of the channel with the selector.
+     */
+    void onWritable(SelectionKey key) {
+        try {
+            ByteBuffer next = this.writes.peek();
+            while (next != null) {
+                this.channel.write(next);
+                if (next.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                this.writes.poll();
+                next = this.writes.peek();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            if (this.closing) {
+                this.shutDown();
+            }
+        } catch (IOException io) {
+            this.shutDown();
+        }
+    }
+
+    /**
+     * Closes the socket at once, waking anything waiting for a message. Called
+     * on the selector thread, or by abort() on a game thread.
+     */
+    synchronized void shutDown() {
+        if (this.closed) {
+            return;
+        }
+        this.closing = true;
+        this.closed = true;
+        this.writes.clear();
+        this.received.add(CLOSED);
+        try {
+            this.channel.close();
+        } catch (IOException io) {
+            io.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A connection to a remote Player that has switched to the binary protocol,
+ * over which whole frames are exchanged, as laid out by BinaryFormat.
+ */
+public interface FrameChannel {
+    /**
+     * Sends a frame to the other end.
+     *
+     * @param frame The frame, with its length, ready to be written.
+     * @throws IOException If the frame could not be sent.
+     */
+    void sendFrame(ByteBuffer frame) throws IOException;
+
+    /**
+     * Waits for the next frame from the other end.
+     *
+     * @return The opcode and payload of the frame.
+     * @throws IOException If the connection was closed or broke before a
+     *                     frame came.
+     */
+    ByteBuffer receiveFrame() throws IOException;
+
+    /**
+     * Takes the next frame from the other end, if one has come, without
+     * waiting.
+     *
+     * @return The opcode and payload of the frame, or null if none has come.
+     * @throws IOException If the connection broke.
+     */
+    ByteBuffer pollFrame() throws IOException;
+
+    /**
+     * Closes the connection at once, dropping anything not yet sent, and
+     * wakes anything waiting for a frame.
+     */
+    void abort();
+}
@@ -0,0 +1,382 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A Tsuro server that keeps accepting Clients and plays many games at once.
+ * <p>
+ * One selector thread accepts connections and does all reading and writing
+ * for every Client, without blocking. Clients that have sent their name and
+ * strategy wait in a lobby, which becomes a game as soon as it has five
+ * Players, or once it has at least three and has been open for the lobby
+ * wait. Each game is played by a Referee on a fixed pool of game threads, so
+ * the number of games played at once is bounded; lobbies that fill while
+ * every game thread is busy wait their turn. Players that take longer than
+ * the move deadline over a placement are kicked, so one stalled Client
+ * cannot hold up its game.
+ * <p>
+ * Clients speak the same protocol as they do with TsuroServer, unless they
+ * offer the binary protocol of BinaryFormat, which is then used instead.
+ */
+public class GameServer {
+    /**
+     * The fewest Players a game is started with.
+     */
+    public static final int MIN_PLAYERS = 3;
+    /**
+     * The most Players a game is started with.
+     */
+    public static final int MAX_PLAYERS = 5;
+    /**
+     * The default number of games played at once.
+     */
+    public static final int DEFAULT_MAX_GAMES = 256;
+    /**
+     * The default time a lobby of at least three waits for more Players.
+     */
+    public static final long DEFAULT_LOBBY_WAIT_MILLIS = 30000;
+    /**
+     * The default time a Player may take over a placement before it is
+     * kicked.
+     */
+    public static final long DEFAULT_MOVE_DEADLINE_MILLIS = 10000;
+
+    private InetSocketAddress address;
+    private int maxGames;
+    private long lobbyWaitMillis;
+    private long moveDeadlineMillis;
+    private Logger logger;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private ExecutorService games;
+    private Queue<Connection> toFlush;
+    private ArrayList<Connection> lobby;
+    private long lobbyOpenedAt;
+    private AtomicInteger gamesStarted;
+    private AtomicInteger gamesFinished;
+    private volatile boolean running;
+
+    /**
+     * Constructs a GameServer.
+     *
+     * @param ip              The address to listen on.
+     * @param port            The port to listen on.
+     * @param maxGames        The most games to play at once.
+     * @param lobbyWaitMillis    How long a lobby of at least three Players
+     *                           waits for more before its game starts.
+     * @param moveDeadlineMillis How long a Player may take over a placement
+     *                           before it is kicked, or 0 for no limit.
+     * @param logger             Where messages to and from Clients are logged.
+     * @throws IllegalArgumentException If no games could be played.
+     */
+    public GameServer(InetAddress ip, int port, int maxGames, long lobbyWaitMillis,
+                      long moveDeadlineMillis, Logger logger) throws IllegalArgumentException {
+        if (maxGames < 1) {
+            throw new IllegalArgumentException("A server must be able to play at least one game.");
+        }
+        this.address = new InetSocketAddress(ip, port);
+        this.maxGames = maxGames;
+        this.lobbyWaitMillis = lobbyWaitMillis;
+        this.moveDeadlineMillis = moveDeadlineMillis;
+        this.logger = logger;
+        this.toFlush = new ConcurrentLinkedQueue<>();
+        this.lobby = new ArrayList<>();
+        this.gamesStarted = new AtomicInteger();
+        this.gamesFinished = new AtomicInteger();
+    }
+
+    /**
+     * Serves Clients until stop() is called, then waits for the games being
+     * played to finish.
+     *
+     * @throws IOException If the server could not listen on its address.
+     */
+    public void run() throws IOException {
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(this.address);
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+        this.games = Executors.newFixedThreadPool(this.maxGames);
+        this.running = true;
+
+        try {
+            while (this.running || this.gamesFinished.get() < this.gamesStarted.get()) {
+                if (!this.running && this.serverChannel.isOpen()) {
+                    this.closeLobby();
+                }
+                this.selector.select(this.millisUntilLobbyCloses());
+                this.flushRequested();
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        this.accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    if (key.isWritable()) {
+                        connection.onWritable(key);
+                    }
+                    if (key.isValid() && key.isReadable()) {
+                        connection.onReadable();
+                        if (connection.getPlayer() == null) {
+                            this.join(connection);
+                        }
+                    }
+                }
+                if (this.running) {
+                    this.startLobbyIfReady();
+                }
+            }
+        } finally {
+            this.games.shutdownNow();
+            this.serverChannel.close();
+            for (SelectionKey key : this.selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    ((Connection) key.attachment()).shutDown();
+                }
+            }
+            this.selector.close();
+        }
+    }
+
+    /**
+     * Stops accepting Clients and disconnects those waiting in the lobby.
+     *
+     * @throws IOException If the listening socket could not be closed.
+     */
+    private void closeLobby() throws IOException {
+        this.serverChannel.close();
+        for (Connection connection : this.lobby) {
+            connection.shutDown();
+        }
+        this.lobby.clear();
+    }
+
+    /**
+     * Stops accepting Clients. Games being played are finished first, and
+     * run() returns once they have.
+     */
+    public void stop() {
+        this.running = false;
+        if (this.selector != null) {
+            this.selector.wakeup();
+        }
+    }
+
+    /**
+     * Gives the number of games started so far.
+     *
+     * @return The number of games.
+     */
+    public int getGamesStarted() {
+        return this.gamesStarted.get();
+    }
+
+    /**
+     * Gives the number of games finished so far.
+     *
+     * @return The number of games.
+     */
+    public int getGamesFinished() {
+        return this.gamesFinished.get();
+    }
+
+    /**
+     * Gets the selector that serves every Connection.
+     *
+     * @return The selector.
+     */
+    Selector getSelector() {
+        return this.selector;
+    }
+
+    /**
+     * Asks the selector thread to write what the given Connection has queued.
+     *
+     * @param connection The Connection.
+     */
+    void requestFlush(Connection connection) {
+        this.toFlush.add(connection);
+        this.selector.wakeup();
+    }
+
+    /**
+     * Writes what every Connection that asked has queued, as far as their
+     * sockets will take it.
+     */
+    private void flushRequested() {
+        Connection connection = this.toFlush.poll();
+        while (connection != null) {
+            if (!connection.isClosed()) {
+                SelectionKey key = connection.getKey();
+                if (key != null && key.isValid()) {
+                    connection.onWritable(key);
+                }
+            }
+            connection = this.toFlush.poll();
+        }
+    }
+
+    /**
+     * Accepts a waiting Client.
+     *
+     * @throws IOException If the Client could not be registered.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = this.serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        SelectionKey key = channel.register(this.selector, SelectionKey.OP_READ, new Connection(channel, this));
+        ((Connection) key.attachment()).onWritable(key);
+    }
+
+    /**
+     * Puts the given Client in the lobby, once it has sent its name and
+     * strategy, and accepts the binary protocol if the Client offers it.
+     * Clients that ask for an unknown strategy or a name already in the lobby
+     * are disconnected.
+     *
+     * @param connection The connection to the Client.
+     */
+    private void join(Connection connection) {
+        String hello = connection.poll();
+        if (hello == null) {
+            return;
+        }
+        String[] nameAndStrat = hello.split(",");
+        this.logger.info("<< " + hello);
+        try {
+            boolean binary = nameAndStrat.length == 3 && nameAndStrat[2].equals(BinaryFormat.OFFER);
+            if (nameAndStrat.length != 2 && !binary) {
+                throw new IllegalArgumentException("Expected a name and a strategy, not " + hello);
+            }
+            for (Connection waiting : this.lobby) {
+                if (waiting.getPlayer().getPlayerName().equals(nameAndStrat[0])) {
+                    throw new IllegalArgumentException("Name: " + nameAndStrat[0] + " is already taken.");
+                }
+            }
+            RemoteProtocol protocol = binary ? new BinaryProtocol(connection)
+                    : new JsonProtocol(connection, this.logger, nameAndStrat[0]);
+            ProxyPlayer player = new ProxyPlayer(nameAndStrat[0], MAX_PLAYERS - this.lobby.size(),
+                    nameAndStrat[1], protocol, this.logger);
+            if (binary) {
+                connection.send(BinaryFormat.ACCEPT);
+                connection.useFrames();
+            }
+            connection.setPlayer(player);
+            if (this.lobby.isEmpty()) {
+                this.lobbyOpenedAt = System.currentTimeMillis();
+            }
+            this.lobby.add(connection);
+            this.startLobbyIfReady();
+        } catch (IllegalArgumentException | IOException e) {
+            this.logger.warning(e.getMessage());
+            connection.shutDown();
+        }
+    }
+
+    /**
+     * Gives how long the selector may wait before the lobby must be checked.
+     *
+     * @return The time in milliseconds, or 0 to wait until something happens.
+     */
+    private long millisUntilLobbyCloses() {
+        if (this.lobby.size() < MIN_PLAYERS) {
+            return 0;
+        }
+        long left = this.lobbyOpenedAt + this.lobbyWaitMillis - System.currentTimeMillis();
+        return Math.max(1, left);
+    }
+
+    /**
+     * Starts a game with the lobby if it is full, or if it has waited long
+     * enough with enough Players. Players who left while waiting are dropped.
+     */
+    private void startLobbyIfReady() {
+        this.lobby.removeIf(Connection::isClosed);
+        boolean full = this.lobby.size() == MAX_PLAYERS;
+        boolean waited = this.lobby.size() >= MIN_PLAYERS
+                && System.currentTimeMillis() - this.lobbyOpenedAt >= this.lobbyWaitMillis;
+        if (!full && !waited) {
+            return;
+        }
+        List<Connection> connections = new ArrayList<>(this.lobby);
+        this.lobby.clear();
+        int number = this.gamesStarted.incrementAndGet();
+        this.games.execute(() -> this.playGame(connections, number));
+    }
+
+    /**
+     * Plays a game between the given Players, tells the winners, and
+     * disconnects everyone.
+     *
+     * @param connections The connections to the Players.
+     * @param number      The number of the game, for the log.
+     */
+    private void playGame(List<Connection> connections, int number) {
+        Referee referee = new Referee();
+        referee.setMoveDeadline(this.moveDeadlineMillis);
+        try {
+            for (Connection connection : connections) {
+                referee.addPlayer(connection.getPlayer());
+            }
+            referee.runGame();
+            ArrayList<ArrayList<IPlayer>> eliminated = referee.getEliminated();
+            if (!eliminated.isEmpty()) {
+                for (IPlayer winner : eliminated.get(eliminated.size() - 1)) {
+                    ((ProxyPlayer) winner).notifyWinner();
+                }
+            }
+        } catch (RuntimeException e) {
+            this.logger.log(Level.WARNING, "Game " + number + " failed.", e);
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+            this.gamesFinished.incrementAndGet();
+        }
+    }
+
+    /**
+     * Runs a GameServer until the process is stopped.
+     *
+     * @param args Optionally, the IP address and port to listen on, the most
+     *             games to play at once, the lobby wait and the move deadline
+     *             in milliseconds.
+     * @throws IOException If the server could not listen on its address.
+     */
+    public static void main(String[] args) throws IOException {
+        String ip = args.length > 0 ? args[0] : RunTest.DEFAULT_IP;
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : RunTest.DEFAULT_PORT;
+        int maxGames = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_GAMES;
+        long lobbyWait = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_LOBBY_WAIT_MILLIS;
+        long moveDeadline = args.length > 4 ? Long.parseLong(args[4]) : DEFAULT_MOVE_DEADLINE_MILLIS;
+
+        // Every message is logged at INFO, which is too much for many games.
+        Logger logger = Logger.getLogger(GameServer.class.getName());
+        logger.setLevel(Level.WARNING);
+        new GameServer(InetAddress.getByName(ip), port, maxGames, lobbyWait, moveDeadline, logger).run();
+    }
+}
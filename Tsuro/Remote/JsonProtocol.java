@@ -0,0 +1,88 @@
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * The original protocol: each message is a command String, followed by the
+ * JSON that goes with it as another String. Spoken with Clients that do not
+ * offer the binary protocol, and by TsuroServer.
+ */
+public class JsonProtocol implements RemoteProtocol {
+    private MessageChannel channel;
+    private Logger logger;
+    private String name;
+    private Gson gson;
+
+    /**
+     * Constructs a JsonProtocol over the given channel.
+     *
+     * @param channel The channel to the Client.
+     * @param logger  Where the JSON sent and received is logged.
+     * @param name    The name of the Player, for the log.
+     */
+    public JsonProtocol(MessageChannel channel, Logger logger, String name) {
+        this.channel = channel;
+        this.logger = logger;
+        this.name = name;
+        this.gson = new Gson();
+    }
+
+    @Override
+    public void sendAvatar(Avatar avatar) throws IOException {
+        String avatarString = this.gson.toJson(avatar);
+        this.logger.info(">> To [" + this.name + "]: " + avatarString);
+        this.channel.send("Referee assigned you an avatar");
+        this.channel.send(avatarString);
+    }
+
+    @Override
+    public void sendHand(List<Tiles> hand) throws IOException {
+        String tileHand = this.gson.toJson(hand);
+        this.logger.info(">> To [" + this.name + "]: " + tileHand);
+        this.channel.send("Referee has sent you hand for the next round");
+        this.channel.send(tileHand);
+    }
+
+    @Override
+    public void sendBoard(Board board) throws IOException {
+        String boardString = this.gson.toJson(board);
+        this.logger.info(">> To [" + this.name + "]:  Board JSON - " + boardString);
+        this.channel.send("Referee has sent you updated board state");
+        this.channel.send(boardString);
+    }
+
+    @Override
+    public JsonArray requestInitPlacement() throws IOException {
+        this.channel.send("Provide initial placement");
+        return this.gson.fromJson(this.channel.receive(), JsonArray.class);
+    }
+
+    @Override
+    public JsonArray requestInterPlacement() throws IOException {
+        this.channel.send("Provide intermediate placement");
+        return this.gson.fromJson(this.channel.receive(), JsonArray.class);
+    }
+
+    @Override
+    public void notifyWinner() throws IOException {
+        this.channel.send("Congratulations! You have won");
+    }
+
+    @Override
+    public void notifyEliminated() throws IOException {
+        this.channel.send("You were eliminated from the game!");
+    }
+
+    @Override
+    public void notifyKicked() throws IOException {
+        this.channel.send("You made an illegal move and were kicked from the game!");
+    }
+
+    @Override
+    public void abort() {
+        this.channel.abort();
+    }
+}
@@ -0,0 +1,36 @@
+import java.io.IOException;
+
+/**
+ * A connection to a remote Player, over which the server and the client
+ * exchange String messages: a command, such as "Provide initial placement",
+ * and any JSON that goes with it.
+ */
+public interface MessageChannel {
+    /**
+     * Sends a message to the other end.
+     *
+     * @param message The message.
+     * @throws IOException If the message could not be sent.
+     */
+    void send(String message) throws IOException;
+
+    /**
+     * Waits for the next message from the other end.
+     *
+     * @return The message.
+     * @throws IOException If the connection was closed or broke before a
+     *                     message came.
+     */
+    String receive() throws IOException;
+
+    /**
+     * Closes the connection once everything sent has gone out.
+     */
+    void close();
+
+    /**
+     * Closes the connection at once, dropping anything not yet sent, and
+     * wakes anything waiting for a message.
+     */
+    void abort();
+}
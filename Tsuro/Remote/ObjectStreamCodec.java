@@ -0,0 +1,215 @@
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * Reads and writes the bytes that ObjectOutputStream and ObjectInputStream
+ * exchange when all they send are Strings, as Client does, so that a server
+ * can speak to Clients without blocking a thread on each stream.
+ * <p>
+ * Such a stream is a header followed by one record per String: a tag, the
+ * length, and the String in modified UTF-8. ObjectOutputStream sends a String
+ * it has sent before as a reference to its handle instead, and may reset the
+ * handles, so both are understood. Strings are always written in full, which
+ * ObjectInputStream accepts. One codec is used for each connection, as both
+ * the header and the handles belong to the stream.
+ * <p>
+ * Clients only ever send short commands, so a String read may be at most
+ * MAX_MESSAGE bytes long; a longer one is refused as soon as its length is
+ * read, before any of it is buffered.
+ */
+public class ObjectStreamCodec {
+    private static final short STREAM_MAGIC = (short) 0xACED;
+    private static final short STREAM_VERSION = 5;
+    private static final byte TC_REFERENCE = 0x71;
+    private static final byte TC_STRING = 0x74;
+    private static final byte TC_RESET = 0x79;
+    private static final byte TC_LONGSTRING = 0x7C;
+    private static final int BASE_HANDLE = 0x7E0000;
+    /**
+     * The most bytes a String read may take, the same as a binary frame.
+     */
+    public static final int MAX_MESSAGE = BinaryFormat.MAX_FRAME;
+
+    private boolean headerWritten;
+    private boolean headerRead;
+    private ArrayList<String> handles;
+
+    /**
+     * Constructs an ObjectStreamCodec for a new connection.
+     */
+    public ObjectStreamCodec() {
+        this.handles = new ArrayList<>();
+    }
+
+    /**
+     * Gives the stream header, which ObjectOutputStream writes as soon as it
+     * is opened and ObjectInputStream waits for before reading anything.
+     *
+     * @return A buffer of the header, ready to be written, or an empty one
+     * if the header has already been given.
+     */
+    public synchronized ByteBuffer encodeHeader() {
+        ByteBuffer out = ByteBuffer.allocate(this.headerWritten ? 0 : 4);
+        if (!this.headerWritten) {
+            out.putShort(STREAM_MAGIC).putShort(STREAM_VERSION);
+            this.headerWritten = true;
+        }
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Gives the bytes that ObjectOutputStream would write for the given
+     * String, preceded by the stream header if this is the first.
+     *
+     * @param message The String.
+     * @return A buffer of the bytes, ready to be written.
+     */
+    public synchronized ByteBuffer encode(String message) {
+        int utfLength = utfLength(message);
+        boolean isLong = utfLength > 0xFFFF;
+        ByteBuffer out = ByteBuffer.allocate((this.headerWritten ? 0 : 4)
+                + (isLong ? 9 : 3) + utfLength);
+        if (!this.headerWritten) {
+            out.putShort(STREAM_MAGIC).putShort(STREAM_VERSION);
+            this.headerWritten = true;
+        }
+        if (isLong) {
+            out.put(TC_LONGSTRING).putLong(utfLength);
+        } else {
+            out.put(TC_STRING).putShort((short) utfLength);
+        }
+        for (int ii = 0; ii < message.length(); ++ii) {
+            char cc = message.charAt(ii);
+            if (cc >= 0x0001 && cc <= 0x007F) {
+                out.put((byte) cc);
+            } else if (cc <= 0x07FF) {
+                out.put((byte) (0xC0 | (cc >> 6)));
+                out.put((byte) (0x80 | (cc & 0x3F)));
+            } else {
+                out.put((byte) (0xE0 | (cc >> 12)));
+                out.put((byte) (0x80 | ((cc >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (cc & 0x3F)));
+            }
+        }
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Reads the next String from the given bytes, if they hold all of it. The
+     * buffer is left after the String if one was read, or where it was if not.
+     *
+     * @param in The bytes read so far, ready to be read from.
+     * @return The String, or null if more bytes are needed.
+     * @throws IOException If the bytes are not a stream of Strings, or the
+     *                     next String is longer than MAX_MESSAGE.
+     */
+    public String decode(ByteBuffer in) throws IOException {
+        int start = in.position();
+        if (!this.headerRead) {
+            if (in.remaining() < 4) {
+                return null;
+            }
+            if (in.getShort() != STREAM_MAGIC || in.getShort() != STREAM_VERSION) {
+                throw new IOException("Not an object stream.");
+            }
+            this.headerRead = true;
+            start = in.position();
+        }
+
+        while (in.remaining() > 0) {
+            byte tag = in.get();
+            switch (tag) {
+                case TC_RESET:
+                    this.handles.clear();
+                    start = in.position();
+                    break;
+                case TC_REFERENCE:
+                    if (in.remaining() < 4) {
+                        in.position(start);
+                        return null;
+                    }
+                    int handle = in.getInt() - BASE_HANDLE;
+                    if (handle < 0 || handle >= this.handles.size()) {
+                        throw new IOException("Reference to unknown handle " + handle + ".");
+                    }
+                    return this.handles.get(handle);
+                case TC_STRING:
+                case TC_LONGSTRING:
+                    int lengthBytes = tag == TC_STRING ? 2 : 8;
+                    if (in.remaining() < lengthBytes) {
+                        in.position(start);
+                        return null;
+                    }
+                    long length = tag == TC_STRING ? in.getShort() & 0xFFFF : in.getLong();
+                    if (length > MAX_MESSAGE) {
+                        throw new IOException("String of " + length + " bytes is too long.");
+                    }
+                    if (in.remaining() < length) {
+                        in.position(start);
+                        return null;
+                    }
+                    String message = readUtf(in, (int) length);
+                    this.handles.add(message);
+                    return message;
+                default:
+                    throw new IOException("Unexpected object stream tag " + tag + ".");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gives the number of bytes the given String takes in modified UTF-8.
+     *
+     * @param message The String.
+     * @return The number of bytes.
+     */
+    private static int utfLength(String message) {
+        int length = 0;
+        for (int ii = 0; ii < message.length(); ++ii) {
+            char cc = message.charAt(ii);
+            if (cc >= 0x0001 && cc <= 0x007F) {
+                length += 1;
+            } else if (cc <= 0x07FF) {
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Reads a String in modified UTF-8 of the given length from the given
+     * bytes.
+     *
+     * @param in     The bytes, with at least the given number remaining.
+     * @param length The number of bytes in the String.
+     * @return The String.
+     * @throws UTFDataFormatException If the bytes are not modified UTF-8.
+     */
+    private static String readUtf(ByteBuffer in, int length) throws UTFDataFormatException {
+        StringBuilder out = new StringBuilder(length);
+        int end = in.position() + length;
+        while (in.position() < end) {
+            int first = in.get() & 0xFF;
+            if (first < 0x80) {
+                out.append((char) first);
+            } else if ((first & 0xE0) == 0xC0 && in.position() < end) {
+                int second = in.get() & 0xFF;
+                out.append((char) (((first & 0x1F) << 6) | (second & 0x3F)));
+            } else if ((first & 0xF0) == 0xE0 && in.position() + 1 < end) {
+                int second = in.get() & 0xFF;
+                int third = in.get() & 0xFF;
+                out.append((char) (((first & 0x0F) << 12) | ((second & 0x3F) << 6) | (third & 0x3F)));
+            } else {
+                throw new UTFDataFormatException("Malformed string at byte " + in.position() + ".");
+            }
+        }
+        return out.toString();
+    }
+}
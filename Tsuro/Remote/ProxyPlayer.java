@@ -0,0 +1,242 @@
+import com.google.gson.JsonArray;
+import java.awt.*;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.logging.Logger;
+
+public class ProxyPlayer extends Thread implements IPlayer {
+    Logger logger;
+    final RemoteProtocol protocol;
+    private String name;
+    private int age;
+    private Strategy strategy;
+    private Point curPos;
+    private Avatar avatar;
+    private ArrayList<Tiles> tileHand;
+    private volatile boolean disconnected;
+
+    // Constructor
+    public ProxyPlayer(String name, int age, String stratName, RemoteProtocol protocol,
+                       Logger logger) {
+        this.name = name;
+        this.age = age;
+        this.strategy = strategyFactory(stratName);
+        Point point = null;
+        Avatar avatar = null;
+        this.tileHand = new ArrayList<>(3);
+        this.logger = logger;
+        this.protocol = protocol;
+    }
+
+    private Strategy strategyFactory(String stratName) {
+        switch (stratName) {
+            case "dumb":
+            case "Dumb":
+                return new DumbStrategy();
+            case "second":
+            case "Second":
+                return new Second();
+            case "expectimax":
+            case "Expectimax":
+                return new ExpectimaxStrategy();
+            case "mcts":
+            case "MCTS":
+                return new MctsStrategy();
+            default:
+                throw new IllegalArgumentException("Strategy: " + stratName + " is not supported");
+        }
+
+    }
+
+    public void notifyWinner(){
+        try{
+            logger.info(">> To [" + this.name + "]: Congratulations! You have won");
+            protocol.notifyWinner();
+        } catch (IOException io) {
+            io.printStackTrace();
+        }
+
+    }
+
+    private void sendHand(){
+        try {
+            logger.info(">> To [" + this.name + "]: Referee has sent you hand for the next round");
+            protocol.sendHand(this.tileHand);
+        } catch (IOException io) {
+            io.printStackTrace();
+        }
+    }
+
+    @Override
+    public JsonArray provideInitPlacement() {
+        sendHand();
+        JsonArray clientRequest = null;
+        try {
+            logger.info(">> To [" + this.name + "]: Provide initial placement");
+            clientRequest = protocol.requestInitPlacement();
+            logger.info("<< " + "From [" + this.name + "]: " + clientRequest.toString());
+
+        } catch (IOException io) {
+            this.reportFailedRequest(io);
+        }
+        return clientRequest;
+    }
+
+    @Override
+    public JsonArray provideInterPlacement() {
+        sendHand();
+        JsonArray clientRequest = null;
+
+        try {
+            logger.info(">> To [" + this.name + "]: Provide intermediate placement");
+            clientRequest = protocol.requestInterPlacement();
+            logger.info("<< From [" + this.name + "]: " + clientRequest.toString());
+
+        } catch (IOException io) {
+            this.reportFailedRequest(io);
+        }
+        return clientRequest;
+    }
+
+    /**
+     * Reports that a placement could not be had from the Client, unless that
+     * is because the Client was disconnected for being too slow.
+     *
+     * @param io Why the placement could not be had.
+     */
+    private void reportFailedRequest(IOException io) {
+        if (!this.disconnected) {
+            io.printStackTrace();
+        }
+    }
+
+    @Override
+    public void setAvatar(Avatar avatar) {
+        try{
+            logger.info(">> To [" + this.name + "]: " + "Referee assigned you an avatar"
+                    + " with " + avatar.getColor().toString() + " color");
+            protocol.sendAvatar(avatar);
+        } catch (IOException io) {
+            io.printStackTrace();
+        }
+        this.avatar = avatar;
+    }
+
+    @Override
+    public void updateAvatar(Avatar avatar) {
+        try{
+            logger.info(">> To [" + this.name + "]: " + "Referee has sent you where your avatar stands");
+            protocol.sendAvatar(avatar);
+        } catch (IOException io) {
+            io.printStackTrace();
+        }
+    }
+
+    @Override
+    public int getAge(){
+        return this.age;
+    }
+
+
+    @Override
+    public String getPlayerName() {
+        return this.name;
+    }
+
+    @Override
+    public void setEliminated() {
+        try{
+            logger.info(">> To [" + this.name + "]: " + "You were eliminated from the game!");
+            protocol.notifyEliminated();
+        } catch (IOException io){
+            io.printStackTrace();
+        }
+    }
+
+    @Override
+    public void setKicked() {
+        if (this.disconnected) {
+            return;
+        }
+        try{
+            logger.info(">> To [" + this.name + "]: " + "You made an illegal move and were kicked from the game!");
+            protocol.notifyKicked();
+        } catch (IOException io){
+            io.printStackTrace();
+        }
+    }
+
+    @Override
+    public String getAvatarName() {
+        return this.avatar.getColor().toString().toLowerCase();
+    }
+
+    public Avatar getAvatar() {
+        return this.avatar;
+    }
+
+    public void setPosition (Point newPos) {
+        this.curPos = newPos;
+    }
+
+    public boolean hasExited() {
+        return this.avatar.hasExited();
+    }
+
+    public void setTileHand(ArrayList<Tiles> tileHand) {
+        if (tileHand.size() > 3) {
+            throw new IllegalArgumentException("Cannot give a hand of more than three tiles.");
+        }
+        this.tileHand = tileHand;
+        sendHand();
+    }
+
+    /**
+     * Tells if this Avatar currently has no moves that will not result in its
+     * death.
+     *
+     * @param board The Board that this Avatar is playing on.
+     * @return True if this Avatar has no valid moves left.
+     */
+    public boolean hasNoMoves(Board board, Tiles placingTile, boolean firstMove) {
+        /*
+           Check every tile in the hand, along with the one being placed, in
+           every way it can be rotated.
+         */
+        ArrayList<Tiles> checkingTiles = new ArrayList<>(this.tileHand);
+        checkingTiles.add(placingTile);
+        return !Rules.legalMoves(board, this.avatar, checkingTiles).hasSafeMove();
+    }
+
+    public boolean hasFullHand() {
+        return this.tileHand.size() == 3;
+    }
+
+    public ArrayList<Tiles> confiscateTiles() {
+        ArrayList<Tiles> confiscatedTiles = this.tileHand;
+        this.tileHand = new ArrayList<>();
+        return confiscatedTiles;
+    }
+
+    @Override
+    public void updateBoard(Board b) {
+        try {
+            logger.info(">> To [" + this.name + "]: Referee has sent you updated board state");
+            protocol.sendBoard(b);
+        } catch (IOException io) {
+            io.printStackTrace();
+        }
+    }
+
+    @Override
+    public void disconnect() {
+        logger.info(">> To [" + this.name + "]: Too slow to provide a placement, disconnecting");
+        this.disconnected = true;
+        protocol.abort();
+    }
+
+    @Override
+    public int compareTo(IPlayer o) {
+        return 0;
+    }
+}
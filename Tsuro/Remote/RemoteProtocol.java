@@ -0,0 +1,78 @@
+import com.google.gson.JsonArray;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * How a ProxyPlayer tells its Client what the Referee says, and hears back
+ * the placements it makes, over whichever protocol the two agreed on.
+ */
+public interface RemoteProtocol {
+    /**
+     * Tells the Client which Avatar it plays.
+     *
+     * @param avatar The Avatar.
+     * @throws IOException If the Client could not be told.
+     */
+    void sendAvatar(Avatar avatar) throws IOException;
+
+    /**
+     * Tells the Client its hand for the next round.
+     *
+     * @param hand The tiles in the hand.
+     * @throws IOException If the Client could not be told.
+     */
+    void sendHand(List<Tiles> hand) throws IOException;
+
+    /**
+     * Tells the Client the state of the Board.
+     *
+     * @param board The Board.
+     * @throws IOException If the Client could not be told.
+     */
+    void sendBoard(Board board) throws IOException;
+
+    /**
+     * Asks the Client for an initial placement and waits for it.
+     *
+     * @return The placement, as a Player provides it.
+     * @throws IOException If the Client could not be asked or did not answer.
+     */
+    JsonArray requestInitPlacement() throws IOException;
+
+    /**
+     * Asks the Client for an intermediate placement and waits for it.
+     *
+     * @return The placement, as a Player provides it.
+     * @throws IOException If the Client could not be asked or did not answer.
+     */
+    JsonArray requestInterPlacement() throws IOException;
+
+    /**
+     * Tells the Client it has won.
+     *
+     * @throws IOException If the Client could not be told.
+     */
+    void notifyWinner() throws IOException;
+
+    /**
+     * Tells the Client it was eliminated.
+     *
+     * @throws IOException If the Client could not be told.
+     */
+    void notifyEliminated() throws IOException;
+
+    /**
+     * Tells the Client it was kicked for an illegal move.
+     *
+     * @throws IOException If the Client could not be told.
+     */
+    void notifyKicked() throws IOException;
+
+    /**
+     * Closes the connection to the Client at once, dropping anything not yet
+     * sent, so that a call waiting on the Client fails even if the Client has
+     * stopped reading.
+     */
+    void abort();
+}
@@ -0,0 +1,56 @@
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.Socket;
+
+/**
+ * A MessageChannel over a blocking Socket, with messages written as Java
+ * serialized Strings, as Client expects.
+ */
+public class StreamChannel implements MessageChannel {
+    private Socket socket;
+    private ObjectInputStream input;
+    private ObjectOutputStream output;
+
+    /**
+     * Constructs a StreamChannel over the given Socket, writing the stream
+     * header.
+     *
+     * @param socket The connected Socket.
+     * @throws IOException If the streams could not be opened.
+     */
+    public StreamChannel(Socket socket) throws IOException {
+        this.socket = socket;
+        this.output = new ObjectOutputStream(socket.getOutputStream());
+        this.input = new ObjectInputStream(socket.getInputStream());
+    }
+
+    @Override
+    public void send(String message) throws IOException {
+        this.output.writeObject(message);
+    }
+
+    @Override
+    public String receive() throws IOException {
+        try {
+            return this.input.readObject().toString();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Expected a String message.", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.socket.close();
+        } catch (IOException io) {
+            io.printStackTrace();
+        }
+    }
+
+    @Override
+    public void abort() {
+        // Writes are made as messages are sent, so there is nothing queued to drop.
+        this.close();
+    }
+}